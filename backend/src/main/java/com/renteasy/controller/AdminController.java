@@ -0,0 +1,132 @@
+package com.renteasy.controller;
+
+import com.renteasy.dto.ApiResponse;
+import com.renteasy.model.MigrationCheckpoint;
+import com.renteasy.service.HotItemCache;
+import com.renteasy.service.HotItemTracker;
+import com.renteasy.service.ImageMigrationService;
+import com.renteasy.service.ItemService;
+import com.renteasy.service.ItemUniqueViewers;
+import com.renteasy.service.ItemViewCounter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final ImageMigrationService imageMigrationService;
+    private final ItemViewCounter itemViewCounter;
+    private final ItemUniqueViewers itemUniqueViewers;
+    private final ItemService itemService;
+    private final HotItemTracker hotItemTracker;
+    private final HotItemCache hotItemCache;
+
+    @GetMapping("/image-migration")
+    public ResponseEntity<?> getImageMigrationStatus() {
+        return ResponseEntity.ok(new ApiResponse(true, "Image migration status", imageMigrationStatus()));
+    }
+
+    @PostMapping("/image-migration/start")
+    public ResponseEntity<?> startImageMigration() {
+        if (!imageMigrationService.start()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ApiResponse(false, "Image migration is already running", imageMigrationStatus()));
+        }
+        return ResponseEntity.accepted()
+            .body(new ApiResponse(true, "Image migration started", imageMigrationStatus()));
+    }
+
+    @PostMapping("/image-migration/stop")
+    public ResponseEntity<?> stopImageMigration() {
+        imageMigrationService.stop();
+        return ResponseEntity.ok(new ApiResponse(true, "Image migration will stop after the current batch", imageMigrationStatus()));
+    }
+
+    @GetMapping("/view-counter")
+    public ResponseEntity<?> getViewCounterStatus() {
+        return ResponseEntity.ok(new ApiResponse(true, "View counter status", viewCounterStatus()));
+    }
+
+    @PostMapping("/view-counter/flush")
+    public ResponseEntity<?> flushViewCounter() {
+        try {
+            long flushed = itemViewCounter.flush();
+            return ResponseEntity.ok(new ApiResponse(true, "Flushed " + flushed + " views", viewCounterStatus()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ApiResponse(false, "Flush failed; views are kept for the next attempt", viewCounterStatus()));
+        }
+    }
+
+    @GetMapping("/items/{id}/unique-viewers")
+    public ResponseEntity<?> getUniqueViewers(@PathVariable String id,
+                                              @RequestParam(defaultValue = "30") int days) {
+        try {
+            return ResponseEntity.ok(itemService.getUniqueViewers(id, null, days));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
+        }
+    }
+
+    @GetMapping("/hot-items")
+    public ResponseEntity<?> getHotItems(@RequestParam(defaultValue = "20") int limit) {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (HotItemTracker.HotItem hotItem : hotItemTracker.top(Math.max(1, Math.min(limit, 1000)))) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("itemId", hotItem.itemId());
+            item.put("count", hotItem.count());
+            item.put("error", hotItem.error());
+            item.put("cached", hotItemCache.contains(hotItem.itemId()));
+            items.add(item);
+        }
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("tracked", hotItemTracker.size());
+        status.put("cached", hotItemCache.getCacheSize());
+        status.put("cacheHits", hotItemCache.getHits());
+        status.put("cacheMisses", hotItemCache.getMisses());
+        status.put("lastRefreshAt", hotItemCache.getLastRefreshAt());
+        status.put("lastRefreshMillis", hotItemCache.getLastRefreshMillis());
+        status.put("items", items);
+        return ResponseEntity.ok(new ApiResponse(true, "Hot items", status));
+    }
+
+    private Map<String, Object> viewCounterStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("recorded", itemViewCounter.getRecordedViews());
+        status.put("flushed", itemViewCounter.getFlushedViews());
+        status.put("pending", itemViewCounter.getPendingViews());
+        status.put("trackedItems", itemViewCounter.getTrackedItems());
+        status.put("flushes", itemViewCounter.getFlushCount());
+        status.put("failedFlushes", itemViewCounter.getFailedFlushCount());
+        status.put("lastFlushAt", itemViewCounter.getLastFlushAt());
+        status.put("lastFlushMillis", itemViewCounter.getLastFlushMillis());
+        status.put("lastFlushItems", itemViewCounter.getLastFlushItems());
+        status.put("pendingUniqueViewerSketches", itemUniqueViewers.getPendingSketches());
+        status.put("uniqueViewerFlushes", itemUniqueViewers.getFlushCount());
+        status.put("failedUniqueViewerFlushes", itemUniqueViewers.getFailedFlushCount());
+        return status;
+    }
+
+    private Map<String, Object> imageMigrationStatus() {
+        MigrationCheckpoint checkpoint = imageMigrationService.getStatus();
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", imageMigrationService.isRunning());
+        status.put("completed", checkpoint.getCompleted());
+        status.put("lastProcessedId", checkpoint.getLastProcessedId());
+        status.put("processed", checkpoint.getProcessedCount());
+        status.put("migrated", checkpoint.getMigratedCount());
+        status.put("failed", checkpoint.getFailedCount());
+        status.put("updatedAt", checkpoint.getUpdatedAt());
+        return status;
+    }
+}
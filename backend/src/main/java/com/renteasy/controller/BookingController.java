@@ -3,8 +3,10 @@ package com.renteasy.controller;
 import com.renteasy.dto.ApiResponse;
 import com.renteasy.dto.BookingRequest;
 import com.renteasy.dto.BookingDTO;
+import com.renteasy.dto.CursorSlice;
 import com.renteasy.model.Booking;
 import com.renteasy.service.BookingService;
+import com.renteasy.util.ImageUrls;
 import com.renteasy.util.SecurityUtils;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -79,6 +81,16 @@ public class BookingController {
         Page<Booking> bookings = bookingService.getUserBookingsPaginated(userId, page, size);
         return ResponseEntity.ok(bookings.map(this::convertToDTO));
     }
+
+    @GetMapping("/my-bookings/scroll")
+    public ResponseEntity<CursorSlice<BookingDTO>> scrollMyBookings(
+            Authentication authentication,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        String userId = SecurityUtils.getCurrentUserId(authentication);
+        CursorSlice<Booking> bookings = bookingService.scrollUserBookings(userId, cursor, size);
+        return ResponseEntity.ok(bookings.map(this::convertToDTO));
+    }
     
     @GetMapping("/item/{itemId}")
     public ResponseEntity<List<BookingDTO>> getItemBookings(@PathVariable String itemId) {
@@ -99,7 +111,10 @@ public class BookingController {
         if (booking.getItem() != null) {
             dto.setItemId(booking.getItem().getId());
             dto.setItemName(booking.getItem().getName());
-            dto.setItemImage(booking.getItem().getImageUrl());
+            String itemImage = booking.getItem().getCardImageKey() != null
+                ? booking.getItem().getCardImageKey()
+                : booking.getItem().getImageUrl();
+            dto.setItemImage(ImageUrls.toPublicUrl(itemImage));
         }
         if (booking.getUser() != null) {
             dto.setUserId(booking.getUser().getId());
@@ -0,0 +1,143 @@
+package com.renteasy.controller;
+
+import com.renteasy.service.ImageStorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/images")
+@RequiredArgsConstructor
+public class ImageController {
+
+    private static final String CACHE_CONTROL_IMMUTABLE = "public, max-age=31536000, immutable";
+
+    // Tomcat hands these requests to the connector's sendfile support once the servlet returns.
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    private final ImageStorageService imageStorageService;
+
+    @GetMapping("/{key}")
+    public void getImage(@PathVariable String key,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        Optional<Path> storedImage = imageStorageService.resolve(key);
+        if (storedImage.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        Path path = storedImage.get();
+        String etag = "\"" + key.substring(0, key.indexOf('.')) + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL_IMMUTABLE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (matchesEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long length = Files.size(path);
+        long start = 0;
+        long end = length - 1;
+
+        HttpRange range = requestedRange(request, etag);
+        if (range != null) {
+            start = range.getRangeStart(length);
+            end = Math.min(range.getRangeEnd(length), length - 1);
+            if (start >= length || start > end) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+
+        response.setContentType(imageStorageService.contentType(key));
+        response.setContentLengthLong(end - start + 1);
+        if ("HEAD".equalsIgnoreCase(request.getMethod()) || length == 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTR, path.toString());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, end + 1);
+            return;
+        }
+
+        transfer(path, start, end - start + 1, response);
+    }
+
+    private HttpRange requestedRange(HttpServletRequest request, String etag) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null) {
+            return null;
+        }
+
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.trim().equals(etag)) {
+            return null;
+        }
+
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            // Multipart byte ranges are not worth the complexity for images; fall back to a full response.
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+            if (trimmed.equals("*") || trimmed.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void transfer(Path path, long position, long count, HttpServletResponse response) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long remaining = count;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+}
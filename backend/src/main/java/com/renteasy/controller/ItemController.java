@@ -1,11 +1,25 @@
 package com.renteasy.controller;
 
 import com.renteasy.dto.ApiResponse;
+import com.renteasy.dto.CursorSlice;
 import com.renteasy.dto.ItemRequest;
 import com.renteasy.dto.ItemDTO;
+import com.renteasy.dto.ItemQueryRequest;
+import com.renteasy.dto.ItemSummaryDTO;
+import com.renteasy.dto.MapCluster;
+import com.renteasy.dto.NearbyItem;
+import com.renteasy.dto.SearchPage;
+import com.renteasy.dto.SuggestionDTO;
 import com.renteasy.model.Item;
+import com.renteasy.repository.projection.ItemSummary;
+import com.renteasy.search.ItemAutocompleteIndex;
+import com.renteasy.service.HotItemCache;
+import com.renteasy.service.ImageStorageService;
+import com.renteasy.service.ImageStorageService.StagedImage;
 import com.renteasy.service.ItemRealtimePublisher;
 import com.renteasy.service.ItemService;
+import com.renteasy.util.ImageUrls;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -17,11 +31,12 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Base64;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -33,6 +48,8 @@ public class ItemController {
     private static final int MAX_ITEM_IMAGES = 5;
     private final ItemService itemService;
     private final ItemRealtimePublisher itemRealtimePublisher;
+    private final ImageStorageService imageStorageService;
+    private final HotItemCache hotItemCache;
     
     @PostMapping(consumes = "multipart/form-data")
     public ResponseEntity<?> createItemWithImages(
@@ -52,6 +69,7 @@ public class ItemController {
             @RequestParam(value = "imageFile", required = false) MultipartFile imageFile,
             @RequestParam(value = "additionalImageFiles", required = false) MultipartFile[] additionalImageFiles,
             Authentication authentication) {
+        List<StagedImage> uploads = new ArrayList<>();
         try {
             // Create ItemRequest from multipart data
             ItemRequest request = new ItemRequest();
@@ -88,27 +106,27 @@ public class ItemController {
                 request.setAvailableDates(parsedDates);
             }
             
-            // Convert image files to base64
-            List<String> images = new ArrayList<>();
-            if (imageFile != null && !imageFile.isEmpty()) {
-                String base64Image = "data:" + imageFile.getContentType() + ";base64," + 
-                    Base64.getEncoder().encodeToString(imageFile.getBytes());
-                request.setImageUrl(base64Image);
+            int mainImageCount = (imageFile != null && !imageFile.isEmpty()) ? 1 : 0;
+            int additionalImageCount = additionalImageFiles != null ? additionalImageFiles.length : 0;
+            if (mainImageCount + additionalImageCount > MAX_ITEM_IMAGES) {
+                return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, "Maximum 5 images are allowed per item"));
             }
-            
-            if (additionalImageFiles != null && additionalImageFiles.length > 0) {
-                int mainImageCount = (imageFile != null && !imageFile.isEmpty()) ? 1 : 0;
-                int totalImages = mainImageCount + additionalImageFiles.length;
-                if (totalImages > MAX_ITEM_IMAGES) {
-                    return ResponseEntity.badRequest()
-                        .body(new ApiResponse(false, "Maximum 5 images are allowed per item"));
-                }
 
+            // Stream image files into staging; they are only published once the item is saved
+            if (mainImageCount > 0) {
+                StagedImage mainImage = stageUpload(imageFile);
+                uploads.add(mainImage);
+                request.setImageUrl(mainImage.key());
+            }
+            
+            if (additionalImageCount > 0) {
+                List<String> images = new ArrayList<>();
                 for (MultipartFile file : additionalImageFiles) {
                     if (!file.isEmpty()) {
-                        String base64Image = "data:" + file.getContentType() + ";base64," + 
-                            Base64.getEncoder().encodeToString(file.getBytes());
-                        images.add(base64Image);
+                        StagedImage image = stageUpload(file);
+                        uploads.add(image);
+                        images.add(image.key());
                     }
                 }
                 request.setAdditionalImages(images);
@@ -126,7 +144,7 @@ public class ItemController {
                 }
             }
             
-            Item item = itemService.createItem(request, userId);
+            Item item = itemService.createItem(request, userId, uploads);
             ItemDTO itemDTO = convertToDTO(item);
             itemRealtimePublisher.publishCreated(item.getId(), itemDTO);
             return ResponseEntity.status(HttpStatus.CREATED)
@@ -137,6 +155,8 @@ public class ItemController {
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest()
                 .body(new ApiResponse(false, e.getMessage()));
+        } finally {
+            uploads.forEach(imageStorageService::discard);
         }
     }
     
@@ -173,11 +193,16 @@ public class ItemController {
     }
     
     @GetMapping("/{id:[0-9a-fA-F\\-]{36}}")
-    public ResponseEntity<?> getItemById(@PathVariable String id) {
+    public ResponseEntity<?> getItemById(@PathVariable String id,
+                                         Authentication authentication,
+                                         HttpServletRequest request) {
         try {
-            Item item = itemService.getItemById(id);
-            itemService.incrementViews(id);
-            return ResponseEntity.ok(convertToDTO(item));
+            Optional<ItemDTO> cached = hotItemCache.get(id);
+            ItemDTO itemDTO = cached.isPresent()
+                ? cached.get().withPublicImageUrls()
+                : convertToDTO(itemService.getItemById(id));
+            itemService.incrementViews(id, Boolean.TRUE.equals(itemDTO.getAvailable()), viewerKey(authentication, request));
+            return ResponseEntity.ok(itemDTO);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body(new ApiResponse(false, e.getMessage()));
@@ -185,20 +210,29 @@ public class ItemController {
     }
     
     @GetMapping
-    public ResponseEntity<Page<ItemDTO>> getAllItems(
+    public ResponseEntity<Page<ItemSummaryDTO>> getAllItems(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size) {
-        Page<Item> items = itemService.getAllItems(page, size);
-        return ResponseEntity.ok(items.map(this::convertToDTO));
+        Page<ItemSummary> items = itemService.getAllItems(page, size);
+        return ResponseEntity.ok(items.map(this::convertToSummaryDTO));
+    }
+
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorSlice<ItemSummaryDTO>> scrollAllItems(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "12") int size) {
+        CursorSlice<ItemSummary> items = itemService.scrollAllItems(cursor, size);
+        return ResponseEntity.ok(items.map(this::convertToSummaryDTO));
     }
     
     @GetMapping("/category/{category}")
-    public ResponseEntity<Page<ItemDTO>> getItemsByCategory(
+    public ResponseEntity<Page<ItemSummaryDTO>> getItemsByCategory(
             @PathVariable String category,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size,
-            @RequestParam(required = false) String subcategory) {
-        Page<Item> items;
+            @RequestParam(required = false) String subcategory,
+            @RequestParam(defaultValue = "false") boolean facets) {
+        Page<ItemSummary> items;
         String trimmedCategory = category.trim();
         if (subcategory != null && !subcategory.trim().isEmpty()) {
             String trimmedSubcategory = subcategory.trim();
@@ -206,82 +240,174 @@ public class ItemController {
         } else {
             items = itemService.getItemsByCategory(trimmedCategory, page, size);
         }
-        return ResponseEntity.ok(items.map(this::convertToDTO));
+        if (facets) {
+            items = new SearchPage<>(items, null, itemService.getCategoryFacets(trimmedCategory, subcategory));
+        }
+        return ResponseEntity.ok(items.map(this::convertToSummaryDTO));
+    }
+
+    @GetMapping("/category/{category}/scroll")
+    public ResponseEntity<CursorSlice<ItemSummaryDTO>> scrollItemsByCategory(
+            @PathVariable String category,
+            @RequestParam(required = false) String subcategory,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "12") int size) {
+        CursorSlice<ItemSummary> items = itemService.scrollItemsByCategory(category, subcategory, cursor, size);
+        return ResponseEntity.ok(items.map(this::convertToSummaryDTO));
     }
     
     @GetMapping("/search")
-    public ResponseEntity<Page<ItemDTO>> searchItems(
+    public ResponseEntity<SearchPage<ItemSummaryDTO>> searchItems(
             @RequestParam String query,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "12") int size) {
-        Page<Item> items = itemService.searchItems(query, page, size);
-        return ResponseEntity.ok(items.map(this::convertToDTO));
+            @RequestParam(defaultValue = "12") int size,
+            @RequestParam(defaultValue = "false") boolean facets) {
+        SearchPage<ItemSummary> items = itemService.searchItems(query, page, size, facets);
+        return ResponseEntity.ok(items.map(this::convertToSummaryDTO));
+    }
+
+    @GetMapping("/query")
+    public ResponseEntity<Page<ItemSummaryDTO>> queryItems(@ModelAttribute ItemQueryRequest request) {
+        Page<ItemSummary> items = itemService.queryItems(request);
+        return ResponseEntity.ok(items.map(this::convertToSummaryDTO));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDTO>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "8") int limit) {
+        List<SuggestionDTO> suggestions = itemService.suggest(prefix, limit).stream()
+            .map(this::convertToSuggestionDTO)
+            .collect(Collectors.toList());
+        return ResponseEntity.ok(suggestions);
     }
 
     @GetMapping("/location")
-    public ResponseEntity<Page<ItemDTO>> searchItemsByLocation(
+    public ResponseEntity<Page<ItemSummaryDTO>> searchItemsByLocation(
             @RequestParam String query,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size) {
-        Page<Item> items = itemService.searchItemsByLocation(query, page, size);
-        return ResponseEntity.ok(items.map(this::convertToDTO));
+        Page<ItemSummary> items = itemService.searchItemsByLocation(query, page, size);
+        return ResponseEntity.ok(items.map(this::convertToSummaryDTO));
     }
 
     @GetMapping("/nearby")
-    public ResponseEntity<Page<ItemDTO>> getNearbyItems(
+    public ResponseEntity<Page<ItemSummaryDTO>> getNearbyItems(
             @RequestParam double lat,
             @RequestParam double lng,
             @RequestParam(defaultValue = "10") double radiusKm,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size) {
-        Page<Item> nearbyItems = itemService.getNearbyItems(lat, lng, radiusKm, page, size);
-        java.util.Map<String, Double> distances = itemService.getDistancesByItemId(lat, lng, nearbyItems.getContent());
-
-        Page<ItemDTO> result = nearbyItems.map(item -> {
-            ItemDTO dto = convertToDTO(item);
-            Double distanceKm = distances.get(item.getId());
-            if (distanceKm != null) {
-                dto.setDistanceKm(Math.round(distanceKm * 100.0) / 100.0);
-            }
-            return dto;
-        });
+        Page<NearbyItem> nearbyItems = itemService.getNearbyItems(lat, lng, radiusKm, page, size);
+        return ResponseEntity.ok(nearbyItems.map(this::convertToSummaryDTO));
+    }
 
-        return ResponseEntity.ok(result);
+    @GetMapping("/nearby/scroll")
+    public ResponseEntity<CursorSlice<ItemSummaryDTO>> scrollNearbyItems(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(defaultValue = "10") double radiusKm,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "12") int size) {
+        CursorSlice<NearbyItem> nearbyItems = itemService.scrollNearbyItems(lat, lng, radiusKm, cursor, size);
+        return ResponseEntity.ok(nearbyItems.map(this::convertToSummaryDTO));
+    }
+    
+    @GetMapping("/map-clusters")
+    public ResponseEntity<List<MapCluster<ItemSummaryDTO>>> getMapClusters(
+            @RequestParam double minLat,
+            @RequestParam double maxLat,
+            @RequestParam double minLng,
+            @RequestParam double maxLng,
+            @RequestParam int zoom) {
+        List<MapCluster<ItemSummaryDTO>> clusters = itemService.getMapClusters(minLat, maxLat, minLng, maxLng, zoom).stream()
+            .map(cluster -> cluster.map(this::convertToSummaryDTO))
+            .collect(Collectors.toList());
+        return ResponseEntity.ok(clusters);
     }
     
     @GetMapping("/boosted")
-    public ResponseEntity<Page<ItemDTO>> getBoostedItems(
+    public ResponseEntity<Page<ItemSummaryDTO>> getBoostedItems(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size) {
-        Page<Item> items = itemService.getBoostedItems(page, size);
-        return ResponseEntity.ok(items.map(this::convertToDTO));
+        Page<ItemSummary> items = itemService.getBoostedItems(page, size);
+        return ResponseEntity.ok(items.map(this::convertToSummaryDTO));
+    }
+
+    @GetMapping("/boosted/scroll")
+    public ResponseEntity<CursorSlice<ItemSummaryDTO>> scrollBoostedItems(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "12") int size) {
+        CursorSlice<ItemSummary> items = itemService.scrollBoostedItems(cursor, size);
+        return ResponseEntity.ok(items.map(this::convertToSummaryDTO));
     }
     
     @GetMapping("/popular")
-    public ResponseEntity<Page<ItemDTO>> getPopularItems(
+    public ResponseEntity<Page<ItemSummaryDTO>> getPopularItems(
+            @RequestParam(defaultValue = "7d") String window,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size) {
-        Page<Item> items = itemService.getPopularItems(page, size);
-        return ResponseEntity.ok(items.map(this::convertToDTO));
+        Page<ItemSummary> items = itemService.getPopularItems(window, page, size);
+        return ResponseEntity.ok(items.map(this::convertToSummaryDTO));
+    }
+
+    @GetMapping("/popular/scroll")
+    public ResponseEntity<CursorSlice<ItemSummaryDTO>> scrollPopularItems(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "12") int size) {
+        CursorSlice<ItemSummary> items = itemService.scrollPopularItems(cursor, size);
+        return ResponseEntity.ok(items.map(this::convertToSummaryDTO));
     }
     
     @GetMapping("/user/{userId}")
-    public ResponseEntity<Page<ItemDTO>> getUserItems(
+    public ResponseEntity<Page<ItemSummaryDTO>> getUserItems(
             @PathVariable String userId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size) {
-        Page<Item> items = itemService.getUserItems(userId, page, size);
-        return ResponseEntity.ok(items.map(this::convertToDTO));
+        Page<ItemSummary> items = itemService.getUserItems(userId, page, size);
+        return ResponseEntity.ok(items.map(this::convertToSummaryDTO));
+    }
+
+    @GetMapping("/user/{userId}/scroll")
+    public ResponseEntity<CursorSlice<ItemSummaryDTO>> scrollUserItems(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "12") int size) {
+        CursorSlice<ItemSummary> items = itemService.scrollUserItems(userId, cursor, size);
+        return ResponseEntity.ok(items.map(this::convertToSummaryDTO));
     }
     
+    @GetMapping("/{id}/unique-viewers")
+    public ResponseEntity<?> getUniqueViewers(@PathVariable String id,
+                                              @RequestParam(defaultValue = "7") int days,
+                                              Authentication authentication) {
+        try {
+            String userId = getUserIdFromAuthentication(authentication);
+            return ResponseEntity.ok(itemService.getUniqueViewers(id, userId, days));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body(new ApiResponse(false, e.getMessage()));
+        }
+    }
+
     @GetMapping("/my-items")
-    public ResponseEntity<Page<ItemDTO>> getMyItems(
+    public ResponseEntity<Page<ItemSummaryDTO>> getMyItems(
             Authentication authentication,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size) {
         String userId = getUserIdFromAuthentication(authentication);
-        Page<Item> items = itemService.getUserItems(userId, page, size);
-        return ResponseEntity.ok(items.map(this::convertToDTO));
+        Page<ItemSummary> items = itemService.getUserItems(userId, page, size);
+        return ResponseEntity.ok(items.map(this::convertToSummaryDTO));
+    }
+
+    @GetMapping("/my-items/scroll")
+    public ResponseEntity<CursorSlice<ItemSummaryDTO>> scrollMyItems(
+            Authentication authentication,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "12") int size) {
+        String userId = getUserIdFromAuthentication(authentication);
+        CursorSlice<ItemSummary> items = itemService.scrollUserItems(userId, cursor, size);
+        return ResponseEntity.ok(items.map(this::convertToSummaryDTO));
     }
 
     @PatchMapping("/{id}/booking-dates")
@@ -335,6 +461,24 @@ public class ItemController {
         }
     }
     
+    private StagedImage stageUpload(MultipartFile file) throws IOException {
+        try (InputStream input = file.getInputStream()) {
+            return imageStorageService.stage(input, file.getContentType());
+        }
+    }
+    
+    /**
+     * Identifies a viewer for unique-viewer counts: the user when signed in, otherwise the
+     * client address and user agent. Only a hash of it is kept.
+     */
+    private String viewerKey(Authentication authentication, HttpServletRequest request) {
+        String userId = getUserIdFromAuthentication(authentication);
+        if (!"anonymous".equals(userId)) {
+            return "user:" + userId;
+        }
+        return "client:" + request.getRemoteAddr() + "|" + request.getHeader("User-Agent");
+    }
+
     private String getUserIdFromAuthentication(Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
             return "anonymous";
@@ -348,38 +492,40 @@ public class ItemController {
     }
     
     private ItemDTO convertToDTO(Item item) {
-        ItemDTO dto = new ItemDTO();
-        dto.setId(item.getId());
-        dto.setName(item.getName());
-        dto.setDescription(item.getDescription());
-        dto.setCategory(item.getCategory());
-        dto.setSubcategory(item.getSubcategory());
-        dto.setPrice(item.getPrice());
-        dto.setImageUrl(item.getImageUrl());
-        dto.setAdditionalImages(item.getAdditionalImages());
-        dto.setAvailable(item.getAvailable());
-        dto.setAvailableDates(item.getAvailableDates() == null ? null
-            : item.getAvailableDates().stream().map(java.time.LocalDate::toString).collect(Collectors.toList()));
-        dto.setLocation(item.getLocation());
-        dto.setLatitude(item.getLatitude());
-        dto.setLongitude(item.getLongitude());
-        String ownerPhoneNumber = item.getOwnerPhoneNumber();
-        if ((ownerPhoneNumber == null || ownerPhoneNumber.trim().isEmpty()) && item.getOwner() != null) {
-            ownerPhoneNumber = item.getOwner().getPhoneNumber();
-        }
-        dto.setOwnerPhoneNumber(ownerPhoneNumber);
-        dto.setMinimumRentalPeriod(item.getMinimumRentalPeriod());
-        dto.setMaximumRentalPeriod(item.getMaximumRentalPeriod());
-        dto.setViews(item.getViews());
-        dto.setBoosted(item.getBoosted());
-        dto.setBoostedUntil(item.getBoostedUntil());
-        dto.setCreatedAt(item.getCreatedAt());
-        dto.setUpdatedAt(item.getUpdatedAt());
-        if (item.getOwner() != null) {
-            dto.setOwnerId(item.getOwner().getId());
-            dto.setOwnerName(item.getOwner().getFirstName() + " " + item.getOwner().getLastName());
-        }
+        return ItemDTO.from(item).withPublicImageUrls();
+    }
+
+    private ItemSummaryDTO convertToSummaryDTO(NearbyItem nearbyItem) {
+        ItemSummaryDTO dto = convertToSummaryDTO(nearbyItem.item());
+        dto.setDistanceKm(Math.round(nearbyItem.distanceKm() * 100.0) / 100.0);
+        return dto;
+    }
+
+    private ItemSummaryDTO convertToSummaryDTO(ItemSummary item) {
+        ItemSummaryDTO dto = new ItemSummaryDTO();
+        dto.setId(item.id());
+        dto.setName(item.name());
+        dto.setCategory(item.category());
+        dto.setSubcategory(item.subcategory());
+        dto.setPrice(item.price());
+        dto.setImageUrl(ImageUrls.toPublicUrl(item.imageUrl()));
+        dto.setCardImageUrl(ImageUrls.toPublicUrl(item.cardImageKey()));
+        dto.setImagePlaceholder(item.imagePlaceholder());
+        dto.setAvailable(item.available());
+        dto.setLocation(item.location());
+        dto.setLatitude(item.latitude());
+        dto.setLongitude(item.longitude());
+        dto.setViews(item.views());
+        dto.setBoosted(item.boosted());
+        dto.setBoostedUntil(item.boostedUntil());
+        dto.setCreatedAt(item.createdAt());
+        dto.setOwnerId(item.ownerId());
+        dto.setOwnerName(item.ownerFirstName() + " " + item.ownerLastName());
         return dto;
     }
 
+    private SuggestionDTO convertToSuggestionDTO(ItemAutocompleteIndex.Suggestion suggestion) {
+        return new SuggestionDTO(suggestion.text(), suggestion.type().name(), suggestion.itemCount());
+    }
+
 }
\ No newline at end of file
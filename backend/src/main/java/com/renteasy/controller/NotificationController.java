@@ -1,6 +1,7 @@
 package com.renteasy.controller;
 
 import com.renteasy.dto.ApiResponse;
+import com.renteasy.dto.CursorSlice;
 import com.renteasy.dto.NotificationDTO;
 import com.renteasy.model.Notification;
 import com.renteasy.service.NotificationService;
@@ -37,6 +38,16 @@ public class NotificationController {
         Page<Notification> notifications = notificationService.getUserNotificationsPaginated(userId, page, size);
         return ResponseEntity.ok(notifications.map(this::convertToDTO));
     }
+
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorSlice<NotificationDTO>> scrollMyNotifications(
+            Authentication authentication,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        String userId = SecurityUtils.getCurrentUserId(authentication);
+        CursorSlice<Notification> notifications = notificationService.scrollUserNotifications(userId, cursor, size);
+        return ResponseEntity.ok(notifications.map(this::convertToDTO));
+    }
     
     @GetMapping("/unread")
     public ResponseEntity<List<NotificationDTO>> getUnreadNotifications(Authentication authentication) {
@@ -108,31 +108,6 @@ public class UserController {
     }
 
     private ItemDTO convertToItemDTO(Item item) {
-        ItemDTO dto = new ItemDTO();
-        dto.setId(item.getId());
-        dto.setName(item.getName());
-        dto.setDescription(item.getDescription());
-        dto.setCategory(item.getCategory());
-        dto.setSubcategory(item.getSubcategory());
-        dto.setPrice(item.getPrice());
-        dto.setImageUrl(item.getImageUrl());
-        dto.setAdditionalImages(item.getAdditionalImages());
-        dto.setAvailable(item.getAvailable());
-        dto.setAvailableDates(item.getAvailableDates() == null ? null
-            : item.getAvailableDates().stream().map(java.time.LocalDate::toString).collect(Collectors.toList()));
-        dto.setLocation(item.getLocation());
-        dto.setOwnerPhoneNumber(item.getOwnerPhoneNumber());
-        dto.setMinimumRentalPeriod(item.getMinimumRentalPeriod());
-        dto.setMaximumRentalPeriod(item.getMaximumRentalPeriod());
-        dto.setViews(item.getViews());
-        dto.setBoosted(item.getBoosted());
-        dto.setBoostedUntil(item.getBoostedUntil());
-        dto.setCreatedAt(item.getCreatedAt());
-        dto.setUpdatedAt(item.getUpdatedAt());
-        if (item.getOwner() != null) {
-            dto.setOwnerId(item.getOwner().getId());
-            dto.setOwnerName(item.getOwner().getFirstName() + " " + item.getOwner().getLastName());
-        }
-        return dto;
+        return ItemDTO.from(item).withPublicImageUrls();
     }
 }
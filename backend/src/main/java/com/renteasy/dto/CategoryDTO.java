@@ -0,0 +1,18 @@
+package com.renteasy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryDTO {
+    private Integer id;
+    private String slug;
+    private String name;
+    private Long itemCount;
+    private List<SubcategoryDTO> subcategories;
+}
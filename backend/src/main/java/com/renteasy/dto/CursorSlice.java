@@ -0,0 +1,53 @@
+package com.renteasy.dto;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A slice of a keyset-paginated feed. Has no total count; {@code nextCursor} fetches the rows
+ * after this slice and is {@code null} on the last one.
+ */
+public class CursorSlice<T> extends SliceImpl<T> {
+
+    public static final int MAX_SIZE = 100;
+
+    private final String nextCursor;
+
+    public CursorSlice(List<T> content, int size, String nextCursor) {
+        super(content, PageRequest.ofSize(size), nextCursor != null);
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Builds a slice from up to {@code size + 1} rows; the extra row only signals that there is
+     * a next slice, whose cursor is taken from the last row kept.
+     */
+    public static <T> CursorSlice<T> of(List<T> rows, int size, Function<T, String> cursorOf) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? new ArrayList<>(rows.subList(0, size)) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(content.get(content.size() - 1)) : null;
+        return new CursorSlice<>(content, size, nextCursor);
+    }
+
+    /**
+     * Clamps a requested slice size to 1..{@value #MAX_SIZE}.
+     */
+    public static int clampSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_SIZE);
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    @Override
+    public <U> CursorSlice<U> map(Function<? super T, ? extends U> converter) {
+        Slice<U> mapped = super.map(converter);
+        return new CursorSlice<>(mapped.getContent(), getSize(), nextCursor);
+    }
+}
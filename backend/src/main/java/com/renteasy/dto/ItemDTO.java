@@ -1,13 +1,19 @@
 package com.renteasy.dto;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.renteasy.model.Item;
+import com.renteasy.util.ImageUrls;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.beans.BeanUtils;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Data
 @NoArgsConstructor
@@ -21,6 +27,9 @@ public class ItemDTO {
     private String subcategory;
     private BigDecimal price;
     private String imageUrl;
+    private String cardImageUrl;
+    private String detailImageUrl;
+    private String imagePlaceholder;
     private List<String> additionalImages;
     private Boolean available;
     private List<String> availableDates;
@@ -38,4 +47,60 @@ public class ItemDTO {
     private LocalDateTime updatedAt;
     private String ownerId;
     private String ownerName;
+
+    /**
+     * Maps an item with its images as stored (keys, not URLs). Must run while the item's lazy
+     * content, owner and collections can still be loaded.
+     */
+    public static ItemDTO from(Item item) {
+        ItemDTO dto = new ItemDTO();
+        dto.setId(item.getId());
+        dto.setName(item.getName());
+        dto.setDescription(item.getDescription());
+        dto.setCategory(item.getCategory());
+        dto.setSubcategory(item.getSubcategory());
+        dto.setPrice(item.getPrice());
+        dto.setImageUrl(item.getImageUrl());
+        dto.setCardImageUrl(item.getCardImageKey());
+        dto.setDetailImageUrl(item.getDetailImageKey());
+        dto.setImagePlaceholder(item.getImagePlaceholder());
+        dto.setAdditionalImages(item.getAdditionalImages() == null ? null : new ArrayList<>(item.getAdditionalImages()));
+        dto.setAvailable(item.getAvailable());
+        dto.setAvailableDates(item.getAvailableDates() == null ? null
+            : item.getAvailableDates().stream().map(LocalDate::toString).collect(Collectors.toList()));
+        dto.setLocation(item.getLocation());
+        dto.setLatitude(item.getLatitude());
+        dto.setLongitude(item.getLongitude());
+        String ownerPhoneNumber = item.getOwnerPhoneNumber();
+        if ((ownerPhoneNumber == null || ownerPhoneNumber.trim().isEmpty()) && item.getOwner() != null) {
+            ownerPhoneNumber = item.getOwner().getPhoneNumber();
+        }
+        dto.setOwnerPhoneNumber(ownerPhoneNumber);
+        dto.setMinimumRentalPeriod(item.getMinimumRentalPeriod());
+        dto.setMaximumRentalPeriod(item.getMaximumRentalPeriod());
+        dto.setViews(item.getViews());
+        dto.setBoosted(item.getBoosted());
+        dto.setBoostedUntil(item.getBoostedUntil());
+        dto.setCreatedAt(item.getCreatedAt());
+        dto.setUpdatedAt(item.getUpdatedAt());
+        if (item.getOwner() != null) {
+            dto.setOwnerId(item.getOwner().getId());
+            dto.setOwnerName(item.getOwner().getFirstName() + " " + item.getOwner().getLastName());
+        }
+        return dto;
+    }
+
+    /**
+     * A copy with the stored image keys turned into URLs for the current request. Copies, since
+     * cached DTOs are shared between requests.
+     */
+    public ItemDTO withPublicImageUrls() {
+        ItemDTO dto = new ItemDTO();
+        BeanUtils.copyProperties(this, dto);
+        dto.setImageUrl(ImageUrls.toPublicUrl(imageUrl));
+        dto.setCardImageUrl(ImageUrls.toPublicUrl(cardImageUrl));
+        dto.setDetailImageUrl(ImageUrls.toPublicUrl(detailImageUrl));
+        dto.setAdditionalImages(ImageUrls.toPublicUrls(additionalImages));
+        return dto;
+    }
 }
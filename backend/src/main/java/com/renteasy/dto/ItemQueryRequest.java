@@ -0,0 +1,33 @@
+package com.renteasy.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+public class ItemQueryRequest {
+
+    private String category;
+    private String subcategory;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private String query;
+
+    // Bounding box; either all four or none.
+    private Double minLat;
+    private Double maxLat;
+    private Double minLng;
+    private Double maxLng;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate availableFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate availableTo;
+
+    private String sort = "newest";
+    private int page = 0;
+    private int size = 12;
+}
@@ -0,0 +1,35 @@
+package com.renteasy.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ItemSummaryDTO {
+    private String id;
+    private String name;
+    private String category;
+    private String subcategory;
+    private BigDecimal price;
+    private String imageUrl;
+    private String cardImageUrl;
+    private String imagePlaceholder;
+    private Boolean available;
+    private String location;
+    private Double latitude;
+    private Double longitude;
+    private Double distanceKm;
+    private Integer views;
+    private Boolean boosted;
+    private LocalDateTime boostedUntil;
+    private LocalDateTime createdAt;
+    private String ownerId;
+    private String ownerName;
+}
@@ -0,0 +1,26 @@
+package com.renteasy.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The available items in one map grid cell: how many, their centroid and price range. Cells at
+ * the finest level also list the items themselves in {@code items} while the cell and the
+ * whole response stay small enough; coarser or crowded ones leave it out.
+ */
+public record MapCluster<T>(String cellId,
+                            int count,
+                            double latitude,
+                            double longitude,
+                            BigDecimal minPrice,
+                            BigDecimal maxPrice,
+                            @JsonInclude(JsonInclude.Include.NON_NULL) List<T> items) {
+
+    public <U> MapCluster<U> map(Function<? super T, ? extends U> converter) {
+        List<U> mapped = items != null ? items.stream().<U>map(converter).toList() : null;
+        return new MapCluster<>(cellId, count, latitude, longitude, minPrice, maxPrice, mapped);
+    }
+}
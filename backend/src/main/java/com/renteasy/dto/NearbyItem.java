@@ -0,0 +1,9 @@
+package com.renteasy.dto;
+
+import com.renteasy.repository.projection.ItemSummary;
+
+/**
+ * An item found by a nearby query with its great-circle distance from the query point, as
+ * computed while ranking.
+ */
+public record NearbyItem(ItemSummary item, double distanceKm) {}
@@ -0,0 +1,43 @@
+package com.renteasy.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A page of search results that also carries the spelling-corrected query, if the search
+ * corrected any terms, and facet counts, if they were asked for. Serializes like a regular
+ * page plus {@code suggestion} and {@code facets} fields.
+ */
+public class SearchPage<T> extends PageImpl<T> {
+
+    private final String suggestion;
+    private final Map<String, Map<String, Integer>> facets;
+
+    public SearchPage(Page<T> page, String suggestion) {
+        this(page, suggestion, null);
+    }
+
+    public SearchPage(Page<T> page, String suggestion, Map<String, Map<String, Integer>> facets) {
+        super(page.getContent(), page.getPageable(), page.getTotalElements());
+        this.suggestion = suggestion;
+        this.facets = facets;
+    }
+
+    public String getSuggestion() {
+        return suggestion;
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Map<String, Map<String, Integer>> getFacets() {
+        return facets;
+    }
+
+    @Override
+    public <U> SearchPage<U> map(Function<? super T, ? extends U> converter) {
+        return new SearchPage<>(super.map(converter), suggestion, facets);
+    }
+}
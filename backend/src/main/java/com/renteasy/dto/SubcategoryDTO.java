@@ -0,0 +1,14 @@
+package com.renteasy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubcategoryDTO {
+    private Integer id;
+    private String name;
+    private Long itemCount;
+}
@@ -0,0 +1,14 @@
+package com.renteasy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDTO {
+    private String text;
+    private String type;
+    private Integer itemCount;
+}
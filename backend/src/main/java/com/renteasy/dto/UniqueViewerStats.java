@@ -0,0 +1,18 @@
+package com.renteasy.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Approximate distinct viewers of an item from {@code from} to {@code to} inclusive, overall
+ * and per day. The overall count is not the sum of the days: a viewer who came back on
+ * several days counts once.
+ */
+public record UniqueViewerStats(String itemId,
+                                LocalDate from,
+                                LocalDate to,
+                                long uniqueViewers,
+                                List<Day> days) {
+
+    public record Day(LocalDate date, long uniqueViewers) {}
+}
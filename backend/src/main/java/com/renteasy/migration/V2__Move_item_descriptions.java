@@ -0,0 +1,60 @@
+package com.renteasy.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Moves item descriptions from the legacy {@code items.description} column into
+ * {@code item_content} and drops the column, so the hot items table stays narrow. Databases
+ * that never had the column only get their missing content rows created.
+ */
+public class V2__Move_item_descriptions extends BaseJavaMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(V2__Move_item_descriptions.class);
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            if (hasLegacyDescriptionColumn(connection)) {
+                int copied = statement.executeUpdate(
+                    "INSERT INTO item_content (item_id, description) " +
+                    "SELECT i.id, i.description FROM items i " +
+                    "WHERE NOT EXISTS (SELECT 1 FROM item_content c WHERE c.item_id = i.id)");
+                statement.execute("ALTER TABLE items DROP COLUMN description");
+                logger.info("Moved {} item descriptions into item_content", copied);
+                return;
+            }
+
+            int created = statement.executeUpdate(
+                "INSERT INTO item_content (item_id) " +
+                "SELECT i.id FROM items i " +
+                "WHERE NOT EXISTS (SELECT 1 FROM item_content c WHERE c.item_id = i.id)");
+            if (created > 0) {
+                logger.info("Created {} missing item_content rows", created);
+            }
+        }
+    }
+
+    private boolean hasLegacyDescriptionColumn(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String table : new String[] {"items", "ITEMS"}) {
+            try (ResultSet columns = metaData.getColumns(null, null, table, null)) {
+                while (columns.next()) {
+                    if ("description".equalsIgnoreCase(columns.getString("COLUMN_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -1,11 +1,14 @@
 package com.renteasy.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.renteasy.util.ImageUrls;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 import lombok.ToString;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
@@ -23,7 +26,7 @@ import java.util.Set;
 @Table(name = "items")
 @Data
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
-@ToString(exclude = {"owner", "bookings", "comments", "savedByUsers"})
+@ToString(exclude = {"owner", "content", "bookings", "comments", "savedByUsers"})
 @NoArgsConstructor
 @AllArgsConstructor
 @EntityListeners(AuditingEntityListener.class)
@@ -37,24 +40,42 @@ public class Item {
     @Column(nullable = false)
     private String name;
     
-    @Column(columnDefinition = "LONGTEXT")
-    private String description;
-    
     @Column(nullable = false)
     private String category;
+
+    @Column(nullable = false)
+    private Integer categoryId;
     
     private String subcategory;
+
+    private Integer subcategoryId;
     
     @Column(nullable = false)
     private BigDecimal price;
     
     @Column(columnDefinition = "LONGTEXT")
     private String imageUrl;
+
+    // Set with imageUrl; lets list queries leave image_url unread while it holds a data: URI.
+    @Column(nullable = false)
+    @Setter(AccessLevel.NONE)
+    @JsonIgnore
+    private Boolean imageUrlInline = false;
+
+    @OneToOne(mappedBy = "item", cascade = CascadeType.ALL, fetch = FetchType.LAZY, optional = false)
+    @JsonIgnore
+    private ItemContent content;
     
     @ElementCollection
     @CollectionTable(name = "item_images", joinColumns = @JoinColumn(name = "item_id"))
     @Column(name = "image_url", columnDefinition = "LONGTEXT")
     private List<String> additionalImages = new ArrayList<>();
+
+    private String cardImageKey;
+
+    private String detailImageKey;
+
+    private String imagePlaceholder;
     
     @Column(nullable = false)
     private Boolean available = true;
@@ -104,4 +125,29 @@ public class Item {
     @ManyToMany(mappedBy = "savedItems")
     @JsonIgnore
     private Set<User> savedByUsers = new HashSet<>();
+
+    @PrePersist
+    void ensureContent() {
+        if (content == null) {
+            setDescription(null);
+        }
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+        this.imageUrlInline = ImageUrls.isDataUri(imageUrl);
+    }
+
+    @JsonIgnore
+    public String getDescription() {
+        return content != null ? content.getDescription() : null;
+    }
+
+    public void setDescription(String description) {
+        if (content == null) {
+            content = new ItemContent();
+            content.setItem(this);
+        }
+        content.setDescription(description);
+    }
 }
@@ -0,0 +1,32 @@
+package com.renteasy.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Entity
+@Table(name = "item_content")
+@Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString(exclude = "item")
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemContent {
+
+    @Id
+    @EqualsAndHashCode.Include
+    private String itemId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "item_id")
+    @JsonIgnore
+    private Item item;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+}
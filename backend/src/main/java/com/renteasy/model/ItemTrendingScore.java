@@ -0,0 +1,28 @@
+package com.renteasy.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "item_trending_scores")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemTrendingScore {
+
+    @Id
+    private String itemId;
+
+    @Column(nullable = false)
+    private Double dayScore;
+
+    @Column(nullable = false)
+    private Double weekScore;
+
+    @Column(nullable = false)
+    private LocalDateTime scoredAt;
+}
@@ -0,0 +1,43 @@
+package com.renteasy.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "migration_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EntityListeners(AuditingEntityListener.class)
+public class MigrationCheckpoint {
+
+    @Id
+    private String name;
+
+    private String lastProcessedId;
+
+    @Column(nullable = false)
+    private Long processedCount = 0L;
+
+    @Column(nullable = false)
+    private Long migratedCount = 0L;
+
+    @Column(nullable = false)
+    private Long failedCount = 0L;
+
+    @Column(nullable = false)
+    private Boolean completed = false;
+
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+
+    public MigrationCheckpoint(String name) {
+        this.name = name;
+    }
+}
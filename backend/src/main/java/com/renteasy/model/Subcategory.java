@@ -0,0 +1,26 @@
+package com.renteasy.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "subcategories")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Subcategory {
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private Integer categoryId;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false)
+    private Integer sortOrder;
+}
@@ -1,6 +1,7 @@
 package com.renteasy.repository;
 
 import com.renteasy.model.Booking;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -17,6 +19,17 @@ public interface BookingRepository extends JpaRepository<Booking, String> {
     List<Booking> findByUserId(String userId);
     
     Page<Booking> findByUserId(String userId, Pageable pageable);
+
+    @Query("SELECT b FROM Booking b WHERE b.user.id = :userId ORDER BY b.createdAt DESC, b.id DESC")
+    List<Booking> findFeedByUserId(@Param("userId") String userId, Limit limit);
+
+    @Query("SELECT b FROM Booking b WHERE b.user.id = :userId AND " +
+           "(b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id < :id)) " +
+           "ORDER BY b.createdAt DESC, b.id DESC")
+    List<Booking> findFeedByUserIdAfter(@Param("userId") String userId,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") String id,
+                                        Limit limit);
     
     List<Booking> findByItemId(String itemId);
     
@@ -0,0 +1,13 @@
+package com.renteasy.repository;
+
+import com.renteasy.model.Category;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CategoryRepository extends JpaRepository<Category, Integer> {
+
+    List<Category> findAllByOrderBySortOrderAsc();
+}
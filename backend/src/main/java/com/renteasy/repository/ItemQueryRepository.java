@@ -0,0 +1,24 @@
+package com.renteasy.repository;
+
+import com.renteasy.model.Item;
+import com.renteasy.repository.projection.ItemSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Criteria queries over items that select the {@link ItemSummary} projection, which derived
+ * {@code JpaSpecificationExecutor} methods cannot do.
+ */
+public interface ItemQueryRepository {
+
+    Page<ItemSummary> findSummaries(Specification<Item> specification, Pageable pageable);
+
+    /**
+     * The first {@code limit} matching summaries in {@code sort} order, without a count query.
+     */
+    List<ItemSummary> findSummaries(Specification<Item> specification, Sort sort, int limit);
+}
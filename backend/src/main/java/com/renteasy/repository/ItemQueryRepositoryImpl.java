@@ -0,0 +1,73 @@
+package com.renteasy.repository;
+
+import com.renteasy.model.Item;
+import com.renteasy.model.User;
+import com.renteasy.repository.projection.ItemSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+class ItemQueryRepositoryImpl implements ItemQueryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<ItemSummary> findSummaries(Specification<Item> specification, Pageable pageable) {
+        List<ItemSummary> content = createSummaryQuery(specification, pageable.getSort())
+            .setFirstResult((int) pageable.getOffset())
+            .setMaxResults(pageable.getPageSize())
+            .getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(specification));
+    }
+
+    @Override
+    public List<ItemSummary> findSummaries(Specification<Item> specification, Sort sort, int limit) {
+        return createSummaryQuery(specification, sort)
+            .setMaxResults(limit)
+            .getResultList();
+    }
+
+    private TypedQuery<ItemSummary> createSummaryQuery(Specification<Item> specification, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<ItemSummary> query = cb.createQuery(ItemSummary.class);
+        Root<Item> item = query.from(Item.class);
+        Join<Item, User> owner = item.join("owner");
+        // Same columns as ItemRepository.SUMMARY_SELECT, including leaving inline data: URIs out.
+        Expression<String> imageUrl = cb.<String>selectCase()
+            .when(cb.like(item.get("imageUrl"), "data:%"), cb.nullLiteral(String.class))
+            .otherwise(item.get("imageUrl"));
+        query.select(cb.construct(ItemSummary.class,
+            item.get("id"), item.get("name"), item.get("category"), item.get("subcategory"), item.get("price"),
+            imageUrl, item.get("cardImageKey"), item.get("imagePlaceholder"), item.get("available"),
+            item.get("location"), item.get("latitude"), item.get("longitude"), item.get("views"),
+            item.get("boosted"), item.get("boostedUntil"), item.get("createdAt"),
+            owner.get("id"), owner.get("firstName"), owner.get("lastName")));
+        query.where(specification.toPredicate(item, query, cb));
+        query.orderBy(QueryUtils.toOrders(sort, item, cb));
+        return entityManager.createQuery(query);
+    }
+
+    private long count(Specification<Item> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Item> item = query.from(Item.class);
+        query.select(cb.count(item));
+        query.where(specification.toPredicate(item, query, cb));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
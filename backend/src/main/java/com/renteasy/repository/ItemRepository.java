@@ -1,65 +1,174 @@
 package com.renteasy.repository;
 
 import com.renteasy.model.Item;
+import com.renteasy.repository.projection.CategoryItemCount;
+import com.renteasy.repository.projection.ItemGeoPoint;
+import com.renteasy.repository.projection.ItemMapPoint;
+import com.renteasy.repository.projection.ItemSearchDocument;
+import com.renteasy.repository.projection.ItemSuggestionSource;
+import com.renteasy.repository.projection.ItemSummary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ItemRepository extends JpaRepository<Item, String> {
+public interface ItemRepository extends JpaRepository<Item, String>, ItemQueryRepository {
 
-       @EntityGraph(attributePaths = {"owner"})
-    Page<Item> findByAvailableTrue(Pageable pageable);
+    // image_url is only read when the flag says it is not an inline data: URI. Until the image
+    // migration turns those into keys, their cards have no image.
+    String SUMMARY_SELECT = "SELECT new com.renteasy.repository.projection.ItemSummary(" +
+           "i.id, i.name, i.category, i.subcategory, i.price, " +
+           "CASE WHEN i.imageUrlInline = false THEN i.imageUrl END, " +
+           "i.cardImageKey, i.imagePlaceholder, i.available, i.location, i.latitude, i.longitude, " +
+           "i.views, i.boosted, i.boostedUntil, i.createdAt, o.id, o.firstName, o.lastName) " +
+           "FROM Item i JOIN i.owner o ";
 
-       @EntityGraph(attributePaths = {"owner"})
-    @Query("SELECT i FROM Item i WHERE i.available = true AND LOWER(i.category) = LOWER(:category)")
-    Page<Item> findByCategoryAndAvailableTrue(@Param("category") String category, Pageable pageable);
+    @Query(value = SUMMARY_SELECT + "WHERE i.available = true",
+           countQuery = "SELECT COUNT(i) FROM Item i WHERE i.available = true")
+    Page<ItemSummary> findByAvailableTrue(Pageable pageable);
 
-       @EntityGraph(attributePaths = {"owner"})
-    @Query("SELECT i FROM Item i WHERE i.available = true AND " +
-           "LOWER(i.category) = LOWER(:category) AND " +
-           "i.subcategory IS NOT NULL AND " +
-           "LOWER(TRIM(i.subcategory)) = LOWER(TRIM(:subcategory))")
-    Page<Item> findByCategoryAndSubcategoryAndAvailableTrue(@Param("category") String category, 
-                                                            @Param("subcategory") String subcategory, 
-                                                            Pageable pageable);
+    @Query(value = SUMMARY_SELECT + "WHERE i.available = true AND i.categoryId = :categoryId",
+           countQuery = "SELECT COUNT(i) FROM Item i WHERE i.available = true AND i.categoryId = :categoryId")
+    Page<ItemSummary> findAvailableByCategoryId(@Param("categoryId") Integer categoryId, Pageable pageable);
 
-    @EntityGraph(attributePaths = {"owner"})
-    Page<Item> findByOwnerId(String ownerId, Pageable pageable);
+    @Query(value = SUMMARY_SELECT + "WHERE i.available = true AND i.categoryId = :categoryId AND " +
+           "i.subcategoryId = :subcategoryId",
+           countQuery = "SELECT COUNT(i) FROM Item i WHERE i.available = true AND i.categoryId = :categoryId AND " +
+           "i.subcategoryId = :subcategoryId")
+    Page<ItemSummary> findAvailableByCategoryIdAndSubcategoryId(@Param("categoryId") Integer categoryId,
+                                                                @Param("subcategoryId") Integer subcategoryId,
+                                                                Pageable pageable);
 
-    @EntityGraph(attributePaths = {"owner"})
-    @Query("SELECT i FROM Item i WHERE i.available = true AND " +
+    @Query("SELECT new com.renteasy.repository.projection.CategoryItemCount(i.categoryId, i.subcategoryId, COUNT(i)) " +
+           "FROM Item i WHERE i.available = true GROUP BY i.categoryId, i.subcategoryId")
+    List<CategoryItemCount> countAvailableByCategory();
+
+    @Query(value = SUMMARY_SELECT + "WHERE o.id = :ownerId",
+           countQuery = "SELECT COUNT(i) FROM Item i WHERE i.owner.id = :ownerId")
+    Page<ItemSummary> findByOwnerId(@Param("ownerId") String ownerId, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "LEFT JOIN i.content c WHERE i.available = true AND " +
+           "(LOWER(i.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+           "LOWER(c.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')))",
+           countQuery = "SELECT COUNT(i) FROM Item i LEFT JOIN i.content c WHERE i.available = true AND " +
            "(LOWER(i.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(i.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
-    Page<Item> searchItems(@Param("searchTerm") String searchTerm, Pageable pageable);
+           "LOWER(c.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
+    Page<ItemSummary> searchItems(@Param("searchTerm") String searchTerm, Pageable pageable);
 
-    @EntityGraph(attributePaths = {"owner"})
-    @Query("SELECT i FROM Item i WHERE i.available = true AND " +
+    @Query(value = SUMMARY_SELECT + "WHERE i.available = true AND " +
+           "i.location IS NOT NULL AND " +
+           "LOWER(i.location) LIKE LOWER(CONCAT('%', :location, '%'))",
+           countQuery = "SELECT COUNT(i) FROM Item i WHERE i.available = true AND " +
            "i.location IS NOT NULL AND " +
            "LOWER(i.location) LIKE LOWER(CONCAT('%', :location, '%'))")
-    Page<Item> searchItemsByLocation(@Param("location") String location, Pageable pageable);
+    Page<ItemSummary> searchItemsByLocation(@Param("location") String location, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE i.boosted = true AND i.boostedUntil > CURRENT_TIMESTAMP " +
+           "AND i.available = true",
+           countQuery = "SELECT COUNT(i) FROM Item i WHERE i.boosted = true AND i.boostedUntil > CURRENT_TIMESTAMP " +
+           "AND i.available = true")
+    Page<ItemSummary> findBoostedItems(Pageable pageable);
 
-    @EntityGraph(attributePaths = {"owner"})
-    @Query("SELECT i FROM Item i WHERE i.boosted = true AND i.boostedUntil > CURRENT_TIMESTAMP " +
-           "AND i.available = true ORDER BY i.boostedUntil DESC")
-    Page<Item> findBoostedItems(Pageable pageable);
+    @Query(value = SUMMARY_SELECT + "WHERE i.available = true",
+           countQuery = "SELECT COUNT(i) FROM Item i WHERE i.available = true")
+    Page<ItemSummary> findPopularItems(Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE i.available = true AND i.latitude IS NOT NULL AND i.longitude IS NOT NULL AND " +
+           "i.latitude BETWEEN :minLat AND :maxLat AND i.longitude BETWEEN :minLng AND :maxLng",
+           countQuery = "SELECT COUNT(i) FROM Item i WHERE i.available = true AND i.latitude IS NOT NULL AND " +
+           "i.longitude IS NOT NULL AND " +
+           "i.latitude BETWEEN :minLat AND :maxLat AND i.longitude BETWEEN :minLng AND :maxLng")
+    Page<ItemSummary> findNearbyCandidates(@Param("minLat") double minLat,
+                                           @Param("maxLat") double maxLat,
+                                           @Param("minLng") double minLng,
+                                           @Param("maxLng") double maxLng,
+                                           Pageable pageable);
+
+    @Query("SELECT new com.renteasy.repository.projection.ItemGeoPoint(i.id, i.latitude, i.longitude) " +
+           "FROM Item i WHERE i.available = true AND i.latitude IS NOT NULL AND i.longitude IS NOT NULL " +
+           "AND i.id > :afterId ORDER BY i.id")
+    List<ItemGeoPoint> findGeoPointsAfter(@Param("afterId") String afterId, Pageable pageable);
+
+    @Query("SELECT new com.renteasy.repository.projection.ItemGeoPoint(i.id, i.latitude, i.longitude) " +
+           "FROM Item i WHERE i.available = true AND i.latitude IS NOT NULL AND i.longitude IS NOT NULL AND " +
+           "i.latitude BETWEEN :minLat AND :maxLat AND i.longitude BETWEEN :minLng AND :maxLng")
+    List<ItemGeoPoint> findGeoPointsWithin(@Param("minLat") double minLat,
+                                           @Param("maxLat") double maxLat,
+                                           @Param("minLng") double minLng,
+                                           @Param("maxLng") double maxLng);
 
-    @EntityGraph(attributePaths = {"owner"})
-    @Query("SELECT i FROM Item i WHERE i.available = true ORDER BY i.views DESC")
-    Page<Item> findPopularItems(Pageable pageable);
+    @Query("SELECT new com.renteasy.repository.projection.ItemMapPoint(i.id, i.latitude, i.longitude, i.price) " +
+           "FROM Item i WHERE i.available = true AND i.latitude IS NOT NULL AND i.longitude IS NOT NULL " +
+           "AND i.id > :afterId ORDER BY i.id")
+    List<ItemMapPoint> findMapPointsAfter(@Param("afterId") String afterId, Pageable pageable);
 
-    @EntityGraph(attributePaths = {"owner"})
-    @Query("SELECT i FROM Item i WHERE i.available = true AND i.latitude IS NOT NULL AND i.longitude IS NOT NULL AND " +
+    @Query("SELECT new com.renteasy.repository.projection.ItemMapPoint(i.id, i.latitude, i.longitude, i.price) " +
+           "FROM Item i WHERE i.available = true AND i.latitude IS NOT NULL AND i.longitude IS NOT NULL AND " +
            "i.latitude BETWEEN :minLat AND :maxLat AND i.longitude BETWEEN :minLng AND :maxLng")
-    Page<Item> findNearbyCandidates(@Param("minLat") double minLat,
-                                    @Param("maxLat") double maxLat,
-                                    @Param("minLng") double minLng,
-                                    @Param("maxLng") double maxLng,
-                                    Pageable pageable);
+    List<ItemMapPoint> findMapPointsWithin(@Param("minLat") double minLat,
+                                           @Param("maxLat") double maxLat,
+                                           @Param("minLng") double minLng,
+                                           @Param("maxLng") double maxLng);
+
+    @Query(SUMMARY_SELECT + "WHERE i.id IN :ids")
+    List<ItemSummary> findSummariesByIdIn(@Param("ids") Collection<String> ids);
+
+    @Query("SELECT i.id FROM Item i WHERE i.id IN :ids AND i.available = true")
+    List<String> findAvailableIdsByIdIn(@Param("ids") Collection<String> ids);
+
+    @Query("SELECT new com.renteasy.repository.projection.ItemSearchDocument(" +
+           "i.id, i.name, i.category, i.subcategory, CASE WHEN i.available = true THEN c.description END, i.location, i.price, i.available, " +
+           "i.boosted, i.boostedUntil, i.createdAt) " +
+           "FROM Item i LEFT JOIN i.content c WHERE i.id > :afterId ORDER BY i.id")
+    List<ItemSearchDocument> findSearchDocumentsAfter(@Param("afterId") String afterId, Pageable pageable);
+
+    @Query("SELECT new com.renteasy.repository.projection.ItemSuggestionSource(" +
+           "i.id, i.name, i.category, i.subcategory, i.location, i.views) " +
+           "FROM Item i WHERE i.available = true AND i.id > :afterId ORDER BY i.id")
+    List<ItemSuggestionSource> findSuggestionSourcesAfter(@Param("afterId") String afterId, Pageable pageable);
+
+    @Query("SELECT i.id FROM Item i WHERE i.id > :afterId AND " +
+           "(i.imageUrlInline = true OR EXISTS (SELECT 1 FROM Item j JOIN j.additionalImages image " +
+           "WHERE j.id = i.id AND image LIKE 'data:%')) ORDER BY i.id")
+    List<String> findIdsWithInlineImagesAfter(@Param("afterId") String afterId, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Item i SET i.cardImageKey = :cardImageKey, i.detailImageKey = :detailImageKey " +
+           "WHERE i.id = :itemId AND i.imageUrl = :sourceKey")
+    int updateImageDerivatives(@Param("itemId") String itemId,
+                               @Param("sourceKey") String sourceKey,
+                               @Param("cardImageKey") String cardImageKey,
+                               @Param("detailImageKey") String detailImageKey);
+
+    /**
+     * Rewrites the main image of an item without touching {@code updated_at}. Clears the
+     * persistence context, so an item loaded before must not be written through the entity.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Item i SET i.imageUrl = :imageUrl, i.imageUrlInline = :imageUrlInline, " +
+           "i.cardImageKey = :cardImageKey, i.detailImageKey = :detailImageKey, " +
+           "i.imagePlaceholder = :imagePlaceholder WHERE i.id = :itemId")
+    int updateMainImage(@Param("itemId") String itemId,
+                        @Param("imageUrl") String imageUrl,
+                        @Param("imageUrlInline") boolean imageUrlInline,
+                        @Param("cardImageKey") String cardImageKey,
+                        @Param("detailImageKey") String detailImageKey,
+                        @Param("imagePlaceholder") String imagePlaceholder);
+
+    @Modifying
+    @Query(value = "DELETE FROM item_images WHERE item_id = :itemId", nativeQuery = true)
+    int deleteAdditionalImages(@Param("itemId") String itemId);
+
+    @Modifying
+    @Query(value = "INSERT INTO item_images (item_id, image_url) VALUES (:itemId, :imageUrl)", nativeQuery = true)
+    int insertAdditionalImage(@Param("itemId") String itemId, @Param("imageUrl") String imageUrl);
 }
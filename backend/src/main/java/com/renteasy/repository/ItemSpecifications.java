@@ -0,0 +1,122 @@
+package com.renteasy.repository;
+
+import com.renteasy.model.Booking;
+import com.renteasy.model.Item;
+import com.renteasy.model.ItemContent;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Composable filters for {@link ItemQueryRepository#findSummaries}. Equality and range filters
+ * compare plain columns so they can use the composite indexes created by the
+ * {@code V3__indexes} migration.
+ */
+public final class ItemSpecifications {
+
+    // Same statuses that BookingRepository.findConflictingBookings treats as not blocking.
+    private static final List<Booking.BookingStatus> RELEASED_STATUSES =
+        List.of(Booking.BookingStatus.CANCELLED, Booking.BookingStatus.REFUNDED);
+
+    private ItemSpecifications() {
+    }
+
+    public static Specification<Item> isAvailable() {
+        return (root, query, cb) -> cb.isTrue(root.get("available"));
+    }
+
+    /**
+     * Ids come from {@link com.renteasy.service.CategoryService}, which resolves names and
+     * slugs against the taxonomy.
+     */
+    public static Specification<Item> inCategory(int categoryId) {
+        return (root, query, cb) -> cb.equal(root.get("categoryId"), categoryId);
+    }
+
+    /**
+     * Items in any of the given subcategories; none if the collection is empty.
+     */
+    public static Specification<Item> inSubcategories(Collection<Integer> subcategoryIds) {
+        return (root, query, cb) -> subcategoryIds.isEmpty()
+            ? cb.disjunction()
+            : root.get("subcategoryId").in(subcategoryIds);
+    }
+
+    public static Specification<Item> none() {
+        return (root, query, cb) -> cb.disjunction();
+    }
+
+    public static Specification<Item> priceAtLeast(BigDecimal minPrice) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+
+    public static Specification<Item> priceAtMost(BigDecimal maxPrice) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
+
+    public static Specification<Item> withinBounds(double minLat, double maxLat, double minLng, double maxLng) {
+        return (root, query, cb) -> cb.and(
+            cb.between(root.get("latitude"), minLat, maxLat),
+            cb.between(root.get("longitude"), minLng, maxLng));
+    }
+
+    public static Specification<Item> ownedBy(String ownerId) {
+        return (root, query, cb) -> cb.equal(root.get("owner").get("id"), ownerId);
+    }
+
+    public static Specification<Item> isBoostedNow() {
+        return (root, query, cb) -> cb.and(
+            cb.isTrue(root.get("boosted")),
+            cb.greaterThan(root.get("boostedUntil"), LocalDateTime.now()));
+    }
+
+    /**
+     * Keyset condition for a feed ordered by {@code property} and then id, both descending: the
+     * rows strictly after the one with {@code value} and {@code id}.
+     */
+    public static <T extends Comparable<? super T>> Specification<Item> after(String property, T value, String id) {
+        return (root, query, cb) -> cb.or(
+            cb.lessThan(root.<T>get(property), value),
+            cb.and(cb.equal(root.get(property), value), cb.lessThan(root.get("id"), id)));
+    }
+
+    /**
+     * Case-insensitive substring match on the name or description, like
+     * {@link ItemRepository#searchItems}.
+     */
+    public static Specification<Item> containsText(String text) {
+        return (root, query, cb) -> {
+            Join<Item, ItemContent> content = root.join("content", JoinType.LEFT);
+            String pattern = "%" + text.toLowerCase(Locale.ROOT) + "%";
+            return cb.or(
+                cb.like(cb.lower(root.get("name")), pattern),
+                cb.like(cb.lower(content.get("description")), pattern));
+        };
+    }
+
+    /**
+     * Items without a booking overlapping {@code from}..{@code to}, i.e. the ones a booking
+     * for that range would be accepted for.
+     */
+    public static Specification<Item> notBookedBetween(LocalDate from, LocalDate to) {
+        return (root, query, cb) -> {
+            Subquery<String> overlapping = query.subquery(String.class);
+            Root<Booking> booking = overlapping.from(Booking.class);
+            overlapping.select(booking.get("item").get("id")).where(
+                cb.equal(booking.get("item").get("id"), root.get("id")),
+                cb.not(booking.get("status").in(RELEASED_STATUSES)),
+                cb.lessThanOrEqualTo(booking.get("startDate"), to),
+                cb.greaterThanOrEqualTo(booking.get("endDate"), from));
+            return cb.not(cb.exists(overlapping));
+        };
+    }
+}
@@ -0,0 +1,18 @@
+package com.renteasy.repository;
+
+import com.renteasy.model.ItemTrendingScore;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ItemTrendingScoreRepository extends JpaRepository<ItemTrendingScore, String> {
+
+    @Query("SELECT s FROM ItemTrendingScore s WHERE s.itemId > :afterId " +
+           "AND s.itemId IN (SELECT i.id FROM Item i WHERE i.available = true) ORDER BY s.itemId")
+    List<ItemTrendingScore> findAvailableAfter(@Param("afterId") String afterId, Pageable pageable);
+}
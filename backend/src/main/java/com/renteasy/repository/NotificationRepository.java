@@ -1,11 +1,15 @@
 package com.renteasy.repository;
 
 import com.renteasy.model.Notification;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -14,6 +18,17 @@ public interface NotificationRepository extends JpaRepository<Notification, Stri
     List<Notification> findByUserIdOrderByCreatedAtDesc(String userId);
     
     Page<Notification> findByUserIdOrderByCreatedAtDesc(String userId, Pageable pageable);
+
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findFeedByUserId(@Param("userId") String userId, Limit limit);
+
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId AND " +
+           "(n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findFeedByUserIdAfter(@Param("userId") String userId,
+                                             @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") String id,
+                                             Limit limit);
     
     List<Notification> findByUserIdAndReadFalseOrderByCreatedAtDesc(String userId);
     
@@ -0,0 +1,13 @@
+package com.renteasy.repository;
+
+import com.renteasy.model.Subcategory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SubcategoryRepository extends JpaRepository<Subcategory, Integer> {
+
+    List<Subcategory> findAllByOrderBySortOrderAsc();
+}
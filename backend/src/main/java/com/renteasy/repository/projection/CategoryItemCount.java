@@ -0,0 +1,7 @@
+package com.renteasy.repository.projection;
+
+/**
+ * Number of available items in one category and subcategory; {@code subcategoryId} is
+ * {@code null} for items without a subcategory.
+ */
+public record CategoryItemCount(Integer categoryId, Integer subcategoryId, long count) {}
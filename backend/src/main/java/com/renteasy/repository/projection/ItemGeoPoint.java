@@ -0,0 +1,6 @@
+package com.renteasy.repository.projection;
+
+/**
+ * The coordinates of an available item, which the geo index is built from.
+ */
+public record ItemGeoPoint(String id, Double latitude, Double longitude) {}
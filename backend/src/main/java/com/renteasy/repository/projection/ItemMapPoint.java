@@ -0,0 +1,8 @@
+package com.renteasy.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * The coordinates and price of an available item, which map clusters are aggregated from.
+ */
+public record ItemMapPoint(String id, Double latitude, Double longitude, BigDecimal price) {}
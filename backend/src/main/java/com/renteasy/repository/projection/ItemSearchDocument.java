@@ -0,0 +1,21 @@
+package com.renteasy.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The fields of an item that the in-memory search and facet index is built from.
+ */
+public record ItemSearchDocument(
+    String id,
+    String name,
+    String category,
+    String subcategory,
+    String description,
+    String location,
+    BigDecimal price,
+    Boolean available,
+    Boolean boosted,
+    LocalDateTime boostedUntil,
+    LocalDateTime createdAt
+) {}
@@ -0,0 +1,13 @@
+package com.renteasy.repository.projection;
+
+/**
+ * The fields of an available item that the autocomplete index is built from.
+ */
+public record ItemSuggestionSource(
+    String id,
+    String name,
+    String category,
+    String subcategory,
+    String location,
+    Integer views
+) {}
@@ -0,0 +1,30 @@
+package com.renteasy.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Card-sized view of an item for list endpoints. Selected with a JPQL constructor expression so
+ * feeds never read the description, the image collections or the available dates.
+ */
+public record ItemSummary(
+    String id,
+    String name,
+    String category,
+    String subcategory,
+    BigDecimal price,
+    String imageUrl,
+    String cardImageKey,
+    String imagePlaceholder,
+    Boolean available,
+    String location,
+    Double latitude,
+    Double longitude,
+    Integer views,
+    Boolean boosted,
+    LocalDateTime boostedUntil,
+    LocalDateTime createdAt,
+    String ownerId,
+    String ownerFirstName,
+    String ownerLastName
+) {}
@@ -0,0 +1,96 @@
+package com.renteasy.search;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One bitmap of item ordinals per value of each facet (category, location, price band, ...),
+ * so that filter counts for any set of ordinals are a bitset intersection per value instead of
+ * a GROUP BY. Facets are addressed by their position in the names passed to the constructor.
+ * Not thread-safe; {@link ItemSearchIndex} guards it with its own lock.
+ */
+final class FacetIndex {
+
+    private final List<Map<String, BitSet>> bitmaps = new ArrayList<>();
+    private final List<String[]> valuesByOrdinal = new ArrayList<>();
+
+    FacetIndex(int facetCount) {
+        for (int i = 0; i < facetCount; i++) {
+            bitmaps.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * Sets the facet values of an ordinal, replacing any previous ones. A {@code null} value
+     * leaves the ordinal out of that facet.
+     */
+    void put(int ordinal, String[] values) {
+        remove(ordinal);
+        while (valuesByOrdinal.size() <= ordinal) {
+            valuesByOrdinal.add(null);
+        }
+        for (int facet = 0; facet < values.length; facet++) {
+            if (values[facet] != null) {
+                bitmaps.get(facet).computeIfAbsent(values[facet], key -> new BitSet()).set(ordinal);
+            }
+        }
+        valuesByOrdinal.set(ordinal, values.clone());
+    }
+
+    void remove(int ordinal) {
+        if (ordinal >= valuesByOrdinal.size() || valuesByOrdinal.get(ordinal) == null) {
+            return;
+        }
+
+        String[] values = valuesByOrdinal.get(ordinal);
+        for (int facet = 0; facet < values.length; facet++) {
+            if (values[facet] == null) {
+                continue;
+            }
+            BitSet bitmap = bitmaps.get(facet).get(values[facet]);
+            bitmap.clear(ordinal);
+            if (bitmap.isEmpty()) {
+                bitmaps.get(facet).remove(values[facet]);
+            }
+        }
+        valuesByOrdinal.set(ordinal, null);
+    }
+
+    /**
+     * The ordinals having {@code value} for {@code facet}. The returned bitmap is a copy.
+     */
+    BitSet bitmap(int facet, String value) {
+        BitSet bitmap = bitmaps.get(facet).get(value);
+        return bitmap != null ? (BitSet) bitmap.clone() : new BitSet();
+    }
+
+    /**
+     * How many of the ordinals in {@code base} have each value of {@code facet}, largest count
+     * first and at most {@code maxValues} of them. Values with no ordinals in {@code base} are
+     * left out.
+     */
+    Map<String, Integer> counts(int facet, BitSet base, int maxValues) {
+        List<Map.Entry<String, Integer>> counts = new ArrayList<>();
+        BitSet intersection = new BitSet();
+        for (Map.Entry<String, BitSet> entry : bitmaps.get(facet).entrySet()) {
+            intersection.clear();
+            intersection.or(entry.getValue());
+            intersection.and(base);
+            int count = intersection.cardinality();
+            if (count > 0) {
+                counts.add(Map.entry(entry.getKey(), count));
+            }
+        }
+
+        counts.sort(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int i = 0; i < counts.size() && i < maxValues; i++) {
+            result.put(counts.get(i).getKey(), counts.get(i).getValue());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,92 @@
+package com.renteasy.search;
+
+import java.util.Arrays;
+
+/**
+ * Great-circle distances from one origin. The origin's radians and cosine are worked out once,
+ * so scoring a candidate is a single haversine; {@link #toKm(double[], double[], double)} does
+ * a whole batch of candidates from primitive arrays and skips the trigonometry for those whose
+ * latitude difference alone is already out of range.
+ */
+public final class GeoDistance {
+
+    static final double EARTH_RADIUS_KM = 6371.0;
+
+    private final double latRad;
+    private final double lngRad;
+    private final double cosLat;
+
+    private GeoDistance(double latitude, double longitude) {
+        this.latRad = Math.toRadians(latitude);
+        this.lngRad = Math.toRadians(longitude);
+        this.cosLat = Math.cos(latRad);
+    }
+
+    public static GeoDistance from(double latitude, double longitude) {
+        return new GeoDistance(latitude, longitude);
+    }
+
+    public double toKm(double latitude, double longitude) {
+        double toLatRad = Math.toRadians(latitude);
+        return toKm(toLatRad, Math.toRadians(longitude), Math.cos(toLatRad));
+    }
+
+    /**
+     * Distance to a point whose radians and latitude cosine are already known.
+     */
+    double toKm(double toLatRad, double toLngRad, double toCosLat) {
+        double sinHalfLat = Math.sin((toLatRad - latRad) / 2);
+        double sinHalfLng = Math.sin((toLngRad - lngRad) / 2);
+        double a = sinHalfLat * sinHalfLat + cosLat * toCosLat * sinHalfLng * sinHalfLng;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * Whether a point this far north or south is certainly beyond {@code maxKm}, without
+     * computing the full distance: the meridian distance never exceeds the great-circle one.
+     */
+    boolean beyondByLatitude(double toLatRad, double maxKm) {
+        return Math.abs(toLatRad - latRad) * EARTH_RADIUS_KM > maxKm;
+    }
+
+    /**
+     * Distances to each point of the parallel coordinate arrays, in degrees, each computed
+     * once. Points certainly beyond {@code maxKm} get {@link Double#POSITIVE_INFINITY}.
+     */
+    public double[] toKm(double[] latitudes, double[] longitudes, double maxKm) {
+        double[] distances = new double[latitudes.length];
+        for (int i = 0; i < latitudes.length; i++) {
+            double toLatRad = Math.toRadians(latitudes[i]);
+            distances[i] = beyondByLatitude(toLatRad, maxKm)
+                ? Double.POSITIVE_INFINITY
+                : toKm(toLatRad, Math.toRadians(longitudes[i]), Math.cos(toLatRad));
+        }
+        return distances;
+    }
+
+    /**
+     * Indexes into {@code distancesKm}, nearest first; equal distances keep their order.
+     */
+    public static int[] nearestFirst(double[] distancesKm) {
+        // Float bits of a non-negative distance sort like the distance, so packing them above the
+        // index sorts primitives by (distance, index). Rounding to float can only tie distances
+        // that differ, never swap them, so an insertion pass on the exact values finishes the job.
+        long[] packed = new long[distancesKm.length];
+        for (int i = 0; i < distancesKm.length; i++) {
+            packed[i] = ((long) Float.floatToIntBits((float) distancesKm[i]) << 32) | i;
+        }
+        Arrays.sort(packed);
+
+        int[] order = new int[packed.length];
+        for (int i = 0; i < packed.length; i++) {
+            int index = (int) packed[i];
+            int j = i;
+            while (j > 0 && distancesKm[order[j - 1]] > distancesKm[index]) {
+                order[j] = order[j - 1];
+                j--;
+            }
+            order[j] = index;
+        }
+        return order;
+    }
+}
@@ -0,0 +1,384 @@
+package com.renteasy.search;
+
+import com.renteasy.model.Item;
+import com.renteasy.repository.ItemRepository;
+import com.renteasy.repository.projection.ItemSuggestionSource;
+import com.renteasy.service.ItemChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory prefix index of the item names, categories, subcategories and locations of
+ * available items, used for type-ahead suggestions. Every distinct phrase is stored once with
+ * the number of items using it and a popularity score (item count plus their views), and is
+ * reachable in a sorted map from the start of each of its words, so "eos" completes
+ * "Canon EOS R5". Like {@link ItemSearchIndex} it is built in the background at startup and
+ * kept current from {@link ItemChangedEvent}s; it never queries the database to answer. Views
+ * are added to the popularity as the view counter writes them.
+ *
+ * <p>Prefixes of up to {@value #MAX_CACHED_PREFIX_LENGTH} characters match the most phrases and
+ * are what every query starts with, so their top {@value #MAX_SUGGESTIONS} phrases are kept
+ * ranked once computed and adjusted as phrases change. Longer prefixes match few enough phrases
+ * to rank on each query.
+ */
+@Component
+public class ItemAutocompleteIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemAutocompleteIndex.class);
+
+    public static final int MAX_SUGGESTIONS = 20;
+
+    static final int MAX_CACHED_PREFIX_LENGTH = 3;
+
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private static final Comparator<Phrase> RANK = Comparator
+        .comparingLong((Phrase phrase) -> phrase.popularity)
+        .thenComparing(Comparator.comparingInt((Phrase phrase) -> phrase.normalized.length()).reversed())
+        .thenComparing(Comparator.comparing((Phrase phrase) -> phrase.key).reversed());
+
+    private final ItemRepository itemRepository;
+    private final int buildBatchSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Phrase> phrasesByWordStart = new TreeMap<>();
+    private final Map<String, Phrase> phrases = new HashMap<>();
+    private final Map<String, Contribution> contributionsByItemId = new HashMap<>();
+    // Filled by queries under the read lock, adjusted by writers under the write lock.
+    private final Map<String, List<Phrase>> topByPrefix = new ConcurrentHashMap<>();
+
+    private final Set<String> changedDuringBuild = new HashSet<>();
+    private volatile boolean ready;
+
+    public ItemAutocompleteIndex(ItemRepository itemRepository,
+                                 @Value("${app.search.build-batch-size:500}") int buildBatchSize) {
+        this.itemRepository = itemRepository;
+        this.buildBatchSize = buildBatchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread builder = new Thread(this::build, "item-autocomplete-index");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    void build() {
+        long started = System.nanoTime();
+        try {
+            String afterId = "";
+            List<ItemSuggestionSource> batch;
+            do {
+                batch = itemRepository.findSuggestionSourcesAfter(afterId, PageRequest.of(0, buildBatchSize));
+                for (ItemSuggestionSource source : batch) {
+                    indexFromBuild(source);
+                }
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).id();
+                }
+            } while (batch.size() == buildBatchSize);
+
+            lock.writeLock().lock();
+            try {
+                ready = true;
+                changedDuringBuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Item autocomplete index built with {} phrases in {} ms",
+                phraseCount(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            logger.error("Failed to build the item autocomplete index; suggestions will be empty", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        Item item = event.item();
+        boolean remove = event.type() == ItemChangedEvent.ChangeType.DELETED || !Boolean.TRUE.equals(item.getAvailable());
+
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                changedDuringBuild.add(event.itemId());
+            }
+            removeLocked(event.itemId());
+            if (!remove) {
+                putLocked(item.getId(), item.getName(), item.getCategory(), item.getSubcategory(),
+                    item.getLocation(), item.getViews());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds views written to the database since the item was indexed to its phrases' popularity.
+     */
+    public void addViews(Map<String, Long> viewsByItemId) {
+        lock.writeLock().lock();
+        try {
+            viewsByItemId.forEach((itemId, views) -> {
+                Contribution contribution = contributionsByItemId.get(itemId);
+                if (contribution == null || views <= 0) {
+                    return;
+                }
+                contributionsByItemId.put(itemId, new Contribution(contribution.phraseKeys(), contribution.popularity() + views));
+                for (String key : contribution.phraseKeys()) {
+                    Phrase phrase = phrases.get(key);
+                    phrase.popularity += views;
+                    rerankLocked(phrase, Change.ROSE);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int phraseCount() {
+        lock.readLock().lock();
+        try {
+            return phrases.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} (at most {@value #MAX_SUGGESTIONS}) phrases with a word starting
+     * with {@code prefix}, most popular first. Empty if the index is not ready yet or the prefix
+     * has no letters or digits.
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String normalizedPrefix = normalize(prefix);
+        if (!ready || normalizedPrefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        int safeLimit = Math.min(limit, MAX_SUGGESTIONS);
+
+        lock.readLock().lock();
+        try {
+            List<Phrase> top = normalizedPrefix.length() <= MAX_CACHED_PREFIX_LENGTH
+                ? topByPrefix.computeIfAbsent(normalizedPrefix, cachedPrefix -> rankLocked(cachedPrefix, MAX_SUGGESTIONS))
+                : rankLocked(normalizedPrefix, safeLimit);
+            return top.stream()
+                .limit(safeLimit)
+                .map(phrase -> new Suggestion(phrase.text, phrase.type, phrase.itemCount))
+                .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of short prefixes whose top phrases are currently kept ranked.
+     */
+    int cachedPrefixCount() {
+        return topByPrefix.size();
+    }
+
+    private List<Phrase> rankLocked(String normalizedPrefix, int limit) {
+        PriorityQueue<Phrase> top = new PriorityQueue<>(limit + 1, RANK);
+        Set<Phrase> seen = new HashSet<>();
+        for (Phrase phrase : phrasesByWordStart.subMap(normalizedPrefix, true, normalizedPrefix + Character.MAX_VALUE, false).values()) {
+            if (!seen.add(phrase)) {
+                continue;
+            }
+            top.offer(phrase);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<Phrase> ranked = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            ranked.add(top.poll());
+        }
+        Collections.reverse(ranked);
+        return ranked;
+    }
+
+    /**
+     * Keeps the ranked short prefixes of a phrase current after its popularity changed. A full
+     * list that loses or demotes one of its phrases is dropped instead, since a phrase outside it
+     * may now belong in it; the next query ranks it again.
+     */
+    private void rerankLocked(Phrase phrase, Change change) {
+        if (topByPrefix.isEmpty()) {
+            return;
+        }
+        for (String prefix : cachedPrefixes(phrase.normalized)) {
+            List<Phrase> top = topByPrefix.get(prefix);
+            if (top == null) {
+                continue;
+            }
+            boolean listed = top.contains(phrase);
+            if (change == Change.ROSE) {
+                if (!listed) {
+                    if (top.size() == MAX_SUGGESTIONS && RANK.compare(phrase, top.get(top.size() - 1)) <= 0) {
+                        continue;
+                    }
+                    top.add(phrase);
+                }
+                top.sort(RANK.reversed());
+                if (top.size() > MAX_SUGGESTIONS) {
+                    top.remove(top.size() - 1);
+                }
+            } else if (listed) {
+                if (top.size() == MAX_SUGGESTIONS) {
+                    topByPrefix.remove(prefix);
+                } else if (change == Change.REMOVED) {
+                    top.remove(phrase);
+                } else {
+                    top.sort(RANK.reversed());
+                }
+            }
+        }
+    }
+
+    private void indexFromBuild(ItemSuggestionSource source) {
+        lock.writeLock().lock();
+        try {
+            if (!changedDuringBuild.contains(source.id())) {
+                removeLocked(source.id());
+                putLocked(source.id(), source.name(), source.category(), source.subcategory(),
+                    source.location(), source.views());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putLocked(String itemId, String name, String category, String subcategory, String location, Integer views) {
+        long popularity = 1L + (views != null ? Math.max(views, 0) : 0);
+        List<String> keys = new ArrayList<>(4);
+        addPhraseLocked(SuggestionType.NAME, name, popularity, keys);
+        addPhraseLocked(SuggestionType.CATEGORY, category, popularity, keys);
+        addPhraseLocked(SuggestionType.SUBCATEGORY, subcategory, popularity, keys);
+        addPhraseLocked(SuggestionType.LOCATION, location, popularity, keys);
+        contributionsByItemId.put(itemId, new Contribution(keys.toArray(String[]::new), popularity));
+    }
+
+    private void addPhraseLocked(SuggestionType type, String text, long popularity, List<String> keys) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return;
+        }
+
+        String key = type.name() + ':' + normalized;
+        if (keys.contains(key)) {
+            return;
+        }
+        keys.add(key);
+
+        Phrase phrase = phrases.get(key);
+        if (phrase == null) {
+            phrase = new Phrase(key, type, text.trim().replaceAll("\\s+", " "), normalized);
+            phrases.put(key, phrase);
+            for (int start : wordStarts(normalized)) {
+                phrasesByWordStart.put(normalized.substring(start) + KEY_SEPARATOR + key, phrase);
+            }
+        }
+        phrase.itemCount++;
+        phrase.popularity += popularity;
+        rerankLocked(phrase, Change.ROSE);
+    }
+
+    private void removeLocked(String itemId) {
+        Contribution contribution = contributionsByItemId.remove(itemId);
+        if (contribution == null) {
+            return;
+        }
+
+        for (String key : contribution.phraseKeys()) {
+            Phrase phrase = phrases.get(key);
+            if (phrase == null) {
+                continue;
+            }
+            phrase.itemCount--;
+            phrase.popularity -= contribution.popularity();
+            rerankLocked(phrase, phrase.itemCount <= 0 ? Change.REMOVED : Change.FELL);
+            if (phrase.itemCount <= 0) {
+                phrases.remove(key);
+                for (int start : wordStarts(phrase.normalized)) {
+                    phrasesByWordStart.remove(phrase.normalized.substring(start) + KEY_SEPARATOR + key);
+                }
+            }
+        }
+    }
+
+    static String normalize(String text) {
+        return String.join(" ", TextTokenizer.tokenize(text));
+    }
+
+    private static List<Integer> wordStarts(String normalized) {
+        List<Integer> starts = new ArrayList<>();
+        starts.add(0);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            starts.add(i + 1);
+        }
+        return starts;
+    }
+
+    private static Set<String> cachedPrefixes(String normalized) {
+        Set<String> prefixes = new HashSet<>();
+        for (int start : wordStarts(normalized)) {
+            for (int end = start + 1; end <= Math.min(start + MAX_CACHED_PREFIX_LENGTH, normalized.length()); end++) {
+                prefixes.add(normalized.substring(start, end));
+            }
+        }
+        return prefixes;
+    }
+
+    public enum SuggestionType {
+        NAME, CATEGORY, SUBCATEGORY, LOCATION
+    }
+
+    public record Suggestion(String text, SuggestionType type, int itemCount) {}
+
+    private record Contribution(String[] phraseKeys, long popularity) {}
+
+    private enum Change {
+        ROSE, FELL, REMOVED
+    }
+
+    private static final class Phrase {
+        private final String key;
+        private final SuggestionType type;
+        private final String text;
+        private final String normalized;
+        private int itemCount;
+        private long popularity;
+
+        private Phrase(String key, SuggestionType type, String text, String normalized) {
+            this.key = key;
+            this.type = type;
+            this.text = text;
+            this.normalized = normalized;
+        }
+    }
+}
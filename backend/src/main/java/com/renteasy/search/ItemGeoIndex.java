@@ -0,0 +1,463 @@
+package com.renteasy.search;
+
+import com.renteasy.model.Item;
+import com.renteasy.repository.ItemRepository;
+import com.renteasy.repository.projection.ItemGeoPoint;
+import com.renteasy.service.ItemChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory grid over the coordinates of available items. The globe is cut into cells of a
+ * fixed number of degrees and each cell holds the items inside it, so a radius query only
+ * looks at the cells its bounding box overlaps. Nearest-first queries visit rings of cells
+ * around the query point and stop as soon as nothing in the next ring can beat the results
+ * found so far. Like {@link ItemSearchIndex} it is built in the background at startup and
+ * kept current from {@link ItemChangedEvent}s; until it is ready, queries return empty so
+ * callers fall back to SQL.
+ */
+@Component
+public class ItemGeoIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemGeoIndex.class);
+
+    private static final double EARTH_RADIUS_KM = GeoDistance.EARTH_RADIUS_KM;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180.0;
+
+    public static final Comparator<Neighbor> NEAREST_FIRST = Comparator
+        .comparingDouble(Neighbor::distanceKm)
+        .thenComparing(Neighbor::itemId);
+
+    private final ItemRepository itemRepository;
+    private final int buildBatchSize;
+    private final double cellDegrees;
+    private final int rowCount;
+    private final int columnCount;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, List<Point>> cells = new HashMap<>();
+    private final Map<String, Point> pointsByItemId = new HashMap<>();
+    private final LongAdder cellsVisited = new LongAdder();
+
+    private final Set<String> changedDuringBuild = new HashSet<>();
+    private volatile boolean ready;
+
+    public ItemGeoIndex(ItemRepository itemRepository,
+                        @Value("${app.search.build-batch-size:500}") int buildBatchSize,
+                        @Value("${app.geo.cell-degrees:0.05}") double cellDegrees) {
+        if (cellDegrees <= 0 || cellDegrees > 90) {
+            throw new IllegalArgumentException("app.geo.cell-degrees must be in (0, 90]");
+        }
+        this.itemRepository = itemRepository;
+        this.buildBatchSize = buildBatchSize;
+        this.cellDegrees = cellDegrees;
+        this.rowCount = (int) Math.ceil(180.0 / cellDegrees);
+        this.columnCount = (int) Math.ceil(360.0 / cellDegrees);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread builder = new Thread(this::build, "item-geo-index");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    void build() {
+        long started = System.nanoTime();
+        try {
+            String afterId = "";
+            List<ItemGeoPoint> batch;
+            do {
+                batch = itemRepository.findGeoPointsAfter(afterId, PageRequest.of(0, buildBatchSize));
+                for (ItemGeoPoint point : batch) {
+                    indexFromBuild(point);
+                }
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).id();
+                }
+            } while (batch.size() == buildBatchSize);
+
+            lock.writeLock().lock();
+            try {
+                ready = true;
+                changedDuringBuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Item geo index built with {} items in {} cells in {} ms",
+                size(), cellCount(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            logger.error("Failed to build the item geo index; nearby queries will use SQL", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        Item item = event.item();
+        boolean remove = event.type() == ItemChangedEvent.ChangeType.DELETED
+            || !Boolean.TRUE.equals(item.getAvailable())
+            || item.getLatitude() == null || item.getLongitude() == null;
+
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                changedDuringBuild.add(event.itemId());
+            }
+            removeLocked(event.itemId());
+            if (!remove) {
+                putLocked(item.getId(), item.getLatitude(), item.getLongitude());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Grid cells looked at by nearest-first queries so far, occupied or not.
+     */
+    long cellsVisited() {
+        return cellsVisited.sum();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return pointsByItemId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int cellCount() {
+        lock.readLock().lock();
+        try {
+            return cells.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * How many indexed items are within {@code radiusKm} of the point, or empty while the
+     * index is being built.
+     */
+    public Optional<Integer> countWithin(double latitude, double longitude, double radiusKm) {
+        if (!ready) {
+            return Optional.empty();
+        }
+
+        GeoDistance origin = GeoDistance.from(latitude, longitude);
+        lock.readLock().lock();
+        try {
+            int count = 0;
+            for (List<Point> cell : candidateCells(latitude, longitude, radiusKm)) {
+                for (Point point : cell) {
+                    if (!origin.beyondByLatitude(point.latRad, radiusKm)
+                            && origin.toKm(point.latRad, point.lngRad, point.cosLat) <= radiusKm) {
+                        count++;
+                    }
+                }
+            }
+            return Optional.of(count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The {@code limit} indexed items closest to the point and no further than
+     * {@code radiusKm}, nearest first (ties by item id), or empty while the index is being
+     * built.
+     */
+    public Optional<List<Neighbor>> nearest(double latitude, double longitude, double radiusKm, int limit) {
+        return nearestAfter(latitude, longitude, radiusKm, null, limit);
+    }
+
+    /**
+     * Like {@link #nearest}, but only the items ordered after {@code after} (by distance, then
+     * id), so a distance-ordered feed can continue where the previous slice ended. The scan
+     * starts at the first ring whose block of cells reaches as far as {@code after}; the rings
+     * inside it lie entirely closer and are skipped.
+     */
+    public Optional<List<Neighbor>> nearestAfter(double latitude, double longitude, double radiusKm,
+                                                 Neighbor after, int limit) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        if (limit <= 0) {
+            return Optional.of(List.of());
+        }
+
+        GeoDistance origin = GeoDistance.from(latitude, longitude);
+        lock.readLock().lock();
+        try {
+            PriorityQueue<Neighbor> best = new PriorityQueue<>(limit + 1, NEAREST_FIRST.reversed());
+            int row = row(latitude);
+            int column = column(longitude);
+            int lastRing = ringsToCover(latitude, radiusKm);
+
+            if (blockCellCount(lastRing) > cells.size()) {
+                // Sparser than the area searched: looking at every occupied cell is cheaper.
+                for (List<Point> cell : cells.values()) {
+                    offerAll(cell, origin, radiusKm, after, limit, best);
+                }
+                cellsVisited.add(cells.size());
+                return Optional.of(sorted(best));
+            }
+
+            int firstRing = 0;
+            if (after != null) {
+                while (firstRing < lastRing
+                        && farthestInBlock(latitude, longitude, row, column, firstRing) < after.distanceKm()) {
+                    firstRing++;
+                }
+            }
+
+            Set<Long> visited = new HashSet<>();
+            for (int ring = firstRing; ring <= lastRing; ring++) {
+                for (long key : ringKeys(row, column, ring)) {
+                    if (visited.add(key)) {
+                        cellsVisited.increment();
+                        List<Point> cell = cells.get(key);
+                        if (cell != null) {
+                            offerAll(cell, origin, radiusKm, after, limit, best);
+                        }
+                    }
+                }
+                if (best.size() == limit && best.peek().distanceKm() < distanceOutsideBlock(latitude, longitude, row, column, ring)) {
+                    break;
+                }
+            }
+            return Optional.of(sorted(best));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Great-circle distance in kilometres between two points.
+     */
+    public static double distanceKm(double fromLat, double fromLng, double toLat, double toLng) {
+        return GeoDistance.from(fromLat, fromLng).toKm(toLat, toLng);
+    }
+
+    private void offerAll(List<Point> cell, GeoDistance origin, double radiusKm,
+                          Neighbor after, int limit, PriorityQueue<Neighbor> best) {
+        for (Point point : cell) {
+            if (origin.beyondByLatitude(point.latRad, radiusKm)) {
+                continue;
+            }
+            double distance = origin.toKm(point.latRad, point.lngRad, point.cosLat);
+            if (distance > radiusKm) {
+                continue;
+            }
+            Neighbor neighbor = new Neighbor(point.itemId, distance);
+            if (after != null && NEAREST_FIRST.compare(neighbor, after) <= 0) {
+                continue;
+            }
+            if (best.size() < limit) {
+                best.offer(neighbor);
+            } else if (NEAREST_FIRST.compare(neighbor, best.peek()) < 0) {
+                best.poll();
+                best.offer(neighbor);
+            }
+        }
+    }
+
+    private static List<Neighbor> sorted(PriorityQueue<Neighbor> best) {
+        List<Neighbor> neighbors = new ArrayList<>(best);
+        neighbors.sort(NEAREST_FIRST);
+        return neighbors;
+    }
+
+    /**
+     * The occupied cells overlapping the bounding box of the circle, or all occupied cells if
+     * there are fewer of them than cells in the box.
+     */
+    private Collection<List<Point>> candidateCells(double latitude, double longitude, double radiusKm) {
+        int rings = ringsToCover(latitude, radiusKm);
+        if (blockCellCount(rings) > cells.size()) {
+            return cells.values();
+        }
+
+        int row = row(latitude);
+        int column = column(longitude);
+        Set<Long> keys = new HashSet<>();
+        List<List<Point>> candidates = new ArrayList<>();
+        for (int r = Math.max(0, row - rings); r <= Math.min(rowCount - 1, row + rings); r++) {
+            for (int c = column - rings; c <= column + rings; c++) {
+                long key = key(r, Math.floorMod(c, columnCount));
+                List<Point> cell = cells.get(key);
+                if (cell != null && keys.add(key)) {
+                    candidates.add(cell);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * How many rings of cells around the query cell cover every point within the radius.
+     */
+    private int ringsToCover(double latitude, double radiusKm) {
+        double latDegrees = radiusKm / KM_PER_DEGREE;
+        int latRings = (int) Math.ceil(latDegrees / cellDegrees);
+        double widest = Math.min(90.0, Math.abs(latitude) + latDegrees);
+        double cosWidest = Math.cos(Math.toRadians(widest));
+        int lngRings = cosWidest < 1e-9
+            ? columnCount
+            : (int) Math.ceil(Math.min(180.0, latDegrees / cosWidest) / cellDegrees);
+        return Math.min(Math.max(latRings, lngRings), Math.max(rowCount, columnCount));
+    }
+
+    private long blockCellCount(int rings) {
+        long side = 2L * rings + 1;
+        return Math.min(side, rowCount) * Math.min(side, columnCount);
+    }
+
+    private List<Long> ringKeys(int row, int column, int ring) {
+        List<Long> keys = new ArrayList<>();
+        for (int r = row - ring; r <= row + ring; r++) {
+            if (r < 0 || r >= rowCount) {
+                continue;
+            }
+            boolean edgeRow = r == row - ring || r == row + ring;
+            for (int c = column - ring; c <= column + ring; c += edgeRow || ring == 0 ? 1 : 2 * ring) {
+                keys.add(key(r, Math.floorMod(c, columnCount)));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * A lower bound on the distance from the point to anything outside the block of cells
+     * {@code ring} rings around its own: the distance to the nearest of the block's edges.
+     * Edge parallels are measured along the meridian, edge meridians by cross-track distance.
+     */
+    private double distanceOutsideBlock(double latitude, double longitude, int row, int column, int ring) {
+        double bound = Double.POSITIVE_INFINITY;
+        if (row + ring + 1 < rowCount) {
+            double northEdge = (row + ring + 1) * cellDegrees - 90.0;
+            bound = Math.min(bound, (northEdge - latitude) * KM_PER_DEGREE);
+        }
+        if (row - ring > 0) {
+            double southEdge = (row - ring) * cellDegrees - 90.0;
+            bound = Math.min(bound, (latitude - southEdge) * KM_PER_DEGREE);
+        }
+        if (2L * ring + 1 < columnCount) {
+            double eastOffset = (column + ring + 1) * cellDegrees - 180.0 - longitude;
+            double westOffset = longitude - ((column - ring) * cellDegrees - 180.0);
+            double cosLat = Math.cos(Math.toRadians(latitude));
+            for (double offset : new double[] {eastOffset, westOffset}) {
+                double crossTrack = Math.asin(Math.min(1.0, Math.abs(Math.sin(Math.toRadians(offset))) * cosLat));
+                bound = Math.min(bound, crossTrack * EARTH_RADIUS_KM);
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * An upper bound on the distance from the point to anything inside the block of cells
+     * {@code ring} rings around its own: the farthest corner, or infinity when the block wraps
+     * around the globe or reaches a pole, where corners no longer bound it.
+     */
+    private double farthestInBlock(double latitude, double longitude, int row, int column, int ring) {
+        if (row - ring <= 0 || row + ring + 1 >= rowCount || (2L * ring + 1) * cellDegrees >= 180.0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double south = (row - ring) * cellDegrees - 90.0;
+        double north = (row + ring + 1) * cellDegrees - 90.0;
+        double west = (column - ring) * cellDegrees - 180.0;
+        double east = (column + ring + 1) * cellDegrees - 180.0;
+        return Math.max(
+            Math.max(distanceKm(latitude, longitude, south, west), distanceKm(latitude, longitude, south, east)),
+            Math.max(distanceKm(latitude, longitude, north, west), distanceKm(latitude, longitude, north, east)));
+    }
+
+    private void indexFromBuild(ItemGeoPoint point) {
+        lock.writeLock().lock();
+        try {
+            if (!changedDuringBuild.contains(point.id())) {
+                removeLocked(point.id());
+                putLocked(point.id(), point.latitude(), point.longitude());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putLocked(String itemId, double latitude, double longitude) {
+        Point point = new Point(itemId, latitude, longitude, key(row(latitude), column(longitude)));
+        cells.computeIfAbsent(point.cellKey, key -> new ArrayList<>()).add(point);
+        pointsByItemId.put(itemId, point);
+    }
+
+    private void removeLocked(String itemId) {
+        Point point = pointsByItemId.remove(itemId);
+        if (point == null) {
+            return;
+        }
+        List<Point> cell = cells.get(point.cellKey);
+        cell.remove(point);
+        if (cell.isEmpty()) {
+            cells.remove(point.cellKey);
+        }
+    }
+
+    private int row(double latitude) {
+        return Math.min(rowCount - 1, Math.max(0, (int) Math.floor((latitude + 90.0) / cellDegrees)));
+    }
+
+    private int column(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180.0) / cellDegrees), columnCount);
+    }
+
+    private static long key(int row, int column) {
+        return ((long) row << 32) | column;
+    }
+
+    public record Neighbor(String itemId, double distanceKm) {}
+
+    /**
+     * An indexed item with its coordinates kept in the form the distance formula needs, so
+     * scoring it against a query costs no conversions or extra cosines.
+     */
+    private static final class Point {
+        private final String itemId;
+        private final double latRad;
+        private final double lngRad;
+        private final double cosLat;
+        private final long cellKey;
+
+        private Point(String itemId, double latitude, double longitude, long cellKey) {
+            this.itemId = itemId;
+            this.latRad = Math.toRadians(latitude);
+            this.lngRad = Math.toRadians(longitude);
+            this.cosLat = Math.cos(latRad);
+            this.cellKey = cellKey;
+        }
+    }
+}
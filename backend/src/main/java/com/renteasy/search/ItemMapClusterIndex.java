@@ -0,0 +1,473 @@
+package com.renteasy.search;
+
+import com.renteasy.model.Item;
+import com.renteasy.repository.ItemRepository;
+import com.renteasy.repository.projection.ItemMapPoint;
+import com.renteasy.service.ItemChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Pre-aggregated map clusters of available items. The globe is cut into a hierarchy of grids:
+ * level {@code n} has cells {@code 360 / 2^n} degrees wide, and each cell is exactly the four
+ * cells below it at level {@code n + 1}. Items sit in cells of the finest (leaf) level; every
+ * coarser cell keeps the count, coordinate sums and price range of its children, so a
+ * viewport at any zoom is answered from the cells it covers without touching items. A change
+ * to an item recomputes its leaf cell and then each ancestor from its four children. Like
+ * {@link ItemGeoIndex} it is built in the background at startup and kept current from
+ * {@link ItemChangedEvent}s; until it is ready, queries return empty so callers fall back to
+ * SQL.
+ */
+@Component
+public class ItemMapClusterIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemMapClusterIndex.class);
+
+    /**
+     * Upper bound on the cells one query may cover; a viewport of about 1000 pixels at the
+     * level picked for its zoom covers roughly a thousand.
+     */
+    public static final long MAX_CELLS_PER_QUERY = 4096;
+
+    /**
+     * Leaf cells holding more items than this report only their count, like coarser cells.
+     */
+    public static final int MAX_ITEMS_PER_CLUSTER = 50;
+
+    /**
+     * Upper bound on the items listed across all clusters of one query.
+     */
+    public static final int MAX_ITEMS_PER_QUERY = 500;
+
+    // Cells of an eighth of a 256-pixel map tile, so clusters sit about 32 pixels apart.
+    private static final int LEVELS_BELOW_ZOOM = 3;
+
+    private static final Comparator<Cluster> LARGEST_FIRST = Comparator
+        .comparingInt(Cluster::count).reversed()
+        .thenComparing(Cluster::cellId);
+
+    private final ItemRepository itemRepository;
+    private final int buildBatchSize;
+    private final int leafLevel;
+    private final double leafCellDegrees;
+    private final int leafRows;
+    private final int leafColumns;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Map<Long, Cell>> levels = new ArrayList<>();
+    private final Map<String, Point> pointsByItemId = new HashMap<>();
+
+    private final Set<String> changedDuringBuild = new HashSet<>();
+    private volatile boolean ready;
+
+    public ItemMapClusterIndex(ItemRepository itemRepository,
+                               @Value("${app.search.build-batch-size:500}") int buildBatchSize,
+                               @Value("${app.map.leaf-level:16}") int leafLevel) {
+        if (leafLevel < 1 || leafLevel > 30) {
+            throw new IllegalArgumentException("app.map.leaf-level must be in [1, 30]");
+        }
+        this.itemRepository = itemRepository;
+        this.buildBatchSize = buildBatchSize;
+        this.leafLevel = leafLevel;
+        this.leafCellDegrees = 360.0 / (1 << leafLevel);
+        this.leafRows = 1 << (leafLevel - 1);
+        this.leafColumns = 1 << leafLevel;
+        for (int level = 0; level <= leafLevel; level++) {
+            levels.add(new HashMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread builder = new Thread(this::build, "item-map-cluster-index");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    void build() {
+        long started = System.nanoTime();
+        try {
+            String afterId = "";
+            List<ItemMapPoint> batch;
+            do {
+                batch = itemRepository.findMapPointsAfter(afterId, PageRequest.of(0, buildBatchSize));
+                for (ItemMapPoint point : batch) {
+                    indexFromBuild(point);
+                }
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).id();
+                }
+            } while (batch.size() == buildBatchSize);
+
+            lock.writeLock().lock();
+            try {
+                ready = true;
+                changedDuringBuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Item map cluster index built with {} items in {} leaf cells in {} ms",
+                size(), cellCount(leafLevel), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            logger.error("Failed to build the item map cluster index; map clusters will use SQL", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        Item item = event.item();
+        boolean remove = event.type() == ItemChangedEvent.ChangeType.DELETED
+            || !Boolean.TRUE.equals(item.getAvailable())
+            || item.getLatitude() == null || item.getLongitude() == null;
+
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                changedDuringBuild.add(event.itemId());
+            }
+            removeLocked(event.itemId());
+            if (!remove) {
+                putLocked(item.getId(), item.getLatitude(), item.getLongitude(), item.getPrice());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return pointsByItemId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int cellCount(int level) {
+        lock.readLock().lock();
+        try {
+            return levels.get(level).size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The grid level whose clusters suit a web map at {@code zoom}, capped at the leaf level.
+     */
+    public int levelForZoom(int zoom) {
+        return Math.min(Math.max(zoom, 0) + LEVELS_BELOW_ZOOM, leafLevel);
+    }
+
+    /**
+     * How many cells of {@code level} the box covers. {@code minLng > maxLng} means the box
+     * crosses the antimeridian.
+     */
+    public long cellsCovering(double minLat, double maxLat, double minLng, double maxLng, int level) {
+        CellRange range = range(minLat, maxLat, minLng, maxLng, level);
+        return (long) (range.lastRow - range.firstRow + 1) * range.columnCount();
+    }
+
+    /**
+     * The non-empty cells of {@code level} the box overlaps, largest first, or empty while the
+     * index is being built. Leaf cells of up to {@link #MAX_ITEMS_PER_CLUSTER} items list their
+     * item ids.
+     */
+    public Optional<List<Cluster>> clusters(double minLat, double maxLat, double minLng, double maxLng, int level) {
+        if (!ready) {
+            return Optional.empty();
+        }
+
+        CellRange range = range(minLat, maxLat, minLng, maxLng, level);
+        lock.readLock().lock();
+        try {
+            Map<Long, Cell> cells = levels.get(level);
+            List<Cluster> clusters = new ArrayList<>();
+            if ((long) (range.lastRow - range.firstRow + 1) * range.columnCount() > cells.size()) {
+                for (Map.Entry<Long, Cell> entry : cells.entrySet()) {
+                    if (range.contains(row(entry.getKey()), column(entry.getKey()))) {
+                        clusters.add(toCluster(level, entry.getKey(), entry.getValue()));
+                    }
+                }
+            } else {
+                for (int row = range.firstRow; row <= range.lastRow; row++) {
+                    for (int column : range.columns()) {
+                        Cell cell = cells.get(key(row, column));
+                        if (cell != null) {
+                            clusters.add(toCluster(level, key(row, column), cell));
+                        }
+                    }
+                }
+            }
+            clusters.sort(LARGEST_FIRST);
+            return Optional.of(clusters);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Clusters the given points into the cells of {@code level} directly, without the index.
+     * Used while the index is being built.
+     */
+    public List<Cluster> aggregate(List<ItemMapPoint> points, int level) {
+        int shift = leafLevel - level;
+        Map<Long, Cell> cells = new HashMap<>();
+        for (ItemMapPoint mapPoint : points) {
+            Point point = toPoint(mapPoint.id(), mapPoint.latitude(), mapPoint.longitude(), mapPoint.price());
+            long key = key(row(point.leafKey) >> shift, column(point.leafKey) >> shift);
+            Cell cell = cells.computeIfAbsent(key, k -> new Cell(level == leafLevel));
+            cell.add(point);
+        }
+
+        List<Cluster> clusters = new ArrayList<>();
+        cells.forEach((key, cell) -> clusters.add(toCluster(level, key, cell)));
+        clusters.sort(LARGEST_FIRST);
+        return clusters;
+    }
+
+    private Cluster toCluster(int level, long key, Cell cell) {
+        List<String> itemIds = null;
+        if (cell.points != null && cell.count <= MAX_ITEMS_PER_CLUSTER) {
+            itemIds = cell.points.stream().map(point -> point.itemId).sorted().toList();
+        }
+        return new Cluster(level + "/" + row(key) + "/" + column(key), cell.count,
+            cell.latitudeSum / cell.count, cell.longitudeSum / cell.count,
+            cell.minPrice, cell.maxPrice, itemIds);
+    }
+
+    private CellRange range(double minLat, double maxLat, double minLng, double maxLng, int level) {
+        int shift = leafLevel - level;
+        int columnsAtLevel = leafColumns >> shift;
+        int firstColumn = boxColumn(minLng) >> shift;
+        int lastColumn = boxColumn(maxLng) >> shift;
+        if (minLng > maxLng && lastColumn >= firstColumn) {
+            // Crosses the antimeridian but both edges fall in one column: every column is covered.
+            firstColumn = 0;
+            lastColumn = columnsAtLevel - 1;
+        }
+        return new CellRange(leafRow(minLat) >> shift, leafRow(maxLat) >> shift,
+            firstColumn, lastColumn, columnsAtLevel);
+    }
+
+    private void indexFromBuild(ItemMapPoint point) {
+        lock.writeLock().lock();
+        try {
+            if (!changedDuringBuild.contains(point.id())) {
+                removeLocked(point.id());
+                putLocked(point.id(), point.latitude(), point.longitude(), point.price());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putLocked(String itemId, double latitude, double longitude, BigDecimal price) {
+        Point point = toPoint(itemId, latitude, longitude, price);
+        levels.get(leafLevel).computeIfAbsent(point.leafKey, key -> new Cell(true)).points.add(point);
+        pointsByItemId.put(itemId, point);
+        refreshLocked(point.leafKey);
+    }
+
+    private void removeLocked(String itemId) {
+        Point point = pointsByItemId.remove(itemId);
+        if (point == null) {
+            return;
+        }
+        levels.get(leafLevel).get(point.leafKey).points.remove(point);
+        refreshLocked(point.leafKey);
+    }
+
+    /**
+     * Recomputes the leaf cell from its items and then every ancestor from its four children,
+     * dropping cells that end up empty.
+     */
+    private void refreshLocked(long leafKey) {
+        Map<Long, Cell> leaves = levels.get(leafLevel);
+        Cell leaf = leaves.get(leafKey);
+        leaf.recount();
+        if (leaf.count == 0) {
+            leaves.remove(leafKey);
+        }
+
+        int leafRow = row(leafKey);
+        int leafColumn = column(leafKey);
+        for (int level = leafLevel - 1; level >= 0; level--) {
+            int shift = leafLevel - level;
+            int row = leafRow >> shift;
+            int column = leafColumn >> shift;
+            Map<Long, Cell> children = levels.get(level + 1);
+
+            Cell cell = new Cell(false);
+            for (int childRow = 2 * row; childRow <= 2 * row + 1; childRow++) {
+                for (int childColumn = 2 * column; childColumn <= 2 * column + 1; childColumn++) {
+                    Cell child = children.get(key(childRow, childColumn));
+                    if (child != null) {
+                        cell.merge(child);
+                    }
+                }
+            }
+            if (cell.count == 0) {
+                levels.get(level).remove(key(row, column));
+            } else {
+                levels.get(level).put(key(row, column), cell);
+            }
+        }
+    }
+
+    private Point toPoint(String itemId, double latitude, double longitude, BigDecimal price) {
+        return new Point(itemId, latitude, longitude, price, key(leafRow(latitude), leafColumn(longitude)));
+    }
+
+    private int leafRow(double latitude) {
+        return Math.min(leafRows - 1, Math.max(0, (int) Math.floor((latitude + 90.0) / leafCellDegrees)));
+    }
+
+    private int leafColumn(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180.0) / leafCellDegrees), leafColumns);
+    }
+
+    /**
+     * The leaf column of a box edge; unlike {@link #leafColumn}, 180 stays in the last column
+     * instead of wrapping to the first.
+     */
+    private int boxColumn(double longitude) {
+        return Math.min(leafColumns - 1, Math.max(0, (int) Math.floor((longitude + 180.0) / leafCellDegrees)));
+    }
+
+    private static long key(int row, int column) {
+        return ((long) row << 32) | column;
+    }
+
+    private static int row(long key) {
+        return (int) (key >>> 32);
+    }
+
+    private static int column(long key) {
+        return (int) key;
+    }
+
+    /**
+     * One map cluster. {@code cellId} is {@code level/row/column}; {@code itemIds} is only set
+     * for leaf cells of up to {@link #MAX_ITEMS_PER_CLUSTER} items.
+     */
+    public record Cluster(String cellId, int count, double latitude, double longitude,
+                          BigDecimal minPrice, BigDecimal maxPrice, List<String> itemIds) {}
+
+    private record CellRange(int firstRow, int lastRow, int firstColumn, int lastColumn, int columnsAtLevel) {
+
+        boolean wraps() {
+            return lastColumn < firstColumn;
+        }
+
+        int columnCount() {
+            return wraps() ? columnsAtLevel - firstColumn + lastColumn + 1 : lastColumn - firstColumn + 1;
+        }
+
+        List<Integer> columns() {
+            List<Integer> columns = new ArrayList<>(columnCount());
+            for (int i = 0; i < columnCount(); i++) {
+                columns.add((firstColumn + i) % columnsAtLevel);
+            }
+            return columns;
+        }
+
+        boolean contains(int row, int column) {
+            if (row < firstRow || row > lastRow) {
+                return false;
+            }
+            return wraps() ? column >= firstColumn || column <= lastColumn : column >= firstColumn && column <= lastColumn;
+        }
+    }
+
+    /**
+     * Totals for one cell. Leaf cells also hold their items and are recounted from them;
+     * coarser cells are the merge of their children.
+     */
+    private static final class Cell {
+        private final List<Point> points;
+        private int count;
+        private double latitudeSum;
+        private double longitudeSum;
+        private BigDecimal minPrice;
+        private BigDecimal maxPrice;
+
+        private Cell(boolean leaf) {
+            this.points = leaf ? new ArrayList<>() : null;
+        }
+
+        private void recount() {
+            count = 0;
+            latitudeSum = 0;
+            longitudeSum = 0;
+            minPrice = null;
+            maxPrice = null;
+            List<Point> current = new ArrayList<>(points);
+            points.clear();
+            current.forEach(this::add);
+        }
+
+        private void add(Point point) {
+            if (points != null) {
+                points.add(point);
+            }
+            count++;
+            latitudeSum += point.latitude;
+            longitudeSum += point.longitude;
+            widenPrices(point.price, point.price);
+        }
+
+        private void merge(Cell child) {
+            count += child.count;
+            latitudeSum += child.latitudeSum;
+            longitudeSum += child.longitudeSum;
+            widenPrices(child.minPrice, child.maxPrice);
+        }
+
+        private void widenPrices(BigDecimal low, BigDecimal high) {
+            if (low != null && (minPrice == null || low.compareTo(minPrice) < 0)) {
+                minPrice = low;
+            }
+            if (high != null && (maxPrice == null || high.compareTo(maxPrice) > 0)) {
+                maxPrice = high;
+            }
+        }
+    }
+
+    private static final class Point {
+        private final String itemId;
+        private final double latitude;
+        private final double longitude;
+        private final BigDecimal price;
+        private final long leafKey;
+
+        private Point(String itemId, double latitude, double longitude, BigDecimal price, long leafKey) {
+            this.itemId = itemId;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.price = price;
+            this.leafKey = leafKey;
+        }
+    }
+}
@@ -0,0 +1,648 @@
+package com.renteasy.search;
+
+import com.renteasy.model.Item;
+import com.renteasy.repository.ItemRepository;
+import com.renteasy.repository.projection.ItemSearchDocument;
+import com.renteasy.service.ItemChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the names, subcategories and descriptions of available items. Each item gets a
+ * compact int ordinal and every term maps to a sorted posting list of ordinals with the term's
+ * frequency. The same ordinals key a {@link FacetIndex} of category, subcategory, location,
+ * price band and availability bitmaps; unavailable items are kept there, but not in the
+ * postings, so facet counts can cover them. Matches are ranked with BM25, name occurrences weighted above description ones,
+ * and items with an active boost get a score multiplier. Query terms that match nothing are
+ * corrected to the closest name or subcategory term by trigram similarity, and the corrected
+ * query is returned as a "did you mean" suggestion. Query terms are intersected rarest first
+ * over their posting lists, so a search costs in proportion to its matches rather than the
+ * catalogue, and the ordinals of removed items are handed out again. The index is built in the background
+ * at startup and then kept current from {@link ItemChangedEvent}s; until it is ready,
+ * {@link #search} returns empty so callers fall back to SQL.
+ */
+@Component
+public class ItemSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemSearchIndex.class);
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // Query terms that only match as a prefix ("cam" -> "camera") score below exact matches.
+    private static final double PREFIX_MATCH_WEIGHT = 0.5;
+    // A binary search per candidate beats merging once the term has this many times more postings.
+    private static final int PROBE_COST = 16;
+    private static final int MAX_FACET_VALUES = 20;
+
+    public static final String FACET_CATEGORY = "category";
+    public static final String FACET_SUBCATEGORY = "subcategory";
+    public static final String FACET_LOCATION = "location";
+    public static final String FACET_PRICE = "price";
+    public static final String FACET_AVAILABILITY = "availability";
+    private static final String[] FACETS = {FACET_CATEGORY, FACET_SUBCATEGORY, FACET_LOCATION, FACET_PRICE, FACET_AVAILABILITY};
+    private static final int CATEGORY = 0;
+    private static final int SUBCATEGORY = 1;
+    private static final int LOCATION = 2;
+    private static final int PRICE = 3;
+    private static final int AVAILABILITY = 4;
+    private static final String AVAILABLE = "available";
+    private static final String UNAVAILABLE = "unavailable";
+
+    private final ItemRepository itemRepository;
+    private final int buildBatchSize;
+    private final float nameWeight;
+    private final float boostMultiplier;
+    private final double fuzzyMinSimilarity;
+    private final BigDecimal[] priceBandBounds;
+    private final String[] priceBandLabels;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, PostingList> postings = new TreeMap<>();
+    private final Map<String, Integer> ordinalsByItemId = new HashMap<>();
+    private final List<String> itemIds = new ArrayList<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final List<String[]> documentTerms = new ArrayList<>();
+    private final List<String[]> documentVocabulary = new ArrayList<>();
+    private final TrigramIndex vocabulary = new TrigramIndex();
+    private final FacetIndex facets = new FacetIndex(FACETS.length);
+    private final BitSet available = new BitSet();
+    private float[] lengths = new float[256];
+    private long[] boostedUntil = new long[256];
+    private long[] createdAt = new long[256];
+    private double totalLength;
+
+    private final Set<String> changedDuringBuild = new HashSet<>();
+    private volatile boolean ready;
+
+    public ItemSearchIndex(ItemRepository itemRepository,
+                           @Value("${app.search.build-batch-size:500}") int buildBatchSize,
+                           @Value("${app.search.name-weight:2.0}") float nameWeight,
+                           @Value("${app.search.boost-multiplier:1.5}") float boostMultiplier,
+                           @Value("${app.search.fuzzy-min-similarity:0.3}") double fuzzyMinSimilarity,
+                           @Value("${app.search.price-bands:1000,5000,20000,50000}") BigDecimal[] priceBandBounds) {
+        this.itemRepository = itemRepository;
+        this.buildBatchSize = buildBatchSize;
+        this.nameWeight = nameWeight;
+        this.boostMultiplier = boostMultiplier;
+        this.fuzzyMinSimilarity = fuzzyMinSimilarity;
+        this.priceBandBounds = priceBandBounds.clone();
+        Arrays.sort(this.priceBandBounds);
+        this.priceBandLabels = priceBandLabels(this.priceBandBounds);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread builder = new Thread(this::build, "item-search-index");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    void build() {
+        long started = System.nanoTime();
+        try {
+            String afterId = "";
+            List<ItemSearchDocument> batch;
+            do {
+                batch = itemRepository.findSearchDocumentsAfter(afterId, PageRequest.of(0, buildBatchSize));
+                for (ItemSearchDocument document : batch) {
+                    indexFromBuild(document);
+                }
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).id();
+                }
+            } while (batch.size() == buildBatchSize);
+
+            lock.writeLock().lock();
+            try {
+                ready = true;
+                changedDuringBuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Item search index built with {} items ({} available) and {} terms in {} ms",
+                ordinalsByItemId.size(), size(), postings.size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            logger.error("Failed to build the item search index; search will keep using SQL", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        Item item = event.item();
+        boolean remove = event.type() == ItemChangedEvent.ChangeType.DELETED;
+        boolean isAvailable = Boolean.TRUE.equals(item.getAvailable());
+        ItemSearchDocument document = remove ? null : new ItemSearchDocument(item.getId(), item.getName(),
+            item.getCategory(), item.getSubcategory(), isAvailable ? item.getDescription() : null, item.getLocation(),
+            item.getPrice(), isAvailable, item.getBoosted(), item.getBoostedUntil(), item.getCreatedAt());
+
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                // The build may still be holding an older copy of this item; make sure it does not win.
+                changedDuringBuild.add(event.itemId());
+            }
+            if (remove) {
+                removeLocked(event.itemId());
+            } else {
+                putLocked(document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * The number of searchable, i.e. available, items.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return available.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ordinals handed out so far, including free ones waiting to be reused.
+     */
+    int ordinalCount() {
+        lock.readLock().lock();
+        try {
+            return itemIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of items matching every term of the query, most relevant first. Each query
+     * term matches indexed terms it is a prefix of; a term matching nothing is replaced by its
+     * closest known spelling, if any. Empty if the index is not ready yet or the query has no terms.
+     */
+    public Optional<Hits> search(String query, int offset, int limit) {
+        return search(query, offset, limit, false);
+    }
+
+    /**
+     * Like {@link #search(String, int, int)}, and if {@code withFacets} is set also counts the
+     * facet values of all matching items.
+     */
+    public Optional<Hits> search(String query, int offset, int limit, boolean withFacets) {
+        List<String> queryTerms = new ArrayList<>(TextTokenizer.distinctTokens(query));
+        if (!ready || queryTerms.isEmpty()) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            String suggestion = correctSpelling(queryTerms);
+            int documentCount = available.cardinality();
+            double averageLength = documentCount > 0 ? totalLength / documentCount : 0;
+
+            // Rarest term first, so the candidate set starts small and only shrinks.
+            List<TermPostings> termPostings = new ArrayList<>();
+            for (String queryTerm : queryTerms) {
+                termPostings.add(new TermPostings(queryTerm, postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false)));
+            }
+            termPostings.sort(Comparator.comparingLong(TermPostings::size));
+
+            Matches matches = null;
+            for (TermPostings term : termPostings) {
+                matches = matches == null
+                    ? scoreTerm(term, documentCount, averageLength)
+                    : intersect(matches, term, documentCount, averageLength);
+                if (matches.size() == 0) {
+                    return Optional.of(new Hits(List.of(), 0, suggestion, withFacets ? countFacets(new BitSet()) : null));
+                }
+            }
+
+            long now = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+            Matches ranked = matches;
+            TopK topK = new TopK((int) Math.min((long) Math.max(offset, 0) + Math.max(limit, 0), Integer.MAX_VALUE),
+                (a, b) -> compareRank(ranked, a, b));
+            for (int i = 0; i < matches.size(); i++) {
+                if (boostedUntil[matches.ordinals()[i]] > now) {
+                    matches.scores()[i] *= boostMultiplier;
+                }
+                topK.offer(i);
+            }
+
+            int[] top = topK.toSortedArray();
+            List<String> page = new ArrayList<>();
+            for (int i = Math.max(offset, 0); i < top.length; i++) {
+                page.add(itemIds.get(matches.ordinals()[top[i]]));
+            }
+            return Optional.of(new Hits(page, matches.size(), suggestion, withFacets ? countFacets(matches.toBitSet()) : null));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces, in place, query terms that match no indexed term with their closest known
+     * spelling. Returns the corrected query, or {@code null} if nothing was corrected.
+     */
+    private String correctSpelling(List<String> queryTerms) {
+        boolean corrected = false;
+        for (int i = 0; i < queryTerms.size(); i++) {
+            String queryTerm = queryTerms.get(i);
+            if (!postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false).isEmpty()) {
+                continue;
+            }
+
+            Optional<String> closest = vocabulary.closest(queryTerm, fuzzyMinSimilarity);
+            if (closest.isPresent()) {
+                queryTerms.set(i, closest.get());
+                corrected = true;
+            }
+        }
+        return corrected ? String.join(" ", queryTerms) : null;
+    }
+
+    /**
+     * Facet counts for the items of a category, optionally narrowed to a subcategory. The
+     * availability facet counts every item; the others count available items only, like the
+     * category listing itself. Empty if the index is not ready yet.
+     */
+    public Optional<Map<String, Map<String, Integer>>> categoryFacets(String category, String subcategory) {
+        if (!ready) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            BitSet inCategory = facets.bitmap(CATEGORY, category);
+            if (subcategory != null) {
+                inCategory.and(facets.bitmap(SUBCATEGORY, subcategory));
+            }
+            Map<String, Integer> availability = availabilityCounts(inCategory);
+            inCategory.and(available);
+
+            Map<String, Map<String, Integer>> counts = countFacets(inCategory);
+            counts.put(FACET_AVAILABILITY, availability);
+            return Optional.of(counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<String, Map<String, Integer>> countFacets(BitSet base) {
+        Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+        counts.put(FACET_CATEGORY, facets.counts(CATEGORY, base, MAX_FACET_VALUES));
+        counts.put(FACET_SUBCATEGORY, facets.counts(SUBCATEGORY, base, MAX_FACET_VALUES));
+        counts.put(FACET_LOCATION, facets.counts(LOCATION, base, MAX_FACET_VALUES));
+
+        Map<String, Integer> byBand = facets.counts(PRICE, base, priceBandLabels.length);
+        Map<String, Integer> priceBands = new LinkedHashMap<>();
+        for (String label : priceBandLabels) {
+            if (byBand.containsKey(label)) {
+                priceBands.put(label, byBand.get(label));
+            }
+        }
+        counts.put(FACET_PRICE, priceBands);
+        counts.put(FACET_AVAILABILITY, availabilityCounts(base));
+        return counts;
+    }
+
+    private Map<String, Integer> availabilityCounts(BitSet base) {
+        Map<String, Integer> counts = facets.counts(AVAILABILITY, base, 2);
+        Map<String, Integer> availability = new LinkedHashMap<>();
+        availability.put(AVAILABLE, counts.getOrDefault(AVAILABLE, 0));
+        availability.put(UNAVAILABLE, counts.getOrDefault(UNAVAILABLE, 0));
+        return availability;
+    }
+
+    /**
+     * The items matching one query term, i.e. any indexed term it is a prefix of, by ascending
+     * ordinal. An item matching several expansions keeps its best score.
+     */
+    private Matches scoreTerm(TermPostings term, int documentCount, double averageLength) {
+        if (term.expansions().size() == 1) {
+            Map.Entry<String, PostingList> entry = term.expansions().entrySet().iterator().next();
+            PostingList postingList = entry.getValue();
+            double matchWeight = term.matchWeight(entry.getKey());
+            double idf = idf(postingList, documentCount);
+            int[] ordinals = new int[postingList.size()];
+            float[] scores = new float[postingList.size()];
+            for (int i = 0; i < postingList.size(); i++) {
+                ordinals[i] = postingList.ordinalAt(i);
+                scores[i] = score(ordinals[i], postingList.frequencyAt(i), matchWeight, idf, averageLength);
+            }
+            return new Matches(ordinals, scores, ordinals.length);
+        }
+
+        // Ordinal in the high half, score bits in the low half: scores are positive, so their bits
+        // sort like the floats and a plain sort orders by ordinal, then score.
+        long[] packed = new long[(int) term.size()];
+        int count = 0;
+        for (Map.Entry<String, PostingList> entry : term.expansions().entrySet()) {
+            PostingList postingList = entry.getValue();
+            double matchWeight = term.matchWeight(entry.getKey());
+            double idf = idf(postingList, documentCount);
+            for (int i = 0; i < postingList.size(); i++) {
+                int ordinal = postingList.ordinalAt(i);
+                float score = score(ordinal, postingList.frequencyAt(i), matchWeight, idf, averageLength);
+                packed[count++] = ((long) ordinal << 32) | (Float.floatToRawIntBits(score) & 0xFFFFFFFFL);
+            }
+        }
+        Arrays.sort(packed, 0, count);
+
+        int[] ordinals = new int[count];
+        float[] scores = new float[count];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            int ordinal = (int) (packed[i] >>> 32);
+            float score = Float.intBitsToFloat((int) packed[i]);
+            if (size > 0 && ordinals[size - 1] == ordinal) {
+                scores[size - 1] = score;
+            } else {
+                ordinals[size] = ordinal;
+                scores[size++] = score;
+            }
+        }
+        return new Matches(ordinals, scores, size);
+    }
+
+    /**
+     * Keeps the candidates that also match the query term, adding the term's score. Few
+     * candidates are looked up in the term's posting lists; otherwise the two are merged.
+     */
+    private Matches intersect(Matches candidates, TermPostings term, int documentCount, double averageLength) {
+        int[] ordinals = new int[candidates.size()];
+        float[] scores = new float[candidates.size()];
+        int size = 0;
+
+        if ((long) candidates.size() * PROBE_COST < term.size()) {
+            for (int i = 0; i < candidates.size(); i++) {
+                int ordinal = candidates.ordinals()[i];
+                float best = 0;
+                boolean found = false;
+                for (Map.Entry<String, PostingList> entry : term.expansions().entrySet()) {
+                    PostingList postingList = entry.getValue();
+                    int index = postingList.indexOf(ordinal);
+                    if (index >= 0) {
+                        double idf = idf(postingList, documentCount);
+                        best = Math.max(best, score(ordinal, postingList.frequencyAt(index), term.matchWeight(entry.getKey()), idf, averageLength));
+                        found = true;
+                    }
+                }
+                if (found) {
+                    ordinals[size] = ordinal;
+                    scores[size++] = candidates.scores()[i] + best;
+                }
+            }
+            return new Matches(ordinals, scores, size);
+        }
+
+        Matches termMatches = scoreTerm(term, documentCount, averageLength);
+        int i = 0;
+        int j = 0;
+        while (i < candidates.size() && j < termMatches.size()) {
+            int a = candidates.ordinals()[i];
+            int b = termMatches.ordinals()[j];
+            if (a < b) {
+                i++;
+            } else if (a > b) {
+                j++;
+            } else {
+                ordinals[size] = a;
+                scores[size++] = candidates.scores()[i++] + termMatches.scores()[j++];
+            }
+        }
+        return new Matches(ordinals, scores, size);
+    }
+
+    private float score(int ordinal, double frequency, double matchWeight, double idf, double averageLength) {
+        double lengthRatio = averageLength > 0 ? lengths[ordinal] / averageLength : 1;
+        double saturation = frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * lengthRatio));
+        return (float) (matchWeight * idf * saturation);
+    }
+
+    private static double idf(PostingList postingList, int documentCount) {
+        return Math.log(1 + (documentCount - postingList.size() + 0.5) / (postingList.size() + 0.5));
+    }
+
+    private int compareRank(Matches matches, int a, int b) {
+        int byScore = Float.compare(matches.scores()[a], matches.scores()[b]);
+        if (byScore != 0) {
+            return byScore;
+        }
+        int ordinalA = matches.ordinals()[a];
+        int ordinalB = matches.ordinals()[b];
+        int byCreatedAt = Long.compare(createdAt[ordinalA], createdAt[ordinalB]);
+        return byCreatedAt != 0 ? byCreatedAt : Integer.compare(ordinalA, ordinalB);
+    }
+
+    private void indexFromBuild(ItemSearchDocument document) {
+        lock.writeLock().lock();
+        try {
+            if (!changedDuringBuild.contains(document.id())) {
+                putLocked(document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putLocked(ItemSearchDocument document) {
+        String itemId = document.id();
+        Integer existing = ordinalsByItemId.get(itemId);
+        int ordinal;
+        if (existing != null) {
+            ordinal = existing;
+            removeTermsLocked(ordinal);
+        } else if (!freeOrdinals.isEmpty()) {
+            ordinal = freeOrdinals.pop();
+            itemIds.set(ordinal, itemId);
+            ordinalsByItemId.put(itemId, ordinal);
+        } else {
+            ordinal = itemIds.size();
+            itemIds.add(itemId);
+            documentTerms.add(null);
+            documentVocabulary.add(null);
+            ordinalsByItemId.put(itemId, ordinal);
+            ensureCapacity(ordinal + 1);
+        }
+
+        boolean isAvailable = Boolean.TRUE.equals(document.available());
+        facets.put(ordinal, new String[] {
+            trimToNull(document.category()),
+            trimToNull(document.subcategory()),
+            trimToNull(document.location()),
+            priceBand(document.price()),
+            isAvailable ? AVAILABLE : UNAVAILABLE
+        });
+        LocalDateTime boostEnd = Boolean.TRUE.equals(document.boosted()) ? document.boostedUntil() : null;
+        boostedUntil[ordinal] = boostEnd != null ? boostEnd.toEpochSecond(ZoneOffset.UTC) : 0L;
+        createdAt[ordinal] = document.createdAt() != null ? document.createdAt().toEpochSecond(ZoneOffset.UTC) : 0L;
+        if (!isAvailable) {
+            available.clear(ordinal);
+            return;
+        }
+        available.set(ordinal);
+
+        String name = document.name();
+        String subcategory = document.subcategory();
+        Map<String, Float> frequencies = new HashMap<>();
+        List<String> nameTerms = TextTokenizer.tokenize(name);
+        List<String> subcategoryTerms = TextTokenizer.tokenize(subcategory);
+        List<String> descriptionTerms = TextTokenizer.tokenize(document.description());
+        nameTerms.forEach(term -> frequencies.merge(term, nameWeight, Float::sum));
+        subcategoryTerms.forEach(term -> frequencies.merge(term, 1f, Float::sum));
+        descriptionTerms.forEach(term -> frequencies.merge(term, 1f, Float::sum));
+
+        frequencies.forEach((term, frequency) -> postings.computeIfAbsent(term, key -> new PostingList()).put(ordinal, frequency));
+        documentTerms.set(ordinal, frequencies.keySet().toArray(String[]::new));
+        String[] vocabularyTerms = TextTokenizer.distinctTokens(name, subcategory).toArray(String[]::new);
+        for (String term : vocabularyTerms) {
+            vocabulary.add(term);
+        }
+        documentVocabulary.set(ordinal, vocabularyTerms);
+        lengths[ordinal] = nameTerms.size() * nameWeight + subcategoryTerms.size() + descriptionTerms.size();
+        totalLength += lengths[ordinal];
+    }
+
+    private void removeLocked(String itemId) {
+        Integer ordinal = ordinalsByItemId.remove(itemId);
+        if (ordinal != null) {
+            removeTermsLocked(ordinal);
+            facets.remove(ordinal);
+            available.clear(ordinal);
+            itemIds.set(ordinal, null);
+            boostedUntil[ordinal] = 0L;
+            createdAt[ordinal] = 0L;
+            freeOrdinals.push(ordinal);
+        }
+    }
+
+    private void removeTermsLocked(int ordinal) {
+        String[] terms = documentTerms.get(ordinal);
+        if (terms == null) {
+            return;
+        }
+
+        for (String term : terms) {
+            PostingList postingList = postings.get(term);
+            if (postingList != null) {
+                postingList.remove(ordinal);
+                if (postingList.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        for (String term : documentVocabulary.get(ordinal)) {
+            vocabulary.remove(term);
+        }
+        totalLength -= lengths[ordinal];
+        lengths[ordinal] = 0;
+        documentTerms.set(ordinal, null);
+        documentVocabulary.set(ordinal, null);
+    }
+
+    private String priceBand(BigDecimal price) {
+        if (price == null) {
+            return null;
+        }
+        for (int i = 0; i < priceBandBounds.length; i++) {
+            if (price.compareTo(priceBandBounds[i]) < 0) {
+                return priceBandLabels[i];
+            }
+        }
+        return priceBandLabels[priceBandBounds.length];
+    }
+
+    private static String[] priceBandLabels(BigDecimal[] bounds) {
+        String[] labels = new String[bounds.length + 1];
+        String lower = "0";
+        for (int i = 0; i < bounds.length; i++) {
+            String upper = bounds[i].stripTrailingZeros().toPlainString();
+            labels[i] = lower + "-" + upper;
+            lower = upper;
+        }
+        labels[bounds.length] = lower + "+";
+        return labels;
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        return value.trim();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > createdAt.length) {
+            int newLength = Math.max(capacity, createdAt.length * 2);
+            lengths = Arrays.copyOf(lengths, newLength);
+            boostedUntil = Arrays.copyOf(boostedUntil, newLength);
+            createdAt = Arrays.copyOf(createdAt, newLength);
+        }
+    }
+
+    /**
+     * A page of matching item ids. {@code suggestion} is the spelling-corrected query when one or
+     * more terms were corrected, otherwise {@code null}. {@code facets} maps each facet name to
+     * value counts over all matches, or is {@code null} if they were not asked for.
+     */
+    public record Hits(List<String> itemIds, int total, String suggestion, Map<String, Map<String, Integer>> facets) {}
+
+    /**
+     * A query term and the indexed terms it is a prefix of, which include the term itself if indexed.
+     */
+    private record TermPostings(String queryTerm, SortedMap<String, PostingList> expansions, long size) {
+
+        TermPostings(String queryTerm, SortedMap<String, PostingList> expansions) {
+            this(queryTerm, expansions, expansions.values().stream().mapToLong(PostingList::size).sum());
+        }
+
+        double matchWeight(String term) {
+            return term.equals(queryTerm) ? 1.0 : PREFIX_MATCH_WEIGHT;
+        }
+    }
+
+    /**
+     * The first {@code size} entries are matching ordinals in ascending order and their scores.
+     */
+    private record Matches(int[] ordinals, float[] scores, int size) {
+
+        BitSet toBitSet() {
+            BitSet bits = new BitSet();
+            for (int i = 0; i < size; i++) {
+                bits.set(ordinals[i]);
+            }
+            return bits;
+        }
+    }
+}
@@ -0,0 +1,440 @@
+package com.renteasy.search;
+
+import com.renteasy.model.Item;
+import com.renteasy.model.ItemTrendingScore;
+import com.renteasy.repository.ItemTrendingScoreRepository;
+import com.renteasy.service.BookingCreatedEvent;
+import com.renteasy.service.ItemChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trending items by exponentially decayed activity. Every view adds 1 and every booking
+ * request {@code app.trending.booking-weight} to an item's score in each {@link Window}, and
+ * that contribution decays by a factor of e per window length, so recent activity outranks a
+ * large but old view count. Scores are stored multiplied by {@code e^((t - landmark) / window)}
+ * instead of being decayed in place: every score then decays at the same rate, the order of
+ * items only changes when one of them gets activity, and a bounded top list updated on each
+ * event stays correct without ever touching the other items. Pages are read straight off that
+ * list. Only available items are scored. Scores are persisted every
+ * {@code app.trending.persist-interval-ms} and loaded in the background at startup; until
+ * then, queries return empty so callers fall back to SQL, and nothing is persisted so that
+ * stored scores not yet loaded are not overwritten.
+ */
+@Component
+public class ItemTrendingIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemTrendingIndex.class);
+
+    // Below this, decayed to now, an item is dropped from memory and from the table.
+    private static final double MIN_SCORE = 0.01;
+    // Rebase scores onto a new landmark well before e^((t - landmark) / window) could overflow.
+    private static final double MAX_WINDOWS_SINCE_LANDMARK = 50;
+
+    private static final String UPDATE_SQL =
+        "UPDATE item_trending_scores SET day_score = ?, week_score = ?, scored_at = ? WHERE item_id = ?";
+    // Skips items deleted since their last activity instead of failing the whole batch on the foreign key.
+    private static final String INSERT_SQL =
+        "INSERT INTO item_trending_scores (item_id, day_score, week_score, scored_at) SELECT id, ?, ?, ? FROM items WHERE id = ?";
+    private static final String DELETE_SQL = "DELETE FROM item_trending_scores WHERE item_id = ?";
+
+    private static final Comparator<Entry> BEST_FIRST = Comparator
+        .comparingDouble(Entry::score).reversed()
+        .thenComparing(Entry::itemId);
+
+    public enum Window {
+        DAY("24h", Duration.ofHours(24)),
+        WEEK("7d", Duration.ofDays(7));
+
+        private final String param;
+        private final long millis;
+
+        Window(String param, Duration length) {
+            this.param = param;
+            this.millis = length.toMillis();
+        }
+
+        public String param() {
+            return param;
+        }
+
+        public static Optional<Window> fromParam(String param) {
+            for (Window window : values()) {
+                if (window.param.equalsIgnoreCase(param)) {
+                    return Optional.of(window);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    private final ItemTrendingScoreRepository scoreRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int buildBatchSize;
+    private final int topSize;
+    private final double bookingWeight;
+    private final long persistIntervalMillis;
+
+    private final Map<Window, Ranking> rankings = new EnumMap<>(Window.class);
+    private final Set<String> dirty = new HashSet<>();
+    private final Set<String> dropped = new HashSet<>();
+    private final Set<String> removedDuringBuild = new HashSet<>();
+    private final ScheduledExecutorService persister = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "item-trending-persister");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean ready;
+
+    public ItemTrendingIndex(ItemTrendingScoreRepository scoreRepository,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.search.build-batch-size:500}") int buildBatchSize,
+                             @Value("${app.trending.top-size:500}") int topSize,
+                             @Value("${app.trending.booking-weight:5}") double bookingWeight,
+                             @Value("${app.trending.persist-interval-ms:60000}") long persistIntervalMillis) {
+        this.scoreRepository = scoreRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.buildBatchSize = buildBatchSize;
+        this.topSize = topSize;
+        this.bookingWeight = bookingWeight;
+        this.persistIntervalMillis = persistIntervalMillis;
+        long now = System.currentTimeMillis();
+        for (Window window : Window.values()) {
+            rankings.put(window, new Ranking(window.millis, now));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread loader = new Thread(this::load, "item-trending-index");
+        loader.setDaemon(true);
+        loader.start();
+        persister.scheduleWithFixedDelay(this::persistQuietly, persistIntervalMillis, persistIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void load() {
+        long started = System.nanoTime();
+        try {
+            String afterId = "";
+            List<ItemTrendingScore> batch;
+            do {
+                batch = scoreRepository.findAvailableAfter(afterId, PageRequest.of(0, buildBatchSize));
+                synchronized (this) {
+                    for (ItemTrendingScore score : batch) {
+                        if (!removedDuringBuild.contains(score.getItemId())) {
+                            long scoredAt = toMillis(score.getScoredAt());
+                            rankings.get(Window.DAY).add(score.getItemId(), score.getDayScore(), scoredAt);
+                            rankings.get(Window.WEEK).add(score.getItemId(), score.getWeekScore(), scoredAt);
+                        }
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getItemId();
+                }
+            } while (batch.size() == buildBatchSize);
+
+            synchronized (this) {
+                ready = true;
+                removedDuringBuild.clear();
+            }
+            logger.info("Item trending index loaded with {} items in {} ms",
+                size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            logger.error("Failed to load the item trending index; popular items will use all-time views", e);
+        }
+    }
+
+    public void recordView(String itemId) {
+        record(itemId, 1.0, System.currentTimeMillis());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingCreated(BookingCreatedEvent event) {
+        record(event.itemId(), bookingWeight, System.currentTimeMillis());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        Item item = event.item();
+        if (event.type() == ItemChangedEvent.ChangeType.DELETED || !Boolean.TRUE.equals(item.getAvailable())) {
+            remove(event.itemId());
+        }
+    }
+
+    synchronized void record(String itemId, double weight, long at) {
+        for (Ranking ranking : rankings.values()) {
+            ranking.add(itemId, weight, at);
+        }
+        dirty.add(itemId);
+        dropped.remove(itemId);
+    }
+
+    synchronized void remove(String itemId) {
+        if (!ready) {
+            removedDuringBuild.add(itemId);
+        }
+        for (Ranking ranking : rankings.values()) {
+            ranking.remove(itemId);
+        }
+        dirty.remove(itemId);
+        dropped.add(itemId);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public synchronized int size() {
+        return rankings.get(Window.WEEK).scores.size();
+    }
+
+    /**
+     * Up to {@code limit} item ids from position {@code offset} of the window's trending list,
+     * with the list's length, or empty while the index is loading. Costs O(offset + limit).
+     */
+    public Optional<Ranked> top(Window window, int offset, int limit) {
+        if (!ready) {
+            return Optional.empty();
+        }
+
+        synchronized (this) {
+            TreeSet<Entry> top = rankings.get(window).top;
+            List<String> itemIds = new ArrayList<>(Math.min(limit, top.size()));
+            Iterator<Entry> entries = top.iterator();
+            for (int skipped = 0; skipped < offset && entries.hasNext(); skipped++) {
+                entries.next();
+            }
+            while (itemIds.size() < limit && entries.hasNext()) {
+                itemIds.add(entries.next().itemId());
+            }
+            return Optional.of(new Ranked(itemIds, top.size()));
+        }
+    }
+
+    /**
+     * The item's score in the window, decayed to {@code at}.
+     */
+    synchronized double score(Window window, String itemId, long at) {
+        return rankings.get(window).scoreAt(itemId, at);
+    }
+
+    /**
+     * Writes the scores of items with new activity, decayed to now, drops items whose scores
+     * have decayed to nothing and deletes the rows of dropped items. Items that no longer exist
+     * are dropped from memory instead of written. Does nothing until the stored scores are loaded.
+     */
+    public void persist() {
+        if (!ready) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        LocalDateTime scoredAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(now), ZoneId.systemDefault());
+        List<ItemTrendingScore> rows = new ArrayList<>();
+        Set<String> toDelete;
+        synchronized (this) {
+            for (String itemId : new ArrayList<>(rankings.get(Window.WEEK).scores.keySet())) {
+                if (Math.max(score(Window.DAY, itemId, now), score(Window.WEEK, itemId, now)) < MIN_SCORE) {
+                    remove(itemId);
+                }
+            }
+            for (String itemId : dirty) {
+                rows.add(new ItemTrendingScore(itemId, score(Window.DAY, itemId, now), score(Window.WEEK, itemId, now), scoredAt));
+            }
+            toDelete = new HashSet<>(dropped);
+            dirty.clear();
+            dropped.clear();
+        }
+        if (rows.isEmpty() && toDelete.isEmpty()) {
+            return;
+        }
+
+        List<String> missing = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(rows, toDelete, missing));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                rows.forEach(row -> {
+                    if (!dropped.contains(row.getItemId())) {
+                        dirty.add(row.getItemId());
+                    }
+                });
+                toDelete.forEach(itemId -> {
+                    if (!dirty.contains(itemId)) {
+                        dropped.add(itemId);
+                    }
+                });
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            for (String itemId : missing) {
+                if (!dirty.contains(itemId)) {
+                    remove(itemId);
+                    dropped.remove(itemId);
+                }
+            }
+        }
+    }
+
+    private void write(List<ItemTrendingScore> rows, Set<String> toDelete, List<String> missing) {
+        if (!toDelete.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_SQL, toDelete.stream().map(itemId -> new Object[] {itemId}).toList());
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> args = rows.stream()
+            .map(row -> new Object[] {row.getDayScore(), row.getWeekScore(), Timestamp.valueOf(row.getScoredAt()), row.getItemId()})
+            .toList();
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, args);
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < args.size(); i++) {
+            if (updated[i] == 0) {
+                inserts.add(args.get(i));
+            }
+        }
+        if (inserts.isEmpty()) {
+            return;
+        }
+        int[] inserted = jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+        for (int i = 0; i < inserts.size(); i++) {
+            if (inserted[i] == 0) {
+                missing.add((String) inserts.get(i)[3]);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        persister.shutdown();
+        try {
+            persister.awaitTermination(persistIntervalMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        persistQuietly();
+    }
+
+    private void persistQuietly() {
+        try {
+            persist();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to persist trending scores; they will be retried", e);
+        }
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    public record Ranked(List<String> itemIds, int total) {}
+
+    private record Entry(String itemId, double score) {}
+
+    /**
+     * Scores for one window, relative to a landmark time, and the best {@code topSize} of them.
+     * Because every score decays at the same rate, an item outside the top list can only pass
+     * one inside it by getting activity itself, which {@link #add} checks.
+     */
+    private final class Ranking {
+        private final double windowMillis;
+        private long landmark;
+        private final Map<String, Double> scores = new HashMap<>();
+        private final TreeSet<Entry> top = new TreeSet<>(BEST_FIRST);
+
+        private Ranking(long windowMillis, long landmark) {
+            this.windowMillis = windowMillis;
+            this.landmark = landmark;
+        }
+
+        private void add(String itemId, double weight, long at) {
+            if ((at - landmark) / windowMillis > MAX_WINDOWS_SINCE_LANDMARK) {
+                rebase(at);
+            }
+            double previous = scores.getOrDefault(itemId, 0.0);
+            double updated = previous + weight * Math.exp((at - landmark) / windowMillis);
+            scores.put(itemId, updated);
+
+            Entry entry = new Entry(itemId, updated);
+            boolean wasTop = top.remove(new Entry(itemId, previous));
+            if (wasTop || top.size() < topSize || BEST_FIRST.compare(entry, top.last()) < 0) {
+                top.add(entry);
+                if (top.size() > topSize) {
+                    top.pollLast();
+                }
+            }
+        }
+
+        private void remove(String itemId) {
+            Double previous = scores.remove(itemId);
+            if (previous != null && top.remove(new Entry(itemId, previous))) {
+                refill();
+            }
+        }
+
+        private double scoreAt(String itemId, long at) {
+            Double score = scores.get(itemId);
+            return score != null ? score * Math.exp((landmark - at) / windowMillis) : 0.0;
+        }
+
+        /**
+         * Puts the best item outside the top list into it, after one was removed.
+         */
+        private void refill() {
+            Entry best = null;
+            for (Map.Entry<String, Double> score : scores.entrySet()) {
+                Entry candidate = new Entry(score.getKey(), score.getValue());
+                if (!top.contains(candidate) && (best == null || BEST_FIRST.compare(candidate, best) < 0)) {
+                    best = candidate;
+                }
+            }
+            if (best != null) {
+                top.add(best);
+            }
+        }
+
+        private void rebase(long newLandmark) {
+            double factor = Math.exp((landmark - newLandmark) / windowMillis);
+            scores.replaceAll((itemId, score) -> score * factor);
+            List<Entry> rescaled = top.stream().map(entry -> new Entry(entry.itemId(), scores.get(entry.itemId()))).toList();
+            top.clear();
+            top.addAll(rescaled);
+            landmark = newLandmark;
+        }
+    }
+}
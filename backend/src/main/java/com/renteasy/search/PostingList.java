@@ -0,0 +1,67 @@
+package com.renteasy.search;
+
+import java.util.Arrays;
+
+/**
+ * Sorted, duplicate-free list of document ordinals for one term, each with the term's weighted
+ * frequency in that document. Backed by growable parallel arrays.
+ */
+final class PostingList {
+
+    private int[] ordinals = new int[4];
+    private float[] frequencies = new float[4];
+    private int size;
+
+    void put(int ordinal, float frequency) {
+        int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+        if (index >= 0) {
+            frequencies[index] = frequency;
+            return;
+        }
+
+        int insertAt = -index - 1;
+        if (size == ordinals.length) {
+            ordinals = Arrays.copyOf(ordinals, size * 2);
+            frequencies = Arrays.copyOf(frequencies, size * 2);
+        }
+        System.arraycopy(ordinals, insertAt, ordinals, insertAt + 1, size - insertAt);
+        System.arraycopy(frequencies, insertAt, frequencies, insertAt + 1, size - insertAt);
+        ordinals[insertAt] = ordinal;
+        frequencies[insertAt] = frequency;
+        size++;
+    }
+
+    void remove(int ordinal) {
+        int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+        if (index < 0) {
+            return;
+        }
+
+        System.arraycopy(ordinals, index + 1, ordinals, index, size - index - 1);
+        System.arraycopy(frequencies, index + 1, frequencies, index, size - index - 1);
+        size--;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Position of the ordinal in the list, or a negative number if it is not there.
+     */
+    int indexOf(int ordinal) {
+        return Arrays.binarySearch(ordinals, 0, size, ordinal);
+    }
+
+    int ordinalAt(int index) {
+        return ordinals[index];
+    }
+
+    float frequencyAt(int index) {
+        return frequencies[index];
+    }
+}
@@ -0,0 +1,51 @@
+package com.renteasy.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits text into lower-cased runs of letters and digits. Used for both indexing and queries
+ * so that the two always agree on what a term is.
+ */
+public final class TextTokenizer {
+
+    private TextTokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+
+        String lowerCased = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i < lowerCased.length(); ) {
+            int codePoint = lowerCased.codePointAt(i);
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                tokens.add(lowerCased.substring(start, i));
+                start = -1;
+            }
+            i += Character.charCount(codePoint);
+        }
+        if (start >= 0) {
+            tokens.add(lowerCased.substring(start));
+        }
+        return tokens;
+    }
+
+    public static Set<String> distinctTokens(String... texts) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String text : texts) {
+            tokens.addAll(tokenize(text));
+        }
+        return tokens;
+    }
+}
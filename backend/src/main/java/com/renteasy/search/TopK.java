@@ -0,0 +1,87 @@
+package com.renteasy.search;
+
+/**
+ * Keeps the best {@code k} ordinals seen so far in a bounded min-heap, so selecting a page of
+ * results costs O(n log k) instead of sorting every match.
+ */
+final class TopK {
+
+    /**
+     * Orders ordinals from worst to best: negative if {@code a} ranks below {@code b}.
+     */
+    @FunctionalInterface
+    interface Ranking {
+        int compare(int a, int b);
+    }
+
+    private final Ranking ranking;
+    private final int[] heap;
+    private int size;
+
+    TopK(int k, Ranking ranking) {
+        this.ranking = ranking;
+        this.heap = new int[Math.max(k, 0)];
+    }
+
+    void offer(int ordinal) {
+        if (heap.length == 0) {
+            return;
+        }
+        if (size < heap.length) {
+            heap[size] = ordinal;
+            siftUp(size++);
+        } else if (ranking.compare(ordinal, heap[0]) > 0) {
+            heap[0] = ordinal;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Drains the heap, returning the kept ordinals best first.
+     */
+    int[] toSortedArray() {
+        int[] sorted = new int[size];
+        for (int i = sorted.length - 1; i >= 0; i--) {
+            sorted[i] = heap[0];
+            heap[0] = heap[--size];
+            siftDown(0);
+        }
+        return sorted;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (ranking.compare(heap[index], heap[parent]) >= 0) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = index * 2 + 1;
+            int right = left + 1;
+            int smallest = index;
+            if (left < size && ranking.compare(heap[left], heap[smallest]) < 0) {
+                smallest = left;
+            }
+            if (right < size && ranking.compare(heap[right], heap[smallest]) < 0) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+    }
+}
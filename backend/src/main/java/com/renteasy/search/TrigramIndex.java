@@ -0,0 +1,109 @@
+package com.renteasy.search;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Trigram index over a reference-counted vocabulary of terms, used to find the closest known
+ * term to a misspelled one. Similarity is the Jaccard overlap of padded trigram sets, the same
+ * measure as PostgreSQL's pg_trgm. Not thread-safe; {@link ItemSearchIndex} guards it with its
+ * own lock.
+ */
+final class TrigramIndex {
+
+    private static final int MIN_TERM_LENGTH = 3;
+
+    private final Map<String, Integer> documentCounts = new HashMap<>();
+    private final Map<String, Integer> trigramCounts = new HashMap<>();
+    private final Map<String, Set<String>> termsByTrigram = new HashMap<>();
+
+    void add(String term) {
+        if (term.length() < MIN_TERM_LENGTH) {
+            return;
+        }
+        if (documentCounts.merge(term, 1, Integer::sum) == 1) {
+            Set<String> trigrams = trigrams(term);
+            trigramCounts.put(term, trigrams.size());
+            for (String trigram : trigrams) {
+                termsByTrigram.computeIfAbsent(trigram, key -> new HashSet<>()).add(term);
+            }
+        }
+    }
+
+    void remove(String term) {
+        Integer count = documentCounts.get(term);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            documentCounts.put(term, count - 1);
+            return;
+        }
+
+        documentCounts.remove(term);
+        trigramCounts.remove(term);
+        for (String trigram : trigrams(term)) {
+            Set<String> terms = termsByTrigram.get(trigram);
+            if (terms != null) {
+                terms.remove(term);
+                if (terms.isEmpty()) {
+                    termsByTrigram.remove(trigram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the known term most similar to {@code term} with a similarity of at least
+     * {@code minSimilarity}, preferring terms used by more items on ties.
+     */
+    Optional<String> closest(String term, double minSimilarity) {
+        if (term.length() < MIN_TERM_LENGTH) {
+            return Optional.empty();
+        }
+
+        Set<String> queryTrigrams = trigrams(term);
+        Map<String, Integer> sharedTrigrams = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            Set<String> terms = termsByTrigram.get(trigram);
+            if (terms != null) {
+                for (String candidate : terms) {
+                    sharedTrigrams.merge(candidate, 1, Integer::sum);
+                }
+            }
+        }
+
+        String best = null;
+        double bestSimilarity = minSimilarity;
+        int bestCount = 0;
+        for (Map.Entry<String, Integer> entry : sharedTrigrams.entrySet()) {
+            String candidate = entry.getKey();
+            int shared = entry.getValue();
+            double similarity = (double) shared / (queryTrigrams.size() + trigramCounts.get(candidate) - shared);
+            int count = documentCounts.get(candidate);
+            if (similarity > bestSimilarity || (similarity == bestSimilarity && (best == null || count > bestCount))) {
+                best = candidate;
+                bestSimilarity = similarity;
+                bestCount = count;
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    int size() {
+        return documentCounts.size();
+    }
+
+    static Set<String> trigrams(String term) {
+        String padded = "  " + term + " ";
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+}
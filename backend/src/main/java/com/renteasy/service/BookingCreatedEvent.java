@@ -0,0 +1,6 @@
+package com.renteasy.service;
+
+/**
+ * Published by {@link BookingService} when a booking request is created.
+ */
+public record BookingCreatedEvent(String bookingId, String itemId) {}
@@ -1,6 +1,7 @@
 package com.renteasy.service;
 
 import com.renteasy.dto.BookingRequest;
+import com.renteasy.dto.CursorSlice;
 import com.renteasy.model.Booking;
 import com.renteasy.model.Item;
 import com.renteasy.model.User;
@@ -8,7 +9,10 @@ import com.renteasy.repository.BookingRepository;
 import com.renteasy.repository.ItemRepository;
 import com.renteasy.repository.UserRepository;
 import com.renteasy.util.InputSanitizer;
+import com.renteasy.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -28,6 +32,7 @@ public class BookingService {
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Transactional
     public Booking createBooking(BookingRequest request, String userId) {
@@ -66,6 +71,7 @@ public class BookingService {
         booking.setStatus(Booking.BookingStatus.PENDING);
         
         Booking savedBooking = bookingRepository.save(booking);
+        eventPublisher.publishEvent(new BookingCreatedEvent(savedBooking.getId(), item.getId()));
         
         // Create notification for item owner
         notificationService.createNotification(
@@ -130,6 +136,16 @@ public class BookingService {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
         return bookingRepository.findByUserId(userId, pageable);
     }
+
+    @Transactional(readOnly = true)
+    public CursorSlice<Booking> scrollUserBookings(String userId, String cursor, int size) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        int limit = CursorSlice.clampSize(size);
+        List<Booking> rows = position == null
+            ? bookingRepository.findFeedByUserId(userId, Limit.of(limit + 1))
+            : bookingRepository.findFeedByUserIdAfter(userId, position.dateTimeValue(), position.id(), Limit.of(limit + 1));
+        return CursorSlice.of(rows, limit, booking -> KeysetCursor.encode(booking.getCreatedAt(), booking.getId()));
+    }
     
     @Transactional(readOnly = true)
     public List<Booking> getItemBookings(String itemId) {
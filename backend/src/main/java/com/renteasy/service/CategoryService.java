@@ -0,0 +1,157 @@
+package com.renteasy.service;
+
+import com.renteasy.dto.CategoryDTO;
+import com.renteasy.dto.SubcategoryDTO;
+import com.renteasy.model.Category;
+import com.renteasy.model.Subcategory;
+import com.renteasy.repository.CategoryRepository;
+import com.renteasy.repository.ItemRepository;
+import com.renteasy.repository.SubcategoryRepository;
+import com.renteasy.repository.projection.CategoryItemCount;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The category taxonomy. The categories and subcategories only change through migrations, so
+ * they are read once into an in-memory dictionary that resolves the names and slugs clients
+ * send to their integer ids without touching the database.
+ */
+@Service
+@RequiredArgsConstructor
+public class CategoryService {
+
+    private final CategoryRepository categoryRepository;
+    private final SubcategoryRepository subcategoryRepository;
+    private final ItemRepository itemRepository;
+
+    private volatile Dictionary dictionary;
+
+    /**
+     * The category with this slug or name, ignoring case and surrounding whitespace.
+     */
+    public Optional<CategoryEntry> findCategory(String slugOrName) {
+        if (slugOrName == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(dictionary().categoriesByKey.get(key(slugOrName)));
+    }
+
+    /**
+     * Ids of the subcategories with this name: within {@code category} if given, otherwise in
+     * any category.
+     */
+    public List<Integer> findSubcategoryIds(CategoryEntry category, String name) {
+        List<CategoryEntry> candidates = category != null ? List.of(category) : dictionary().categories;
+        List<Integer> ids = new ArrayList<>();
+        for (CategoryEntry candidate : candidates) {
+            candidate.findSubcategory(name).ifPresent(subcategory -> ids.add(subcategory.id()));
+        }
+        return ids;
+    }
+
+    /**
+     * Resolves the category and optional subcategory of an item being saved; unknown values
+     * are rejected.
+     */
+    public Resolved resolve(String category, String subcategory) {
+        CategoryEntry categoryEntry = findCategory(category)
+            .orElseThrow(() -> new RuntimeException("Unknown category: " + category));
+        if (subcategory == null || subcategory.isBlank()) {
+            return new Resolved(categoryEntry, null);
+        }
+        SubcategoryEntry subcategoryEntry = categoryEntry.findSubcategory(subcategory)
+            .orElseThrow(() -> new RuntimeException(
+                "Unknown subcategory " + subcategory + " for category " + categoryEntry.slug()));
+        return new Resolved(categoryEntry, subcategoryEntry);
+    }
+
+    /**
+     * Every category with its subcategories, in display order, with the number of available
+     * items in each.
+     */
+    @Transactional(readOnly = true)
+    public List<CategoryDTO> getCategoryTree() {
+        Map<Integer, Long> categoryCounts = new HashMap<>();
+        Map<Integer, Long> subcategoryCounts = new HashMap<>();
+        for (CategoryItemCount count : itemRepository.countAvailableByCategory()) {
+            categoryCounts.merge(count.categoryId(), count.count(), Long::sum);
+            if (count.subcategoryId() != null) {
+                subcategoryCounts.merge(count.subcategoryId(), count.count(), Long::sum);
+            }
+        }
+
+        List<CategoryDTO> tree = new ArrayList<>();
+        for (CategoryEntry category : dictionary().categories) {
+            List<SubcategoryDTO> subcategories = category.subcategories().stream()
+                .map(subcategory -> new SubcategoryDTO(subcategory.id(), subcategory.name(),
+                    subcategoryCounts.getOrDefault(subcategory.id(), 0L)))
+                .toList();
+            tree.add(new CategoryDTO(category.id(), category.slug(), category.name(),
+                categoryCounts.getOrDefault(category.id(), 0L), subcategories));
+        }
+        return tree;
+    }
+
+    private Dictionary dictionary() {
+        Dictionary current = dictionary;
+        if (current == null) {
+            synchronized (this) {
+                current = dictionary;
+                if (current == null) {
+                    current = load();
+                    dictionary = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Dictionary load() {
+        Map<Integer, List<SubcategoryEntry>> subcategoriesByCategory = new HashMap<>();
+        for (Subcategory subcategory : subcategoryRepository.findAllByOrderBySortOrderAsc()) {
+            subcategoriesByCategory.computeIfAbsent(subcategory.getCategoryId(), id -> new ArrayList<>())
+                .add(new SubcategoryEntry(subcategory.getId(), subcategory.getName()));
+        }
+
+        List<CategoryEntry> categories = new ArrayList<>();
+        Map<String, CategoryEntry> categoriesByKey = new LinkedHashMap<>();
+        for (Category category : categoryRepository.findAllByOrderBySortOrderAsc()) {
+            CategoryEntry entry = new CategoryEntry(category.getId(), category.getSlug(), category.getName(),
+                List.copyOf(subcategoriesByCategory.getOrDefault(category.getId(), List.of())));
+            categories.add(entry);
+            categoriesByKey.putIfAbsent(key(category.getSlug()), entry);
+            categoriesByKey.putIfAbsent(key(category.getName()), entry);
+        }
+        return new Dictionary(List.copyOf(categories), categoriesByKey);
+    }
+
+    private static String key(String value) {
+        return value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    public record CategoryEntry(int id, String slug, String name, List<SubcategoryEntry> subcategories) {
+
+        public Optional<SubcategoryEntry> findSubcategory(String name) {
+            if (name == null) {
+                return Optional.empty();
+            }
+            String wanted = key(name);
+            return subcategories.stream().filter(subcategory -> key(subcategory.name()).equals(wanted)).findFirst();
+        }
+    }
+
+    public record SubcategoryEntry(int id, String name) {}
+
+    public record Resolved(CategoryEntry category, SubcategoryEntry subcategory) {}
+
+    private record Dictionary(List<CategoryEntry> categories, Map<String, CategoryEntry> categoriesByKey) {}
+}
@@ -0,0 +1,224 @@
+package com.renteasy.service;
+
+import com.renteasy.dto.ItemDTO;
+import com.renteasy.model.Item;
+import com.renteasy.repository.ItemRepository;
+import com.renteasy.repository.projection.ItemSummary;
+import com.renteasy.search.ItemTrendingIndex;
+import com.renteasy.util.ImageUrls;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the detail DTOs of the hottest items in memory so that a burst of reads on one listing
+ * does not reach the database. Every refresh interval the top {@code app.hot-items.cache-size}
+ * items of the {@link HotItemTracker} are loaded in one batch and replace the cached set; at
+ * startup, before any reads are tracked, the set comes from the persisted trending ranking or
+ * failing that the all-time most viewed items. Updates and deletes evict an item until the
+ * next refresh. The images of newly cached items are read once so that their files are in the
+ * OS page cache, from which the image endpoint sends them.
+ */
+@Service
+public class HotItemCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotItemCache.class);
+
+    private final HotItemTracker hotItemTracker;
+    private final ItemTrendingIndex itemTrendingIndex;
+    private final ItemRepository itemRepository;
+    private final ImageStorageService imageStorageService;
+    private final TransactionTemplate transactionTemplate;
+    private final int cacheSize;
+    private final long refreshIntervalMillis;
+    private final double decayPerRefresh;
+
+    private final Map<String, ItemDTO> cached = new ConcurrentHashMap<>();
+    private final Set<String> evictedDuringRefresh = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hot-item-cache");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile LocalDateTime lastRefreshAt;
+    private volatile long lastRefreshMillis;
+
+    public HotItemCache(HotItemTracker hotItemTracker,
+                        ItemTrendingIndex itemTrendingIndex,
+                        ItemRepository itemRepository,
+                        ImageStorageService imageStorageService,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${app.hot-items.cache-size:100}") int cacheSize,
+                        @Value("${app.hot-items.refresh-interval-ms:10000}") long refreshIntervalMillis,
+                        @Value("${app.hot-items.half-life-ms:300000}") long halfLifeMillis) {
+        this.hotItemTracker = hotItemTracker;
+        this.itemTrendingIndex = itemTrendingIndex;
+        this.itemRepository = itemRepository;
+        this.imageStorageService = imageStorageService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.cacheSize = cacheSize;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.decayPerRefresh = Math.pow(0.5, (double) refreshIntervalMillis / halfLifeMillis);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, 0, refreshIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The cached DTO of the item, with its images as stored keys.
+     */
+    public Optional<ItemDTO> get(String itemId) {
+        ItemDTO dto = cached.get(itemId);
+        if (dto != null) {
+            hits.increment();
+            return Optional.of(dto);
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    public boolean contains(String itemId) {
+        return cached.containsKey(itemId);
+    }
+
+    /**
+     * Reloads the cached set from the current hottest items and returns how many are cached.
+     */
+    public synchronized int refresh() {
+        long started = System.nanoTime();
+        List<String> itemIds = hottestItemIds();
+        evictedDuringRefresh.clear();
+        Map<String, ItemDTO> loaded = new HashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Item item : itemRepository.findAllById(itemIds)) {
+                if (Boolean.TRUE.equals(item.getAvailable())) {
+                    loaded.put(item.getId(), ItemDTO.from(item));
+                }
+            }
+        });
+
+        List<ItemDTO> added = new ArrayList<>();
+        loaded.forEach((itemId, dto) -> {
+            if (!evictedDuringRefresh.contains(itemId) && cached.put(itemId, dto) == null) {
+                added.add(dto);
+            }
+        });
+        cached.keySet().retainAll(loaded.keySet());
+        added.forEach(this::warmImages);
+
+        lastRefreshAt = LocalDateTime.now();
+        lastRefreshMillis = (System.nanoTime() - started) / 1_000_000;
+        return cached.size();
+    }
+
+    private List<String> hottestItemIds() {
+        List<String> itemIds = hotItemTracker.top(cacheSize).stream()
+            .map(HotItemTracker.HotItem::itemId)
+            .toList();
+        if (!itemIds.isEmpty()) {
+            return itemIds;
+        }
+
+        Optional<ItemTrendingIndex.Ranked> trending = itemTrendingIndex.top(ItemTrendingIndex.Window.DAY, 0, cacheSize);
+        if (trending.isPresent() && !trending.get().itemIds().isEmpty()) {
+            return trending.get().itemIds();
+        }
+        return itemRepository.findPopularItems(PageRequest.of(0, cacheSize, Sort.by("views").descending()))
+            .map(ItemSummary::id)
+            .getContent();
+    }
+
+    private void warmImages(ItemDTO dto) {
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add(dto.getDetailImageUrl());
+        keys.add(dto.getCardImageUrl());
+        keys.add(dto.getImageUrl());
+        for (String key : keys) {
+            Optional<Path> path = ImageUrls.isImageKey(key) ? imageStorageService.resolve(key) : Optional.empty();
+            if (path.isPresent()) {
+                try (InputStream in = Files.newInputStream(path.get())) {
+                    in.transferTo(OutputStream.nullOutputStream());
+                } catch (IOException e) {
+                    logger.debug("Could not pre-read image {}", key, e);
+                }
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        evictedDuringRefresh.add(event.itemId());
+        cached.remove(event.itemId());
+        if (event.type() == ItemChangedEvent.ChangeType.DELETED) {
+            hotItemTracker.remove(event.itemId());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    public int getCacheSize() {
+        return cached.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public LocalDateTime getLastRefreshAt() {
+        return lastRefreshAt;
+    }
+
+    public long getLastRefreshMillis() {
+        return lastRefreshMillis;
+    }
+
+    private void refreshQuietly() {
+        try {
+            hotItemTracker.decay(decayPerRefresh);
+            refresh();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to refresh the hot item cache", e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.renteasy.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * The items read most right now, found with the Space-Saving algorithm in a fixed number of
+ * counters. A read of an item without a counter takes over the smallest counter, inheriting its
+ * count as the possible overestimate, so any item with more than 1/capacity of the traffic is
+ * always tracked and the top counters are the heaviest hitters. Detail reads count 1 and search
+ * result impressions {@code app.hot-items.impression-weight}. {@link #decay} scales every count
+ * down so that the ranking follows current traffic rather than all-time totals.
+ */
+@Component
+public class HotItemTracker {
+
+    private static final Comparator<HotItem> SMALLEST_FIRST = Comparator
+        .comparingDouble(HotItem::count)
+        .thenComparing(HotItem::itemId);
+
+    private final int capacity;
+    private final double impressionWeight;
+
+    private final Map<String, HotItem> counters = new HashMap<>();
+    private final TreeSet<HotItem> byCount = new TreeSet<>(SMALLEST_FIRST);
+
+    public HotItemTracker(@Value("${app.hot-items.capacity:1000}") int capacity,
+                          @Value("${app.hot-items.impression-weight:0.25}") double impressionWeight) {
+        this.capacity = capacity;
+        this.impressionWeight = impressionWeight;
+    }
+
+    public void recordRead(String itemId) {
+        record(itemId, 1.0);
+    }
+
+    public void recordImpressions(Collection<String> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            for (String itemId : itemIds) {
+                record(itemId, impressionWeight);
+            }
+        }
+    }
+
+    synchronized void record(String itemId, double weight) {
+        HotItem counter = counters.get(itemId);
+        HotItem updated;
+        if (counter != null) {
+            byCount.remove(counter);
+            updated = new HotItem(itemId, counter.count() + weight, counter.error());
+        } else if (counters.size() < capacity) {
+            updated = new HotItem(itemId, weight, 0);
+        } else {
+            HotItem smallest = byCount.pollFirst();
+            counters.remove(smallest.itemId());
+            updated = new HotItem(itemId, smallest.count() + weight, smallest.count());
+        }
+        counters.put(itemId, updated);
+        byCount.add(updated);
+    }
+
+    /**
+     * Up to {@code limit} tracked items, hottest first.
+     */
+    public synchronized List<HotItem> top(int limit) {
+        List<HotItem> top = new ArrayList<>(Math.min(limit, byCount.size()));
+        Iterator<HotItem> hottest = byCount.descendingIterator();
+        while (top.size() < limit && hottest.hasNext()) {
+            top.add(hottest.next());
+        }
+        return top;
+    }
+
+    /**
+     * Multiplies every count by {@code factor}, keeping the order.
+     */
+    public synchronized void decay(double factor) {
+        List<HotItem> decayed = byCount.stream()
+            .map(counter -> new HotItem(counter.itemId(), counter.count() * factor, counter.error() * factor))
+            .toList();
+        byCount.clear();
+        byCount.addAll(decayed);
+        decayed.forEach(counter -> counters.put(counter.itemId(), counter));
+    }
+
+    public synchronized void remove(String itemId) {
+        HotItem counter = counters.remove(itemId);
+        if (counter != null) {
+            byCount.remove(counter);
+        }
+    }
+
+    public synchronized int size() {
+        return counters.size();
+    }
+
+    /**
+     * A tracked item's decayed count, which overestimates its reads by at most {@code error}.
+     */
+    public record HotItem(String itemId, double count, double error) {}
+}
@@ -0,0 +1,240 @@
+package com.renteasy.service;
+
+import com.renteasy.model.Item;
+import com.renteasy.repository.ItemRepository;
+import com.renteasy.util.BlurHash;
+import com.renteasy.util.ImageUrls;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Produces card- and detail-size renditions of an item's main image on a small bounded
+ * executor once the item has been committed, and records their keys on the item. Also
+ * computes the tiny BlurHash placeholders that list endpoints ship inline.
+ */
+@Service
+public class ImageDerivativeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    static final int CARD_MAX_DIMENSION = 480;
+    static final int DETAIL_MAX_DIMENSION = 1280;
+
+    private static final int PLACEHOLDER_SAMPLE_DIMENSION = 32;
+    private static final int PLACEHOLDER_COMPONENTS_X = 4;
+    private static final int PLACEHOLDER_COMPONENTS_Y = 3;
+
+    private static final float JPEG_QUALITY = 0.82f;
+    private static final long MAX_SOURCE_PIXELS = 100_000_000L;
+
+    private final ImageStorageService imageStorageService;
+    private final ItemRepository itemRepository;
+    private final ThreadPoolExecutor executor;
+
+    public ImageDerivativeService(ImageStorageService imageStorageService,
+                                  ItemRepository itemRepository,
+                                  @Value("${app.images.derivative-threads:2}") int threads,
+                                  @Value("${app.images.derivative-queue-capacity:200}") int queueCapacity) {
+        this.imageStorageService = imageStorageService;
+        this.itemRepository = itemRepository;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+            threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "image-derivatives-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            (runnable, pool) -> logger.warn("Image derivative queue is full; skipping a rendition job"));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (event.type() == ItemChangedEvent.ChangeType.DELETED) {
+            return;
+        }
+
+        Item item = event.item();
+        String sourceKey = item.getImageUrl();
+        if (item.getCardImageKey() == null && ImageUrls.isImageKey(sourceKey)) {
+            String itemId = item.getId();
+            executor.execute(() -> generate(itemId, sourceKey));
+        }
+    }
+
+    void generate(String itemId, String sourceKey) {
+        try {
+            Optional<Path> source = imageStorageService.resolve(sourceKey);
+            if (source.isEmpty()) {
+                return;
+            }
+
+            String cardKey = sourceKey;
+            String detailKey = sourceKey;
+            DecodedImage decoded = decode(source.get(), DETAIL_MAX_DIMENSION * 2);
+            if (decoded != null) {
+                boolean hasAlpha = decoded.image().getColorModel().hasAlpha();
+                cardKey = render(sourceKey, decoded, CARD_MAX_DIMENSION, hasAlpha);
+                detailKey = render(sourceKey, decoded, DETAIL_MAX_DIMENSION, hasAlpha);
+            }
+
+            itemRepository.updateImageDerivatives(itemId, sourceKey, cardKey, detailKey);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to generate image derivatives for item {}", itemId, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private String render(String sourceKey, DecodedImage decoded, int maxDimension, boolean hasAlpha) throws IOException {
+        if (decoded.width() <= maxDimension && decoded.height() <= maxDimension) {
+            return sourceKey;
+        }
+
+        double scale = Math.min((double) maxDimension / decoded.width(), (double) maxDimension / decoded.height());
+        int targetWidth = Math.max(1, (int) Math.round(decoded.width() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(decoded.height() * scale));
+        BufferedImage scaled = scale(decoded.image(), targetWidth, targetHeight, hasAlpha);
+
+        return hasAlpha
+            ? imageStorageService.store(encodePng(scaled), "image/png")
+            : imageStorageService.store(encodeJpeg(scaled), "image/jpeg");
+    }
+
+    /**
+     * Computes a BlurHash placeholder for an image file, or {@code null} if it cannot be decoded.
+     */
+    public String placeholderFor(Path imagePath) {
+        try {
+            DecodedImage decoded = decode(imagePath, PLACEHOLDER_SAMPLE_DIMENSION * 2);
+            if (decoded == null) {
+                return null;
+            }
+
+            BufferedImage source = decoded.image();
+            double scale = Math.min(1.0, (double) PLACEHOLDER_SAMPLE_DIMENSION / Math.max(source.getWidth(), source.getHeight()));
+            int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+            int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+            BufferedImage sample = scale(source, width, height, false);
+
+            int[] pixels = sample.getRGB(0, 0, width, height, null, 0, width);
+            return BlurHash.encode(pixels, width, height, PLACEHOLDER_COMPONENTS_X, PLACEHOLDER_COMPONENTS_Y);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to compute image placeholder for {}", imagePath.getFileName(), e);
+            return null;
+        }
+    }
+
+    private DecodedImage decode(Path path, int minimumDimension) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(path.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_SOURCE_PIXELS) {
+                    return null;
+                }
+
+                // Decode at a reduced resolution that still leaves headroom above the requested size.
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, Math.max(width, height) / minimumDimension);
+                if (subsampling > 1) {
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                }
+                return new DecodedImage(reader.read(0, param), width, height);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage scale(BufferedImage source, int targetWidth, int targetHeight, boolean hasAlpha) {
+        int imageType = hasAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+
+        // Halve in steps so bilinear filtering does not skip source pixels on large reductions.
+        do {
+            width = Math.max(width / 2, targetWidth);
+            height = Math.max(height / 2, targetHeight);
+            if (width < targetWidth * 2 || height < targetHeight * 2) {
+                width = targetWidth;
+                height = targetHeight;
+            }
+
+            BufferedImage next = new BufferedImage(width, height, imageType);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+
+        return current;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutput = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(imageOutput);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+
+    private byte[] encodePng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        return output.toByteArray();
+    }
+
+    private record DecodedImage(BufferedImage image, int width, int height) {}
+}
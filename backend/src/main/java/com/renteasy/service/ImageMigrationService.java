@@ -0,0 +1,229 @@
+package com.renteasy.service;
+
+import com.renteasy.model.Item;
+import com.renteasy.model.MigrationCheckpoint;
+import com.renteasy.repository.ItemRepository;
+import com.renteasy.repository.MigrationCheckpointRepository;
+import com.renteasy.service.ImageStorageService.StagedImage;
+import com.renteasy.util.ImageUrls;
+import jakarta.annotation.PreDestroy;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves base64 data URIs that older clients stored in {@code items.image_url} and
+ * {@code item_images.image_url} into the image store. Items are walked in id order in small
+ * chunks, each in its own transaction, and the last processed id is checkpointed so the job
+ * can be stopped at any chunk boundary and resumed later.
+ */
+@Service
+public class ImageMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageMigrationService.class);
+
+    static final String CHECKPOINT_NAME = "inline-item-images";
+
+    private final ItemRepository itemRepository;
+    private final MigrationCheckpointRepository checkpointRepository;
+    private final ImageStorageService imageStorageService;
+    private final ImageDerivativeService imageDerivativeService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final boolean autoStart;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean stopRequested;
+
+    public ImageMigrationService(ItemRepository itemRepository,
+                                 MigrationCheckpointRepository checkpointRepository,
+                                 ImageStorageService imageStorageService,
+                                 ImageDerivativeService imageDerivativeService,
+                                 ApplicationEventPublisher eventPublisher,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.images.migration.batch-size:20}") int batchSize,
+                                 @Value("${app.images.migration.pause-ms:200}") long pauseMillis,
+                                 @Value("${app.images.migration.auto-start:false}") boolean autoStart) {
+        this.itemRepository = itemRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.imageStorageService = imageStorageService;
+        this.imageDerivativeService = imageDerivativeService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+        this.autoStart = autoStart;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (autoStart) {
+            start();
+        }
+    }
+
+    /**
+     * Starts the migration on a background thread, continuing from the last checkpoint.
+     * Returns {@code false} if it is already running.
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+
+        stopRequested = false;
+        Thread worker = new Thread(this::run, "image-migration");
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    /**
+     * Asks a running migration to stop after the chunk it is currently processing.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public MigrationCheckpoint getStatus() {
+        return checkpointRepository.findById(CHECKPOINT_NAME)
+            .orElseGet(() -> new MigrationCheckpoint(CHECKPOINT_NAME));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stop();
+    }
+
+    private void run() {
+        try {
+            restartIfCompleted();
+            while (!stopRequested && migrateNextBatch()) {
+                if (pauseMillis > 0) {
+                    Thread.sleep(pauseMillis);
+                }
+            }
+            logger.info("Inline image migration {}", stopRequested ? "paused" : "finished");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.error("Inline image migration stopped after an error", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void restartIfCompleted() {
+        transactionTemplate.executeWithoutResult(status -> {
+            MigrationCheckpoint checkpoint = getStatus();
+            if (Boolean.TRUE.equals(checkpoint.getCompleted())) {
+                checkpointRepository.save(new MigrationCheckpoint(CHECKPOINT_NAME));
+            }
+        });
+    }
+
+    /**
+     * Migrates one chunk of items and advances the checkpoint. Returns {@code true} while
+     * there may be more items left to process.
+     */
+    boolean migrateNextBatch() {
+        Boolean hasMore = transactionTemplate.execute(status -> {
+            MigrationCheckpoint checkpoint = getStatus();
+            String afterId = checkpoint.getLastProcessedId() != null ? checkpoint.getLastProcessedId() : "";
+            List<String> itemIds = itemRepository.findIdsWithInlineImagesAfter(afterId, PageRequest.of(0, batchSize));
+
+            for (String itemId : itemIds) {
+                itemRepository.findById(itemId).ifPresent(item -> migrateItem(item, checkpoint));
+                checkpoint.setProcessedCount(checkpoint.getProcessedCount() + 1);
+                checkpoint.setLastProcessedId(itemId);
+            }
+
+            boolean more = itemIds.size() == batchSize;
+            checkpoint.setCompleted(!more);
+            checkpointRepository.save(checkpoint);
+            return more;
+        });
+        return Boolean.TRUE.equals(hasMore);
+    }
+
+    private void migrateItem(Item item, MigrationCheckpoint checkpoint) {
+        List<StagedImage> stagedImages = new ArrayList<>();
+        try {
+            String mainImage = migrateImage(item.getImageUrl(), stagedImages);
+            List<String> additionalImages = new ArrayList<>();
+            for (String image : item.getAdditionalImages()) {
+                additionalImages.add(migrateImage(image, stagedImages));
+            }
+            if (stagedImages.isEmpty()) {
+                return;
+            }
+
+            String cardImageKey = item.getCardImageKey();
+            String detailImageKey = item.getDetailImageKey();
+            String imagePlaceholder = item.getImagePlaceholder();
+            if (!Objects.equals(mainImage, item.getImageUrl())) {
+                cardImageKey = null;
+                detailImageKey = null;
+                imagePlaceholder = stagedImages.stream()
+                    .filter(stagedImage -> stagedImage.key().equals(mainImage))
+                    .findFirst()
+                    .map(stagedImage -> imageDerivativeService.placeholderFor(stagedImage.file()))
+                    .orElse(null);
+            }
+
+            // Targeted updates rather than save(), which would stamp updated_at and make every
+            // migrated listing look freshly edited. They clear the persistence context, so load
+            // the lazy content first: the listeners read the description after commit.
+            Hibernate.initialize(item.getContent());
+            if (!additionalImages.equals(item.getAdditionalImages())) {
+                itemRepository.deleteAdditionalImages(item.getId());
+                additionalImages.forEach(image -> itemRepository.insertAdditionalImage(item.getId(), image));
+            }
+            itemRepository.updateMainImage(item.getId(), mainImage, ImageUrls.isDataUri(mainImage),
+                cardImageKey, detailImageKey, imagePlaceholder);
+
+            // The update detached the item, so these only carry the new values to the listeners.
+            item.setImageUrl(mainImage);
+            item.setCardImageKey(cardImageKey);
+            item.setDetailImageKey(detailImageKey);
+            item.setImagePlaceholder(imagePlaceholder);
+            item.setAdditionalImages(additionalImages);
+            imageStorageService.commitOnTransactionSuccess(stagedImages);
+            eventPublisher.publishEvent(new ItemChangedEvent(ItemChangedEvent.ChangeType.UPDATED, item));
+            checkpoint.setMigratedCount(checkpoint.getMigratedCount() + 1);
+        } catch (RuntimeException e) {
+            stagedImages.forEach(imageStorageService::discard);
+            checkpoint.setFailedCount(checkpoint.getFailedCount() + 1);
+            logger.warn("Skipping inline images of item {}: {}", item.getId(), e.getMessage());
+        }
+    }
+
+    private String migrateImage(String image, List<StagedImage> stagedImages) {
+        if (image == null || !image.trim().startsWith("data:")) {
+            return image;
+        }
+
+        StagedImage stagedImage = imageStorageService.stageDataUri(image.trim());
+        stagedImages.add(stagedImage);
+        return stagedImage.key();
+    }
+}
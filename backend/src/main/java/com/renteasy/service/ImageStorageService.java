@@ -0,0 +1,293 @@
+package com.renteasy.service;
+
+import com.renteasy.util.ImageUrls;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Content-addressed image store. Every image is written once under {@code file.upload-dir}
+ * and referenced by its SHA-256 key, so items only carry short keys instead of image bytes.
+ * Uploads are streamed into a staging file first and only become visible once promoted.
+ */
+@Service
+public class ImageStorageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageStorageService.class);
+
+    private static final int COPY_BUFFER_SIZE = 8192;
+    private static final int SIGNATURE_LENGTH = 12;
+
+    private static final Map<String, String> CONTENT_TYPES_BY_EXTENSION = Map.of(
+        "jpg", "image/jpeg",
+        "png", "image/png",
+        "gif", "image/gif",
+        "webp", "image/webp"
+    );
+
+    private final Path rootDirectory;
+    private final Path stagingDirectory;
+    private final long maxImageBytes;
+
+    public ImageStorageService(@Value("${file.upload-dir:./uploads}") String uploadDir,
+                               @Value("${file.max-image-size:10MB}") DataSize maxImageSize) {
+        this.rootDirectory = Paths.get(uploadDir, "images").toAbsolutePath().normalize();
+        this.stagingDirectory = rootDirectory.resolve(".staging");
+        this.maxImageBytes = maxImageSize.toBytes();
+    }
+
+    /**
+     * Streams an upload into a staging file while hashing it and checking its size and file
+     * signature, so the image is never held in memory. The result must be passed to
+     * {@link #commit}, {@link #commitOnTransactionSuccess} or {@link #discard}.
+     */
+    public StagedImage stage(InputStream input, String declaredContentType) {
+        requireImageContentType(declaredContentType);
+
+        Path temp = null;
+        try {
+            Files.createDirectories(stagingDirectory);
+            temp = Files.createTempFile(stagingDirectory, "upload-", ".tmp");
+
+            MessageDigest digest = sha256();
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            byte[] signature = new byte[SIGNATURE_LENGTH];
+            int signatureLength = 0;
+            String extension = null;
+            long totalBytes = 0;
+
+            try (OutputStream output = Files.newOutputStream(temp)) {
+                int read;
+                while ((read = input.read(buffer)) != -1) {
+                    totalBytes += read;
+                    if (totalBytes > maxImageBytes) {
+                        throw new RuntimeException("Image exceeds the maximum allowed size");
+                    }
+                    if (signatureLength < SIGNATURE_LENGTH) {
+                        int copied = Math.min(read, SIGNATURE_LENGTH - signatureLength);
+                        System.arraycopy(buffer, 0, signature, signatureLength, copied);
+                        signatureLength += copied;
+                        if (signatureLength == SIGNATURE_LENGTH) {
+                            extension = requireKnownSignature(signature, signatureLength);
+                        }
+                    }
+                    digest.update(buffer, 0, read);
+                    output.write(buffer, 0, read);
+                }
+            }
+
+            if (totalBytes == 0) {
+                throw new RuntimeException("Image file is empty");
+            }
+            if (extension == null) {
+                extension = requireKnownSignature(signature, signatureLength);
+            }
+
+            return new StagedImage(HexFormat.of().formatHex(digest.digest()) + "." + extension, temp);
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            logger.error("Failed to stage image upload", e);
+            throw new RuntimeException("Failed to store image");
+        } catch (RuntimeException e) {
+            deleteQuietly(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * Moves a staged image to its content-addressed location. Identical content that is already
+     * stored is kept and the staging file is dropped.
+     */
+    public void commit(StagedImage image) {
+        Path target = pathFor(image.key());
+        try {
+            if (Files.exists(target)) {
+                return;
+            }
+            Files.createDirectories(target.getParent());
+            Files.move(image.file(), target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Another upload of the same content won the race; the stored bytes are identical.
+        } catch (IOException e) {
+            logger.error("Failed to store image {}", image.key(), e);
+            throw new RuntimeException("Failed to store image");
+        } finally {
+            deleteQuietly(image.file());
+        }
+    }
+
+    /**
+     * Commits the staged images once the surrounding transaction commits and discards them if it
+     * rolls back. Without an active transaction the images are committed immediately.
+     */
+    public void commitOnTransactionSuccess(List<StagedImage> images) {
+        if (images.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            images.forEach(this::commit);
+            return;
+        }
+
+        List<StagedImage> pending = List.copyOf(images);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                // Publish files before after-commit listeners (such as rendition jobs) look for them.
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+
+            @Override
+            public void afterCommit() {
+                pending.forEach(ImageStorageService.this::commit);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    pending.forEach(ImageStorageService.this::discard);
+                }
+            }
+        });
+    }
+
+    public void discard(StagedImage image) {
+        deleteQuietly(image.file());
+    }
+
+    public String store(byte[] content, String contentType) {
+        StagedImage image = stage(new ByteArrayInputStream(content == null ? new byte[0] : content), contentType);
+        commit(image);
+        return image.key();
+    }
+
+    public String storeDataUri(String dataUri) {
+        StagedImage image = stageDataUri(dataUri);
+        commit(image);
+        return image.key();
+    }
+
+    public StagedImage stageDataUri(String dataUri) {
+        int comma = dataUri != null ? dataUri.indexOf(',') : -1;
+        if (comma < 0 || !dataUri.startsWith("data:")) {
+            throw new RuntimeException("Invalid image data");
+        }
+
+        String header = dataUri.substring("data:".length(), comma);
+        if (!header.endsWith(";base64")) {
+            throw new RuntimeException("Invalid image data");
+        }
+
+        String contentType = header.substring(0, header.length() - ";base64".length());
+        InputStream decoded = Base64.getMimeDecoder().wrap(
+            new ByteArrayInputStream(dataUri.substring(comma + 1).getBytes(StandardCharsets.US_ASCII)));
+        return stage(decoded, contentType);
+    }
+
+    public Optional<Path> resolve(String key) {
+        if (!ImageUrls.isImageKey(key)) {
+            return Optional.empty();
+        }
+        Path path = pathFor(key);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    public String contentType(String key) {
+        String extension = key.substring(key.lastIndexOf('.') + 1);
+        return CONTENT_TYPES_BY_EXTENSION.getOrDefault(extension, "application/octet-stream");
+    }
+
+    Path pathFor(String key) {
+        return rootDirectory.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    private void requireImageContentType(String contentType) {
+        String normalized = contentType == null ? "" : contentType.trim().toLowerCase(Locale.ROOT);
+        // Some clients label every part as octet-stream; the file signature is checked either way.
+        if (!normalized.isEmpty() && !normalized.equals("application/octet-stream") && !normalized.startsWith("image/")) {
+            throw new RuntimeException("Unsupported image type: " + contentType);
+        }
+    }
+
+    private String requireKnownSignature(byte[] signature, int length) {
+        String extension = detectExtension(signature, length);
+        if (extension == null) {
+            throw new RuntimeException("Unsupported image format");
+        }
+        return extension;
+    }
+
+    private static String detectExtension(byte[] signature, int length) {
+        if (startsWith(signature, length, 0xFF, 0xD8, 0xFF)) {
+            return "jpg";
+        }
+        if (startsWith(signature, length, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "png";
+        }
+        if (startsWith(signature, length, 'G', 'I', 'F', '8')) {
+            return "gif";
+        }
+        if (startsWith(signature, length, 'R', 'I', 'F', 'F') && length >= 12
+            && signature[8] == 'W' && signature[9] == 'E' && signature[10] == 'B' && signature[11] == 'P') {
+            return "webp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] signature, int length, int... expected) {
+        if (length < expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if ((signature[i] & 0xFF) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Failed to delete staged image {}", path, e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public record StagedImage(String key, Path file) {}
+}
@@ -0,0 +1,19 @@
+package com.renteasy.service;
+
+import com.renteasy.model.Item;
+
+/**
+ * Published by {@link ItemService} whenever an item is written. Listeners that keep derived
+ * state (image renditions, in-memory indexes) should use {@code @TransactionalEventListener}
+ * so they only see committed changes.
+ */
+public record ItemChangedEvent(ChangeType type, Item item) {
+
+    public String itemId() {
+        return item.getId();
+    }
+
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+}
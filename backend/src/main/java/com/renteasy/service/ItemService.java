@@ -1,29 +1,56 @@
 package com.renteasy.service;
 
+import com.renteasy.dto.CursorSlice;
+import com.renteasy.dto.ItemQueryRequest;
 import com.renteasy.dto.ItemRequest;
+import com.renteasy.dto.MapCluster;
+import com.renteasy.dto.NearbyItem;
+import com.renteasy.dto.SearchPage;
+import com.renteasy.dto.UniqueViewerStats;
 import com.renteasy.model.Item;
 import com.renteasy.model.User;
 import com.renteasy.repository.ItemRepository;
+import com.renteasy.repository.ItemSpecifications;
 import com.renteasy.repository.UserRepository;
+import com.renteasy.repository.projection.ItemGeoPoint;
+import com.renteasy.repository.projection.ItemMapPoint;
+import com.renteasy.repository.projection.ItemSummary;
+import com.renteasy.search.GeoDistance;
+import com.renteasy.search.ItemAutocompleteIndex;
+import com.renteasy.search.ItemGeoIndex;
+import com.renteasy.search.ItemMapClusterIndex;
+import com.renteasy.search.ItemSearchIndex;
+import com.renteasy.search.ItemTrendingIndex;
+import com.renteasy.service.ImageStorageService.StagedImage;
+import com.renteasy.util.ImageUrls;
 import com.renteasy.util.InputSanitizer;
+import com.renteasy.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,23 +58,49 @@ import java.util.stream.Collectors;
 public class ItemService {
 
     private static final int MAX_ITEM_IMAGES = 5;
+    private static final int MAX_QUERY_PAGE_SIZE = 100;
+    private static final int MAX_UNIQUE_VIEWER_DAYS = 90;
+    private static final Map<String, Sort> QUERY_SORTS = Map.of(
+        "newest", Sort.by(Sort.Order.desc("createdAt"), Sort.Order.asc("id")),
+        "price_asc", Sort.by(Sort.Order.asc("price"), Sort.Order.asc("id")),
+        "price_desc", Sort.by(Sort.Order.desc("price"), Sort.Order.asc("id")),
+        "popular", Sort.by(Sort.Order.desc("views"), Sort.Order.asc("id")));
     
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ImageStorageService imageStorageService;
+    private final ImageDerivativeService imageDerivativeService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemAutocompleteIndex itemAutocompleteIndex;
+    private final CategoryService categoryService;
+    private final ItemGeoIndex itemGeoIndex;
+    private final ItemMapClusterIndex itemMapClusterIndex;
+    private final ItemViewCounter itemViewCounter;
+    private final ItemTrendingIndex itemTrendingIndex;
+    private final ItemUniqueViewers itemUniqueViewers;
+    private final HotItemTracker hotItemTracker;
     
     @Transactional
     public Item createItem(ItemRequest request, String userId) {
+        return createItem(request, userId, List.of());
+    }
+
+    @Transactional
+    public Item createItem(ItemRequest request, String userId, List<StagedImage> uploads) {
+        imageStorageService.commitOnTransactionSuccess(uploads);
         User owner = resolveOwner(userId);
-        PreparedImages preparedImages = prepareImages(request.getImageUrl(), request.getAdditionalImages());
+        List<StagedImage> stagedImages = new ArrayList<>(uploads);
+        PreparedImages preparedImages = prepareImages(request.getImageUrl(), request.getAdditionalImages(), stagedImages);
         
         Item item = new Item();
         item.setName(InputSanitizer.sanitizeRequired(request.getName(), "Name"));
         item.setDescription(InputSanitizer.sanitizeNullable(request.getDescription()));
-        item.setCategory(InputSanitizer.sanitizeRequired(request.getCategory(), "Category"));
-        item.setSubcategory(InputSanitizer.sanitizeNullable(request.getSubcategory()));
+        applyCategory(item, request);
         item.setPrice(request.getPrice());
         item.setImageUrl(preparedImages.mainImageUrl());
+        item.setImagePlaceholder(computePlaceholder(preparedImages.mainImageUrl(), stagedImages));
         item.setAdditionalImages(preparedImages.additionalImageUrls());
         item.setAvailable(request.getAvailable());
         item.setAvailableDates(request.getAvailableDates());
@@ -59,7 +112,19 @@ public class ItemService {
         item.setMaximumRentalPeriod(request.getMaximumRentalPeriod());
         item.setOwner(owner);
         
-        return itemRepository.save(item);
+        Item savedItem = itemRepository.save(item);
+        eventPublisher.publishEvent(new ItemChangedEvent(ItemChangedEvent.ChangeType.CREATED, savedItem));
+        return savedItem;
+    }
+
+    private void applyCategory(Item item, ItemRequest request) {
+        CategoryService.Resolved resolved = categoryService.resolve(
+            InputSanitizer.sanitizeRequired(request.getCategory(), "Category"),
+            InputSanitizer.sanitizeNullable(request.getSubcategory()));
+        item.setCategory(resolved.category().slug());
+        item.setCategoryId(resolved.category().id());
+        item.setSubcategory(resolved.subcategory() != null ? resolved.subcategory().name() : null);
+        item.setSubcategoryId(resolved.subcategory() != null ? resolved.subcategory().id() : null);
     }
 
     private User resolveOwner(String userId) {
@@ -100,7 +165,8 @@ public class ItemService {
         Item item = itemRepository.findById(itemId)
             .orElseThrow(() -> new RuntimeException("Item not found"));
 
-        PreparedImages preparedImages = prepareImages(request.getImageUrl(), request.getAdditionalImages());
+        List<StagedImage> stagedImages = new ArrayList<>();
+        PreparedImages preparedImages = prepareImages(request.getImageUrl(), request.getAdditionalImages(), stagedImages);
         
         if (!item.getOwner().getId().equals(userId)) {
             throw new RuntimeException("You don't have permission to update this item");
@@ -108,9 +174,16 @@ public class ItemService {
         
         item.setName(InputSanitizer.sanitizeRequired(request.getName(), "Name"));
         item.setDescription(InputSanitizer.sanitizeNullable(request.getDescription()));
-        item.setCategory(InputSanitizer.sanitizeRequired(request.getCategory(), "Category"));
-        item.setSubcategory(InputSanitizer.sanitizeNullable(request.getSubcategory()));
+        applyCategory(item, request);
         item.setPrice(request.getPrice());
+        boolean mainImageChanged = !Objects.equals(item.getImageUrl(), preparedImages.mainImageUrl());
+        if (mainImageChanged) {
+            item.setCardImageKey(null);
+            item.setDetailImageKey(null);
+        }
+        if (mainImageChanged || item.getImagePlaceholder() == null) {
+            item.setImagePlaceholder(computePlaceholder(preparedImages.mainImageUrl(), stagedImages));
+        }
         item.setImageUrl(preparedImages.mainImageUrl());
         item.setAdditionalImages(preparedImages.additionalImageUrls());
         item.setAvailable(request.getAvailable());
@@ -122,7 +195,7 @@ public class ItemService {
         item.setMinimumRentalPeriod(request.getMinimumRentalPeriod());
         item.setMaximumRentalPeriod(request.getMaximumRentalPeriod());
         
-        return itemRepository.save(item);
+        return saveUpdated(item);
     }
 
     @Transactional
@@ -135,7 +208,7 @@ public class ItemService {
         }
 
         item.setAvailableDates(availableDates == null ? new HashSet<>() : new HashSet<>(availableDates));
-        return itemRepository.save(item);
+        return saveUpdated(item);
     }
 
     @Transactional
@@ -154,7 +227,13 @@ public class ItemService {
         item.setBoosted(true);
         item.setBoostedUntil(boostStart.plusDays(durationDays));
 
-        return itemRepository.save(item);
+        return saveUpdated(item);
+    }
+
+    private Item saveUpdated(Item item) {
+        Item savedItem = itemRepository.save(item);
+        eventPublisher.publishEvent(new ItemChangedEvent(ItemChangedEvent.ChangeType.UPDATED, savedItem));
+        return savedItem;
     }
     
     @Transactional(readOnly = true)
@@ -163,128 +242,473 @@ public class ItemService {
             .orElseThrow(() -> new RuntimeException("Item not found"));
     }
     
-    @Transactional
-    public void incrementViews(String itemId) {
+    /**
+     * Counts a detail view by {@code viewerKey}, which identifies the user or client. The count
+     * is buffered by {@link ItemViewCounter} and written in the background, added to the item's
+     * trending score if it is {@code available}, today's {@link ItemUniqueViewers} sketch and the
+     * {@link HotItemTracker}, so this does not touch the database.
+     */
+    public void incrementViews(String itemId, boolean available, String viewerKey) {
+        itemViewCounter.record(itemId);
+        if (available) {
+            itemTrendingIndex.recordView(itemId);
+        }
+        itemUniqueViewers.record(itemId, viewerKey);
+        hotItemTracker.recordRead(itemId);
+    }
+
+    /**
+     * Approximate distinct viewers of the item over the last {@code days} days, today included.
+     * Only the owner may see them, unless {@code userId} is null for an admin.
+     */
+    @Transactional(readOnly = true)
+    public UniqueViewerStats getUniqueViewers(String itemId, String userId, int days) {
+        if (days < 1 || days > MAX_UNIQUE_VIEWER_DAYS) {
+            throw new RuntimeException("Days must be between 1 and " + MAX_UNIQUE_VIEWER_DAYS);
+        }
         Item item = getItemById(itemId);
-        item.setViews(item.getViews() + 1);
-        itemRepository.save(item);
+        if (userId != null && !item.getOwner().getId().equals(userId)) {
+            throw new RuntimeException("You don't have permission to view this item's statistics");
+        }
+
+        LocalDate to = LocalDate.now();
+        return itemUniqueViewers.stats(itemId, to.minusDays(days - 1L), to);
     }
     
     @Transactional(readOnly = true)
-    public Page<Item> getAllItems(int page, int size) {
+    public Page<ItemSummary> getAllItems(int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
         return itemRepository.findByAvailableTrue(pageable);
     }
     
     @Transactional(readOnly = true)
-    public Page<Item> getItemsByCategory(String category, int page, int size) {
+    public Page<ItemSummary> getItemsByCategory(String category, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        String trimmedCategory = category != null ? category.trim() : category;
-        return itemRepository.findByCategoryAndAvailableTrue(trimmedCategory, pageable);
+        return categoryService.findCategory(category)
+            .map(entry -> itemRepository.findAvailableByCategoryId(entry.id(), pageable))
+            .orElseGet(() -> Page.empty(pageable));
     }
     
     @Transactional(readOnly = true)
-    public Page<Item> getItemsByCategoryAndSubcategory(String category, String subcategory, int page, int size) {
+    public Page<ItemSummary> getItemsByCategoryAndSubcategory(String category, String subcategory, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        String trimmedCategory = category != null ? category.trim() : category;
-        String trimmedSubcategory = subcategory != null ? subcategory.trim() : subcategory;
-        return itemRepository.findByCategoryAndSubcategoryAndAvailableTrue(trimmedCategory, trimmedSubcategory, pageable);
+        Optional<CategoryService.CategoryEntry> categoryEntry = categoryService.findCategory(category);
+        Optional<CategoryService.SubcategoryEntry> subcategoryEntry = categoryEntry.flatMap(entry -> entry.findSubcategory(subcategory));
+        if (subcategoryEntry.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        return itemRepository.findAvailableByCategoryIdAndSubcategoryId(categoryEntry.get().id(), subcategoryEntry.get().id(), pageable);
     }
     
+    /**
+     * Facet counts for a category listing, or {@code null} while the search index is still
+     * being built.
+     */
+    public Map<String, Map<String, Integer>> getCategoryFacets(String category, String subcategory) {
+        Optional<CategoryService.CategoryEntry> categoryEntry = categoryService.findCategory(category);
+        String canonicalCategory = categoryEntry.map(CategoryService.CategoryEntry::slug).orElse(category.trim());
+        String canonicalSubcategory = null;
+        if (subcategory != null && !subcategory.trim().isEmpty()) {
+            canonicalSubcategory = categoryEntry.flatMap(entry -> entry.findSubcategory(subcategory))
+                .map(CategoryService.SubcategoryEntry::name)
+                .orElse(subcategory.trim());
+        }
+        return itemSearchIndex.categoryFacets(canonicalCategory, canonicalSubcategory).orElse(null);
+    }
+
+    @Transactional(readOnly = true)
+    public SearchPage<ItemSummary> searchItems(String searchTerm, int page, int size) {
+        return searchItems(searchTerm, page, size, false);
+    }
+
     @Transactional(readOnly = true)
-    public Page<Item> searchItems(String searchTerm, int page, int size) {
+    public SearchPage<ItemSummary> searchItems(String searchTerm, int page, int size, boolean includeFacets) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        return itemRepository.searchItems(InputSanitizer.sanitizeNullable(searchTerm), pageable);
+        String sanitizedSearchTerm = InputSanitizer.sanitizeNullable(searchTerm);
+
+        Optional<ItemSearchIndex.Hits> hits = itemSearchIndex.search(sanitizedSearchTerm, (int) pageable.getOffset(), size, includeFacets);
+        if (hits.isPresent()) {
+            Page<ItemSummary> results = new PageImpl<>(loadSummaries(hits.get().itemIds()), pageable, hits.get().total());
+            hotItemTracker.recordImpressions(hits.get().itemIds());
+            return new SearchPage<>(results, hits.get().suggestion(), hits.get().facets());
+        }
+        Page<ItemSummary> results = itemRepository.searchItems(sanitizedSearchTerm, pageable);
+        hotItemTracker.recordImpressions(results.map(ItemSummary::id).getContent());
+        return new SearchPage<>(results, null);
+    }
+
+    public List<ItemAutocompleteIndex.Suggestion> suggest(String prefix, int limit) {
+        return itemAutocompleteIndex.suggest(prefix, limit);
+    }
+
+    private List<ItemSummary> loadSummaries(List<String> itemIds) {
+        if (itemIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, ItemSummary> summariesById = itemRepository.findSummariesByIdIn(itemIds).stream()
+            .collect(Collectors.toMap(ItemSummary::id, summary -> summary));
+        return itemIds.stream()
+            .map(summariesById::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
     }
 
+    /**
+     * Available items matching every filter set on the request, in one query.
+     */
     @Transactional(readOnly = true)
-    public Page<Item> searchItemsByLocation(String location, int page, int size) {
+    public Page<ItemSummary> queryItems(ItemQueryRequest request) {
+        Sort sort = QUERY_SORTS.get(request.getSort() != null ? request.getSort().trim().toLowerCase(Locale.ROOT) : "newest");
+        if (sort == null) {
+            throw new RuntimeException("Sort must be one of newest, price_asc, price_desc, popular");
+        }
+        int size = Math.min(Math.max(request.getSize(), 1), MAX_QUERY_PAGE_SIZE);
+        Pageable pageable = PageRequest.of(Math.max(request.getPage(), 0), size, sort);
+        return itemRepository.findSummaries(buildSpecification(request), pageable);
+    }
+
+    private Specification<Item> buildSpecification(ItemQueryRequest request) {
+        Specification<Item> specification = ItemSpecifications.isAvailable()
+            .and(inCategory(InputSanitizer.sanitizeNullable(request.getCategory()),
+                InputSanitizer.sanitizeNullable(request.getSubcategory())));
+
+        if (request.getMinPrice() != null && request.getMaxPrice() != null
+                && request.getMinPrice().compareTo(request.getMaxPrice()) > 0) {
+            throw new RuntimeException("Minimum price cannot be greater than maximum price");
+        }
+        if (request.getMinPrice() != null) {
+            specification = specification.and(ItemSpecifications.priceAtLeast(request.getMinPrice()));
+        }
+        if (request.getMaxPrice() != null) {
+            specification = specification.and(ItemSpecifications.priceAtMost(request.getMaxPrice()));
+        }
+
+        String text = InputSanitizer.sanitizeNullable(request.getQuery());
+        if (text != null && !text.isEmpty()) {
+            specification = specification.and(ItemSpecifications.containsText(text));
+        }
+
+        List<Double> bounds = Arrays.asList(request.getMinLat(), request.getMaxLat(), request.getMinLng(), request.getMaxLng());
+        if (bounds.stream().anyMatch(Objects::nonNull)) {
+            if (bounds.stream().anyMatch(Objects::isNull)) {
+                throw new RuntimeException("Bounding box needs minLat, maxLat, minLng and maxLng");
+            }
+            specification = specification.and(ItemSpecifications.withinBounds(
+                request.getMinLat(), request.getMaxLat(), request.getMinLng(), request.getMaxLng()));
+        }
+
+        if (request.getAvailableFrom() != null || request.getAvailableTo() != null) {
+            LocalDate from = request.getAvailableFrom() != null ? request.getAvailableFrom() : request.getAvailableTo();
+            LocalDate to = request.getAvailableTo() != null ? request.getAvailableTo() : request.getAvailableFrom();
+            if (from.isAfter(to)) {
+                throw new RuntimeException("Available-from date cannot be after available-to date");
+            }
+            specification = specification.and(ItemSpecifications.notBookedBetween(from, to));
+        }
+        return specification;
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ItemSummary> searchItemsByLocation(String location, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
         return itemRepository.searchItemsByLocation(InputSanitizer.sanitizeNullable(location), pageable);
     }
     
     @Transactional(readOnly = true)
-    public Page<Item> getBoostedItems(int page, int size) {
+    public Page<ItemSummary> getBoostedItems(int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("boostedUntil").descending());
         return itemRepository.findBoostedItems(pageable);
     }
     
     @Transactional(readOnly = true)
-    public Page<Item> getPopularItems(int page, int size) {
+    public Page<ItemSummary> getPopularItems(int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("views").descending());
         return itemRepository.findPopularItems(pageable);
     }
+
+    /**
+     * Items ranked by recent views and bookings in the window ({@code 24h} or {@code 7d}), or by
+     * all-time views for {@code all}. Falls back to all-time views while the trending index is
+     * loading or has nothing for the window yet. Only the {@code app.trending.top-size} best
+     * ranked items are listed, so the total never exceeds it.
+     */
+    @Transactional(readOnly = true)
+    public Page<ItemSummary> getPopularItems(String window, int page, int size) {
+        if ("all".equalsIgnoreCase(window)) {
+            return getPopularItems(page, size);
+        }
+        ItemTrendingIndex.Window trendingWindow = ItemTrendingIndex.Window.fromParam(window)
+            .orElseThrow(() -> new RuntimeException("Unknown window: " + window + " (use 24h, 7d or all)"));
+
+        Optional<ItemTrendingIndex.Ranked> ranked = itemTrendingIndex.top(trendingWindow, 0, Integer.MAX_VALUE);
+        if (ranked.isEmpty() || ranked.get().total() == 0) {
+            return getPopularItems(page, size);
+        }
+        // The index drops items once it hears they are unavailable; this catches any it has not,
+        // before paging, so every page is full and the total counts only listed items.
+        Set<String> availableIds = new HashSet<>(itemRepository.findAvailableIdsByIdIn(ranked.get().itemIds()));
+        List<String> rankedIds = ranked.get().itemIds().stream().filter(availableIds::contains).toList();
+        if (rankedIds.isEmpty()) {
+            return getPopularItems(page, size);
+        }
+
+        Pageable pageable = PageRequest.of(page, size);
+        List<String> pageIds = rankedIds.stream().skip(pageable.getOffset()).limit(size).toList();
+        return new PageImpl<>(loadSummaries(pageIds), pageable, rankedIds.size());
+    }
     
     @Transactional(readOnly = true)
-    public Page<Item> getUserItems(String userId, int page, int size) {
+    public Page<ItemSummary> getUserItems(String userId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
         return itemRepository.findByOwnerId(userId, pageable);
     }
 
     @Transactional(readOnly = true)
-    public Page<Item> getNearbyItems(double latitude, double longitude, double radiusKm, int page, int size) {
-        if (radiusKm <= 0) {
-            throw new RuntimeException("Radius must be greater than 0");
+    public CursorSlice<ItemSummary> scrollAllItems(String cursor, int size) {
+        return scrollByCreatedAt(ItemSpecifications.isAvailable(), cursor, size);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorSlice<ItemSummary> scrollItemsByCategory(String category, String subcategory, String cursor, int size) {
+        Specification<Item> specification = ItemSpecifications.isAvailable()
+            .and(inCategory(category.trim(), subcategory));
+        return scrollByCreatedAt(specification, cursor, size);
+    }
+
+    /**
+     * Filters on the taxonomy ids of a category and subcategory, either of which may be blank.
+     * Names the taxonomy does not know match nothing. A subcategory without a category matches
+     * that subcategory name in every category.
+     */
+    private Specification<Item> inCategory(String category, String subcategory) {
+        Specification<Item> specification = Specification.where(null);
+        CategoryService.CategoryEntry categoryEntry = null;
+        if (category != null && !category.isBlank()) {
+            Optional<CategoryService.CategoryEntry> found = categoryService.findCategory(category);
+            if (found.isEmpty()) {
+                return ItemSpecifications.none();
+            }
+            categoryEntry = found.get();
+            specification = specification.and(ItemSpecifications.inCategory(categoryEntry.id()));
+        }
+        if (subcategory != null && !subcategory.isBlank()) {
+            specification = specification.and(ItemSpecifications.inSubcategories(
+                categoryService.findSubcategoryIds(categoryEntry, subcategory)));
         }
+        return specification;
+    }
+
+    @Transactional(readOnly = true)
+    public CursorSlice<ItemSummary> scrollUserItems(String userId, String cursor, int size) {
+        return scrollByCreatedAt(ItemSpecifications.ownedBy(userId), cursor, size);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorSlice<ItemSummary> scrollPopularItems(String cursor, int size) {
+        return scroll(ItemSpecifications.isAvailable(), "views", KeysetCursor::intValue, ItemSummary::views, cursor, size);
+    }
 
-        double latDelta = radiusKm / 111.0d;
-        double cosLat = Math.cos(Math.toRadians(latitude));
-        double lngDelta = radiusKm / (111.0d * Math.max(Math.abs(cosLat), 0.01d));
+    @Transactional(readOnly = true)
+    public CursorSlice<ItemSummary> scrollBoostedItems(String cursor, int size) {
+        return scroll(ItemSpecifications.isAvailable().and(ItemSpecifications.isBoostedNow()), "boostedUntil",
+            KeysetCursor::dateTimeValue, ItemSummary::boostedUntil, cursor, size);
+    }
 
-        double minLat = Math.max(-90.0d, latitude - latDelta);
-        double maxLat = Math.min(90.0d, latitude + latDelta);
-        double minLng = Math.max(-180.0d, longitude - lngDelta);
-        double maxLng = Math.min(180.0d, longitude + lngDelta);
+    private CursorSlice<ItemSummary> scrollByCreatedAt(Specification<Item> specification, String cursor, int size) {
+        return scroll(specification, "createdAt", KeysetCursor::dateTimeValue, ItemSummary::createdAt, cursor, size);
+    }
+
+    /**
+     * One slice of a feed ordered by {@code property} and then id, both descending, seeking
+     * past the cursor instead of skipping an offset.
+     */
+    private <T extends Comparable<? super T>> CursorSlice<ItemSummary> scroll(Specification<Item> specification,
+                                                                             String property,
+                                                                             Function<KeysetCursor, T> cursorValue,
+                                                                             Function<ItemSummary, T> summaryValue,
+                                                                             String cursor, int size) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        if (position != null) {
+            specification = specification.and(ItemSpecifications.after(property, cursorValue.apply(position), position.id()));
+        }
+        int limit = CursorSlice.clampSize(size);
+        List<ItemSummary> rows = itemRepository.findSummaries(specification,
+            Sort.by(Sort.Order.desc(property), Sort.Order.desc("id")), limit + 1);
+        return CursorSlice.of(rows, limit, summary -> KeysetCursor.encode(summaryValue.apply(summary), summary.id()));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<NearbyItem> getNearbyItems(double latitude, double longitude, double radiusKm, int page, int size) {
+        if (radiusKm <= 0) {
+            throw new RuntimeException("Radius must be greater than 0");
+        }
 
         int safePage = Math.max(page, 0);
         int safeSize = Math.max(size, 1);
-        int candidateSize = Math.max(safeSize * 3, safeSize);
+        Pageable pageable = PageRequest.of(safePage, safeSize);
 
-        Pageable candidatePageable = PageRequest.of(safePage, candidateSize, Sort.by("createdAt").descending());
-        Page<Item> candidatesPage = itemRepository.findNearbyCandidates(minLat, maxLat, minLng, maxLng, candidatePageable);
+        Optional<Integer> total = itemGeoIndex.countWithin(latitude, longitude, radiusKm);
+        if (total.isPresent()) {
+            long offset = pageable.getOffset();
+            if (offset >= total.get()) {
+                return new PageImpl<>(List.of(), pageable, total.get());
+            }
+            int limit = (int) Math.min(offset + safeSize, total.get());
+            Optional<List<ItemGeoIndex.Neighbor>> nearest = itemGeoIndex.nearest(latitude, longitude, radiusKm, limit);
+            if (nearest.isPresent()) {
+                List<ItemGeoIndex.Neighbor> neighbors = nearest.get().subList((int) Math.min(offset, nearest.get().size()), nearest.get().size());
+                return new PageImpl<>(loadNearby(neighbors), pageable, total.get());
+            }
+        }
 
-        List<Item> nearby = candidatesPage.getContent().stream()
-            .filter(item -> {
-                double distance = calculateDistanceKm(latitude, longitude, item.getLatitude(), item.getLongitude());
-                return distance <= radiusKm;
-            })
-            .collect(Collectors.toList());
+        BoundingBox box = BoundingBox.around(latitude, longitude, radiusKm);
 
-        nearby.sort((a, b) -> {
-            double distanceA = calculateDistanceKm(latitude, longitude, a.getLatitude(), a.getLongitude());
-            double distanceB = calculateDistanceKm(latitude, longitude, b.getLatitude(), b.getLongitude());
-            return Double.compare(distanceA, distanceB);
-        });
+        int candidateSize = Math.max(safeSize * 3, safeSize);
 
-        if (nearby.size() > safeSize) {
-            nearby = nearby.subList(0, safeSize);
+        Pageable candidatePageable = PageRequest.of(safePage, candidateSize, Sort.by("createdAt").descending());
+        Page<ItemSummary> candidatesPage = itemRepository.findNearbyCandidates(box.minLat(), box.maxLat(),
+            box.minLng(), box.maxLng(), candidatePageable);
+
+        List<ItemSummary> candidates = candidatesPage.getContent();
+        double[] distances = GeoDistance.from(latitude, longitude).toKm(
+            candidates.stream().mapToDouble(ItemSummary::latitude).toArray(),
+            candidates.stream().mapToDouble(ItemSummary::longitude).toArray(),
+            radiusKm);
+
+        List<NearbyItem> nearby = new ArrayList<>();
+        for (int index : GeoDistance.nearestFirst(distances)) {
+            if (distances[index] > radiusKm || nearby.size() == safeSize) {
+                break;
+            }
+            nearby.add(new NearbyItem(candidates.get(index), distances[index]));
         }
 
         return new PageImpl<>(nearby, PageRequest.of(safePage, safeSize), candidatesPage.getTotalElements());
     }
 
+    /**
+     * One slice of the available items within {@code radiusKm}, nearest first and then by id.
+     * The cursor carries the distance and id of the last item, so the next slice resumes the
+     * sweep outward from there; an item moved in between is simply seen at its new distance.
+     */
     @Transactional(readOnly = true)
-    public Map<String, Double> getDistancesByItemId(double latitude, double longitude, List<Item> items) {
-        return items.stream().collect(Collectors.toMap(
-            Item::getId,
-            item -> calculateDistanceKm(latitude, longitude, item.getLatitude(), item.getLongitude())
-        ));
+    public CursorSlice<NearbyItem> scrollNearbyItems(double latitude, double longitude, double radiusKm,
+                                                      String cursor, int size) {
+        if (radiusKm <= 0) {
+            throw new RuntimeException("Radius must be greater than 0");
+        }
+
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        ItemGeoIndex.Neighbor after = position != null
+            ? new ItemGeoIndex.Neighbor(position.id(), position.doubleValue())
+            : null;
+        int limit = CursorSlice.clampSize(size);
+
+        List<ItemGeoIndex.Neighbor> neighbors = itemGeoIndex.nearestAfter(latitude, longitude, radiusKm, after, limit + 1)
+            .orElseGet(() -> nearestAfterFromDatabase(latitude, longitude, radiusKm, after, limit + 1));
+        CursorSlice<ItemGeoIndex.Neighbor> slice = CursorSlice.of(neighbors, limit,
+            neighbor -> KeysetCursor.encode(neighbor.distanceKm(), neighbor.itemId()));
+        return new CursorSlice<>(loadNearby(slice.getContent()), limit, slice.getNextCursor());
+    }
+
+    /**
+     * Summaries of the neighbors in the same order, each with the distance the ranking already
+     * computed. Neighbors whose item has gone since are left out.
+     */
+    private List<NearbyItem> loadNearby(List<ItemGeoIndex.Neighbor> neighbors) {
+        Map<String, ItemSummary> summariesById = loadSummaries(neighbors.stream().map(ItemGeoIndex.Neighbor::itemId).toList())
+            .stream()
+            .collect(Collectors.toMap(ItemSummary::id, summary -> summary));
+        return neighbors.stream()
+            .filter(neighbor -> summariesById.containsKey(neighbor.itemId()))
+            .map(neighbor -> new NearbyItem(summariesById.get(neighbor.itemId()), neighbor.distanceKm()))
+            .toList();
+    }
+
+    private List<ItemGeoIndex.Neighbor> nearestAfterFromDatabase(double latitude, double longitude, double radiusKm,
+                                                                 ItemGeoIndex.Neighbor after, int limit) {
+        BoundingBox box = BoundingBox.around(latitude, longitude, radiusKm);
+        List<ItemGeoPoint> points = itemRepository.findGeoPointsWithin(box.minLat(), box.maxLat(), box.minLng(), box.maxLng());
+        double[] distances = GeoDistance.from(latitude, longitude).toKm(
+            points.stream().mapToDouble(ItemGeoPoint::latitude).toArray(),
+            points.stream().mapToDouble(ItemGeoPoint::longitude).toArray(),
+            radiusKm);
+
+        List<ItemGeoIndex.Neighbor> neighbors = new ArrayList<>();
+        for (int i = 0; i < points.size(); i++) {
+            ItemGeoIndex.Neighbor neighbor = new ItemGeoIndex.Neighbor(points.get(i).id(), distances[i]);
+            if (distances[i] <= radiusKm && (after == null || ItemGeoIndex.NEAREST_FIRST.compare(neighbor, after) > 0)) {
+                neighbors.add(neighbor);
+            }
+        }
+        neighbors.sort(ItemGeoIndex.NEAREST_FIRST);
+        return neighbors.size() > limit ? neighbors.subList(0, limit) : neighbors;
+    }
+
+    private record BoundingBox(double minLat, double maxLat, double minLng, double maxLng) {
+
+        static BoundingBox around(double latitude, double longitude, double radiusKm) {
+            double latDelta = radiusKm / 111.0d;
+            double cosLat = Math.cos(Math.toRadians(latitude));
+            double lngDelta = radiusKm / (111.0d * Math.max(Math.abs(cosLat), 0.01d));
+            return new BoundingBox(
+                Math.max(-90.0d, latitude - latDelta),
+                Math.min(90.0d, latitude + latDelta),
+                Math.max(-180.0d, longitude - lngDelta),
+                Math.min(180.0d, longitude + lngDelta));
+        }
     }
 
-    private double calculateDistanceKm(double fromLat, double fromLng, double toLat, double toLng) {
-        final double earthRadiusKm = 6371.0;
+    /**
+     * Clusters of available items in the box for a map at {@code zoom}. At the deepest level
+     * each cluster also carries its items. {@code minLng > maxLng} crosses the antimeridian.
+     */
+    @Transactional(readOnly = true)
+    public List<MapCluster<ItemSummary>> getMapClusters(double minLat, double maxLat, double minLng, double maxLng, int zoom) {
+        if (minLat < -90 || maxLat > 90 || minLat > maxLat
+                || minLng < -180 || minLng > 180 || maxLng < -180 || maxLng > 180) {
+            throw new RuntimeException("Invalid bounding box");
+        }
+        int level = itemMapClusterIndex.levelForZoom(zoom);
+        if (itemMapClusterIndex.cellsCovering(minLat, maxLat, minLng, maxLng, level) > ItemMapClusterIndex.MAX_CELLS_PER_QUERY) {
+            throw new RuntimeException("Bounding box is too large for zoom level " + zoom);
+        }
 
-        double dLat = Math.toRadians(toLat - fromLat);
-        double dLng = Math.toRadians(toLng - fromLng);
+        List<ItemMapClusterIndex.Cluster> clusters = itemMapClusterIndex.clusters(minLat, maxLat, minLng, maxLng, level)
+            .orElseGet(() -> itemMapClusterIndex.aggregate(findMapPointsWithin(minLat, maxLat, minLng, maxLng), level));
 
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
-            + Math.cos(Math.toRadians(fromLat)) * Math.cos(Math.toRadians(toLat))
-            * Math.sin(dLng / 2) * Math.sin(dLng / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        // Largest clusters first until the response holds MAX_ITEMS_PER_QUERY items; the rest keep just their counts.
+        Set<String> expanded = new HashSet<>();
+        List<String> itemIds = new ArrayList<>();
+        for (ItemMapClusterIndex.Cluster cluster : clusters) {
+            if (cluster.itemIds() != null && itemIds.size() + cluster.itemIds().size() <= ItemMapClusterIndex.MAX_ITEMS_PER_QUERY) {
+                itemIds.addAll(cluster.itemIds());
+                expanded.add(cluster.cellId());
+            }
+        }
+        Map<String, ItemSummary> summariesById = loadSummaries(itemIds).stream()
+            .collect(Collectors.toMap(ItemSummary::id, summary -> summary));
+
+        return clusters.stream()
+            .map(cluster -> new MapCluster<>(cluster.cellId(), cluster.count(), cluster.latitude(), cluster.longitude(),
+                cluster.minPrice(), cluster.maxPrice(),
+                !expanded.contains(cluster.cellId()) ? null : cluster.itemIds().stream()
+                    .map(summariesById::get)
+                    .filter(Objects::nonNull)
+                    .toList()))
+            .toList();
+    }
 
-        return earthRadiusKm * c;
+    private List<ItemMapPoint> findMapPointsWithin(double minLat, double maxLat, double minLng, double maxLng) {
+        if (minLng <= maxLng) {
+            return itemRepository.findMapPointsWithin(minLat, maxLat, minLng, maxLng);
+        }
+        List<ItemMapPoint> points = new ArrayList<>(itemRepository.findMapPointsWithin(minLat, maxLat, minLng, 180.0));
+        points.addAll(itemRepository.findMapPointsWithin(minLat, maxLat, -180.0, maxLng));
+        return points;
     }
-    
+
     @Transactional
     public void deleteItem(String itemId, String userId) {
         Item item = getItemById(itemId);
@@ -294,19 +718,20 @@ public class ItemService {
         }
         
         itemRepository.delete(item);
+        eventPublisher.publishEvent(new ItemChangedEvent(ItemChangedEvent.ChangeType.DELETED, item));
     }
 
-    private PreparedImages prepareImages(String imageUrl, List<String> additionalImages) {
+    private PreparedImages prepareImages(String imageUrl, List<String> additionalImages, List<StagedImage> stagedImages) {
         List<String> normalizedImages = new ArrayList<>();
 
-        String normalizedMainImage = normalizeImageUrl(imageUrl);
+        String normalizedMainImage = normalizeImageUrl(imageUrl, stagedImages);
         if (normalizedMainImage != null) {
             normalizedImages.add(normalizedMainImage);
         }
 
         if (additionalImages != null) {
             for (String additionalImage : additionalImages) {
-                String normalizedAdditionalImage = normalizeImageUrl(additionalImage);
+                String normalizedAdditionalImage = normalizeImageUrl(additionalImage, stagedImages);
                 if (normalizedAdditionalImage != null) {
                     normalizedImages.add(normalizedAdditionalImage);
                 }
@@ -327,8 +752,31 @@ public class ItemService {
         return new PreparedImages(mainImage, additional);
     }
 
-    private String normalizeImageUrl(String imageUrl) {
-        return InputSanitizer.sanitizeNullable(imageUrl);
+    private String normalizeImageUrl(String imageUrl, List<StagedImage> stagedImages) {
+        if (imageUrl != null && imageUrl.trim().startsWith("data:")) {
+            StagedImage stagedImage = imageStorageService.stageDataUri(imageUrl.trim());
+            imageStorageService.commitOnTransactionSuccess(List.of(stagedImage));
+            stagedImages.add(stagedImage);
+            return stagedImage.key();
+        }
+
+        String sanitizedImageUrl = InputSanitizer.sanitizeNullable(imageUrl);
+        String imageKey = ImageUrls.extractKey(sanitizedImageUrl);
+        return imageKey != null ? imageKey : sanitizedImageUrl;
+    }
+
+    private String computePlaceholder(String mainImageKey, List<StagedImage> stagedImages) {
+        if (!ImageUrls.isImageKey(mainImageKey)) {
+            return null;
+        }
+
+        // Freshly uploaded images are still in staging until the transaction commits.
+        Optional<Path> imagePath = stagedImages.stream()
+            .filter(stagedImage -> stagedImage.key().equals(mainImageKey))
+            .map(StagedImage::file)
+            .findFirst()
+            .or(() -> imageStorageService.resolve(mainImageKey));
+        return imagePath.map(imageDerivativeService::placeholderFor).orElse(null);
     }
 
     private record PreparedImages(String mainImageUrl, List<String> additionalImageUrls) {}
@@ -0,0 +1,240 @@
+package com.renteasy.service;
+
+import com.renteasy.dto.UniqueViewerStats;
+import com.renteasy.util.HyperLogLog;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Approximate distinct viewers per item and day, kept as {@link HyperLogLog} sketches. A view
+ * only updates the in-memory sketch for the item and today. Every flush interval the sketches
+ * touched since the last flush are merged into the stored ones in one transaction, so several
+ * instances can write the same item and day. Counts over a range merge the stored sketches of
+ * each day with the ones still in memory.
+ */
+@Service
+public class ItemUniqueViewers {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemUniqueViewers.class);
+
+    private static final int FLUSH_CHUNK_SIZE = 500;
+
+    private static final String UPDATE_SQL = "UPDATE item_unique_viewers SET sketch = ? WHERE item_id = ? AND view_date = ?";
+    // Skips items deleted since the view instead of failing the whole batch on the foreign key.
+    private static final String INSERT_SQL =
+        "INSERT INTO item_unique_viewers (item_id, view_date, sketch) SELECT id, ?, ? FROM items WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long flushIntervalMillis;
+
+    private final Map<SketchKey, HyperLogLog> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "item-unique-viewers-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+
+    public ItemUniqueViewers(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.views.unique-flush-interval-ms:30000}") long flushIntervalMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void record(String itemId, String viewerKey) {
+        record(itemId, viewerKey, LocalDate.now());
+    }
+
+    void record(String itemId, String viewerKey, LocalDate date) {
+        // compute() runs under the map's lock for the key, so a flush never takes a sketch mid-update.
+        pending.compute(new SketchKey(itemId, date), (key, sketch) -> {
+            HyperLogLog updated = sketch != null ? sketch : new HyperLogLog();
+            updated.add(viewerKey);
+            return updated;
+        });
+    }
+
+    public UniqueViewerStats stats(String itemId, LocalDate from, LocalDate to) {
+        Map<LocalDate, HyperLogLog> sketches = new TreeMap<>();
+        jdbcTemplate.query(
+            "SELECT view_date, sketch FROM item_unique_viewers WHERE item_id = ? AND view_date BETWEEN ? AND ?",
+            rs -> {
+                sketches.put(rs.getDate("view_date").toLocalDate(), HyperLogLog.fromBytes(rs.getBytes("sketch")));
+            },
+            itemId, Date.valueOf(from), Date.valueOf(to));
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            HyperLogLog unflushed = copyPending(new SketchKey(itemId, date));
+            if (unflushed != null) {
+                sketches.merge(date, unflushed, (stored, inMemory) -> {
+                    stored.merge(inMemory);
+                    return stored;
+                });
+            }
+        }
+
+        HyperLogLog total = new HyperLogLog();
+        List<UniqueViewerStats.Day> days = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            HyperLogLog sketch = sketches.get(date);
+            if (sketch != null) {
+                total.merge(sketch);
+            }
+            days.add(new UniqueViewerStats.Day(date, sketch != null ? sketch.estimate() : 0));
+        }
+        return new UniqueViewerStats(itemId, from, to, total.estimate(), days);
+    }
+
+    /**
+     * Merges every pending sketch into the stored one for its item and day and returns how
+     * many sketches were written. Sketches that fail to write are kept for the next flush.
+     */
+    public synchronized int flush() {
+        Map<SketchKey, HyperLogLog> taken = new HashMap<>();
+        for (SketchKey key : pending.keySet()) {
+            HyperLogLog sketch = pending.remove(key);
+            if (sketch != null) {
+                taken.put(key, sketch);
+            }
+        }
+        if (taken.isEmpty()) {
+            return 0;
+        }
+
+        Map<LocalDate, Map<String, HyperLogLog>> byDate = new TreeMap<>();
+        taken.forEach((key, sketch) -> byDate.computeIfAbsent(key.date(), date -> new TreeMap<>()).put(key.itemId(), sketch));
+        try {
+            transactionTemplate.executeWithoutResult(status -> byDate.forEach(this::write));
+        } catch (RuntimeException e) {
+            taken.forEach((key, sketch) -> pending.merge(key, sketch, (current, failed) -> {
+                current.merge(failed);
+                return current;
+            }));
+            failedFlushes.incrementAndGet();
+            throw e;
+        }
+        flushes.incrementAndGet();
+        return taken.size();
+    }
+
+    private void write(LocalDate date, Map<String, HyperLogLog> sketchesByItem) {
+        Date viewDate = Date.valueOf(date);
+        List<String> itemIds = new ArrayList<>(sketchesByItem.keySet());
+        for (int start = 0; start < itemIds.size(); start += FLUSH_CHUNK_SIZE) {
+            List<String> chunk = itemIds.subList(start, Math.min(start + FLUSH_CHUNK_SIZE, itemIds.size()));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            List<Object> args = new ArrayList<>(chunk.size() + 1);
+            args.add(viewDate);
+            args.addAll(chunk);
+
+            // Locks the stored rows so a concurrent flush on another instance cannot lose our merge.
+            Map<String, HyperLogLog> stored = new HashMap<>();
+            jdbcTemplate.query(
+                "SELECT item_id, sketch FROM item_unique_viewers WHERE view_date = ? AND item_id IN (" + placeholders + ") FOR UPDATE",
+                rs -> {
+                    stored.put(rs.getString("item_id"), HyperLogLog.fromBytes(rs.getBytes("sketch")));
+                },
+                args.toArray());
+
+            List<Object[]> updates = new ArrayList<>();
+            List<Object[]> inserts = new ArrayList<>();
+            for (String itemId : chunk) {
+                HyperLogLog sketch = sketchesByItem.get(itemId);
+                HyperLogLog existing = stored.get(itemId);
+                if (existing != null) {
+                    existing.merge(sketch);
+                    updates.add(new Object[] {existing.toBytes(), itemId, viewDate});
+                } else {
+                    inserts.add(new Object[] {viewDate, sketch.toBytes(), itemId});
+                }
+            }
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+            }
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (event.type() == ItemChangedEvent.ChangeType.DELETED) {
+            pending.keySet().removeIf(key -> key.itemId().equals(event.itemId()));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(flushIntervalMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+
+    public int getPendingSketches() {
+        return pending.size();
+    }
+
+    public long getFlushCount() {
+        return flushes.get();
+    }
+
+    public long getFailedFlushCount() {
+        return failedFlushes.get();
+    }
+
+    private HyperLogLog copyPending(SketchKey key) {
+        HyperLogLog[] copy = new HyperLogLog[1];
+        pending.computeIfPresent(key, (k, sketch) -> {
+            copy[0] = sketch.copy();
+            return sketch;
+        });
+        return copy[0];
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to flush unique viewer sketches; they will be retried", e);
+        }
+    }
+
+    private record SketchKey(String itemId, LocalDate date) {}
+}
@@ -0,0 +1,218 @@
+package com.renteasy.service;
+
+import com.renteasy.search.ItemAutocompleteIndex;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind counter for item detail views. A view only increments an in-memory
+ * {@link LongAdder} for the item, so concurrent views neither contend on a lock nor lose
+ * increments, and the detail request never writes to the database. Every flush interval the
+ * accumulated counts go to the database in one batched {@code views = views + ?} update, which
+ * leaves the rest of the row (including {@code updated_at}) alone. Counts that fail to flush
+ * are kept for the next attempt, and whatever is pending is flushed on shutdown. An item with no
+ * views over a whole interval is dropped from memory, so only recently viewed items are
+ * tracked. Stored view
+ * counts therefore lag live traffic by up to one interval, and so does the suggestion ranking,
+ * which is handed each flushed batch.
+ */
+@Service
+public class ItemViewCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemViewCounter.class);
+
+    private static final String ADD_VIEWS_SQL = "UPDATE items SET views = views + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ItemAutocompleteIndex itemAutocompleteIndex;
+    private final long flushIntervalMillis;
+
+    private final Map<String, PendingViews> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "item-view-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder recorded = new LongAdder();
+    private final AtomicLong flushed = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private volatile LocalDateTime lastFlushAt;
+    private volatile long lastFlushMillis;
+    private volatile int lastFlushItems;
+
+    public ItemViewCounter(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           ItemAutocompleteIndex itemAutocompleteIndex,
+                           @Value("${app.views.flush-interval-ms:5000}") long flushIntervalMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.itemAutocompleteIndex = itemAutocompleteIndex;
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void record(String itemId) {
+        while (true) {
+            PendingViews pendingViews = pending.computeIfAbsent(itemId, id -> new PendingViews());
+            pendingViews.views.increment();
+            if (!pendingViews.retired) {
+                break;
+            }
+            // A flush is dropping the entry and may not have seen this view; take it back and retry.
+            pendingViews.views.decrement();
+        }
+        recorded.increment();
+    }
+
+    /**
+     * Views recorded for the item that are not in the database yet.
+     */
+    public long pendingViews(String itemId) {
+        PendingViews pendingViews = pending.get(itemId);
+        return pendingViews != null ? pendingViews.views.sum() : 0;
+    }
+
+    /**
+     * Writes all pending counts in one batch and returns how many views were written. Views
+     * recorded while the flush runs are left for the next one. Items without views since the
+     * last flush are dropped.
+     */
+    public synchronized long flush() {
+        long started = System.nanoTime();
+        // Sorted by id so concurrent flushes from several instances lock rows in the same order.
+        Map<String, Long> counts = new TreeMap<>();
+        for (String itemId : pending.keySet()) {
+            pending.computeIfPresent(itemId, (id, pendingViews) -> {
+                long count = pendingViews.views.sumThenReset();
+                if (count != 0) {
+                    counts.put(id, count);
+                    return pendingViews;
+                }
+                // Retire before the last look, so a view recorded after it sees the flag and retries.
+                pendingViews.retired = true;
+                if (pendingViews.views.sum() == 0) {
+                    return null;
+                }
+                pendingViews.retired = false;
+                return pendingViews;
+            });
+        }
+        if (counts.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> batch = new ArrayList<>(counts.size());
+        counts.forEach((itemId, count) -> batch.add(new Object[] {count, itemId}));
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(ADD_VIEWS_SQL, batch));
+        } catch (RuntimeException e) {
+            counts.forEach((itemId, count) -> pending.computeIfAbsent(itemId, id -> new PendingViews()).views.add(count));
+            failedFlushes.incrementAndGet();
+            throw e;
+        }
+        itemAutocompleteIndex.addViews(counts);
+
+        long total = counts.values().stream().mapToLong(Long::longValue).sum();
+        flushed.addAndGet(total);
+        flushes.incrementAndGet();
+        lastFlushAt = LocalDateTime.now();
+        lastFlushMillis = (System.nanoTime() - started) / 1_000_000;
+        lastFlushItems = counts.size();
+        return total;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (event.type() == ItemChangedEvent.ChangeType.DELETED) {
+            pending.remove(event.itemId());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(flushIntervalMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+
+    public long getRecordedViews() {
+        return recorded.sum();
+    }
+
+    public long getFlushedViews() {
+        return flushed.get();
+    }
+
+    public long getPendingViews() {
+        return pending.values().stream().mapToLong(pendingViews -> pendingViews.views.sum()).sum();
+    }
+
+    public int getTrackedItems() {
+        return pending.size();
+    }
+
+    public long getFlushCount() {
+        return flushes.get();
+    }
+
+    public long getFailedFlushCount() {
+        return failedFlushes.get();
+    }
+
+    public LocalDateTime getLastFlushAt() {
+        return lastFlushAt;
+    }
+
+    public long getLastFlushMillis() {
+        return lastFlushMillis;
+    }
+
+    public int getLastFlushItems() {
+        return lastFlushItems;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to flush item view counts; they will be retried", e);
+        }
+    }
+
+    private static final class PendingViews {
+        private final LongAdder views = new LongAdder();
+        private volatile boolean retired;
+    }
+}
@@ -1,10 +1,13 @@
 package com.renteasy.service;
 
+import com.renteasy.dto.CursorSlice;
 import com.renteasy.model.Notification;
 import com.renteasy.model.User;
 import com.renteasy.repository.NotificationRepository;
 import com.renteasy.repository.UserRepository;
+import com.renteasy.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -45,6 +48,16 @@ public class NotificationService {
         Pageable pageable = PageRequest.of(page, size);
         return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
     }
+
+    @Transactional(readOnly = true)
+    public CursorSlice<Notification> scrollUserNotifications(String userId, String cursor, int size) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        int limit = CursorSlice.clampSize(size);
+        List<Notification> rows = position == null
+            ? notificationRepository.findFeedByUserId(userId, Limit.of(limit + 1))
+            : notificationRepository.findFeedByUserIdAfter(userId, position.dateTimeValue(), position.id(), Limit.of(limit + 1));
+        return CursorSlice.of(rows, limit, notification -> KeysetCursor.encode(notification.getCreatedAt(), notification.getId()));
+    }
     
     @Transactional(readOnly = true)
     public List<Notification> getUnreadNotifications(String userId) {
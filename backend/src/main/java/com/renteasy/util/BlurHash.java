@@ -0,0 +1,124 @@
+package com.renteasy.util;
+
+/**
+ * Encoder for the BlurHash format (https://blurha.sh): a ~30 character string that clients
+ * decode into a blurred preview of an image.
+ */
+public final class BlurHash {
+
+    private static final String BASE83_CHARACTERS =
+        "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+    private BlurHash() {
+    }
+
+    /**
+     * Encodes packed {@code 0xRRGGBB} pixels (row-major) using the given number of horizontal and
+     * vertical components, each between 1 and 9.
+     */
+    public static String encode(int[] pixels, int width, int height, int componentsX, int componentsY) {
+        if (componentsX < 1 || componentsX > 9 || componentsY < 1 || componentsY > 9) {
+            throw new IllegalArgumentException("BlurHash components must be between 1 and 9");
+        }
+        if (width <= 0 || height <= 0 || pixels.length < width * height) {
+            throw new IllegalArgumentException("Pixel data does not match the image size");
+        }
+
+        double[] linearRed = new double[width * height];
+        double[] linearGreen = new double[width * height];
+        double[] linearBlue = new double[width * height];
+        for (int i = 0; i < width * height; i++) {
+            linearRed[i] = srgbToLinear((pixels[i] >> 16) & 0xFF);
+            linearGreen[i] = srgbToLinear((pixels[i] >> 8) & 0xFF);
+            linearBlue[i] = srgbToLinear(pixels[i] & 0xFF);
+        }
+
+        double[][] factors = new double[componentsX * componentsY][];
+        for (int j = 0; j < componentsY; j++) {
+            for (int i = 0; i < componentsX; i++) {
+                factors[j * componentsX + i] = basisFactor(i, j, width, height, linearRed, linearGreen, linearBlue);
+            }
+        }
+
+        StringBuilder hash = new StringBuilder(6 + 2 * (factors.length - 1));
+        encodeBase83((componentsX - 1) + (componentsY - 1) * 9, 1, hash);
+
+        double maximumValue = 1;
+        if (factors.length > 1) {
+            double actualMaximum = 0;
+            for (int i = 1; i < factors.length; i++) {
+                for (double component : factors[i]) {
+                    actualMaximum = Math.max(actualMaximum, Math.abs(component));
+                }
+            }
+            int quantisedMaximum = (int) Math.max(0, Math.min(82, Math.floor(actualMaximum * 166 - 0.5)));
+            maximumValue = (quantisedMaximum + 1) / 166.0;
+            encodeBase83(quantisedMaximum, 1, hash);
+        } else {
+            encodeBase83(0, 1, hash);
+        }
+
+        double[] dc = factors[0];
+        encodeBase83((linearToSrgb(dc[0]) << 16) + (linearToSrgb(dc[1]) << 8) + linearToSrgb(dc[2]), 4, hash);
+
+        for (int i = 1; i < factors.length; i++) {
+            double[] ac = factors[i];
+            int value = quantiseAc(ac[0], maximumValue) * 19 * 19
+                + quantiseAc(ac[1], maximumValue) * 19
+                + quantiseAc(ac[2], maximumValue);
+            encodeBase83(value, 2, hash);
+        }
+
+        return hash.toString();
+    }
+
+    private static double[] basisFactor(int xComponent, int yComponent, int width, int height,
+                                        double[] red, double[] green, double[] blue) {
+        double r = 0;
+        double g = 0;
+        double b = 0;
+        double normalisation = (xComponent == 0 && yComponent == 0) ? 1 : 2;
+
+        for (int y = 0; y < height; y++) {
+            double yBasis = Math.cos(Math.PI * yComponent * y / height);
+            for (int x = 0; x < width; x++) {
+                double basis = normalisation * Math.cos(Math.PI * xComponent * x / width) * yBasis;
+                int index = y * width + x;
+                r += basis * red[index];
+                g += basis * green[index];
+                b += basis * blue[index];
+            }
+        }
+
+        double scale = 1.0 / (width * height);
+        return new double[] {r * scale, g * scale, b * scale};
+    }
+
+    private static int quantiseAc(double value, double maximumValue) {
+        double normalised = signedPow(value / maximumValue, 0.5);
+        return (int) Math.max(0, Math.min(18, Math.floor(normalised * 9 + 9.5)));
+    }
+
+    private static double signedPow(double value, double exponent) {
+        return Math.copySign(Math.pow(Math.abs(value), exponent), value);
+    }
+
+    private static double srgbToLinear(int value) {
+        double v = value / 255.0;
+        return v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4);
+    }
+
+    private static int linearToSrgb(double value) {
+        double v = Math.max(0, Math.min(1, value));
+        return v <= 0.0031308
+            ? (int) (v * 12.92 * 255 + 0.5)
+            : (int) ((1.055 * Math.pow(v, 1 / 2.4) - 0.055) * 255 + 0.5);
+    }
+
+    private static void encodeBase83(int value, int length, StringBuilder target) {
+        for (int i = 1; i <= length; i++) {
+            int digit = (value / (int) Math.pow(83, length - i)) % 83;
+            target.append(BASE83_CHARACTERS.charAt(digit));
+        }
+    }
+}
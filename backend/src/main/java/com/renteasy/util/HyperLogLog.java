@@ -0,0 +1,180 @@
+package com.renteasy.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog sketch for counting distinct values approximately in a fixed amount of memory.
+ * With the default precision of 12 it keeps 4096 one-byte registers and estimates counts
+ * with a standard error of about 1.6%. Sketches of the same precision merge by taking the
+ * larger of each register, so per-day or per-node sketches can be combined into one.
+ * {@link #toBytes()} stores only the non-zero registers while there are few of them, so
+ * sketches of rarely seen items stay a few bytes long. Not thread-safe.
+ */
+public final class HyperLogLog {
+
+    public static final int DEFAULT_PRECISION = 12;
+
+    private static final byte DENSE = 1;
+    private static final byte SPARSE = 2;
+    private static final int HEADER_BYTES = 2;
+    private static final int SPARSE_ENTRY_BYTES = 3;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("HyperLogLog precision must be between 4 and 16");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Adds a value and returns whether the sketch changed.
+     */
+    public boolean add(String value) {
+        return addHash(hash64(value));
+    }
+
+    boolean addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // Position of the first 1 bit after the index bits; the guard bit caps it at 64 - p + 1.
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+            return true;
+        }
+        return false;
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // Linear counting is far more accurate while many registers are still empty.
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge HyperLogLog sketches of different precision");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public HyperLogLog copy() {
+        HyperLogLog copy = new HyperLogLog(precision);
+        System.arraycopy(registers, 0, copy.registers, 0, registers.length);
+        return copy;
+    }
+
+    public int precision() {
+        return precision;
+    }
+
+    public byte[] toBytes() {
+        int nonZero = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                nonZero++;
+            }
+        }
+
+        if (nonZero * SPARSE_ENTRY_BYTES >= registers.length) {
+            byte[] bytes = new byte[HEADER_BYTES + registers.length];
+            bytes[0] = DENSE;
+            bytes[1] = (byte) precision;
+            System.arraycopy(registers, 0, bytes, HEADER_BYTES, registers.length);
+            return bytes;
+        }
+
+        byte[] bytes = new byte[HEADER_BYTES + nonZero * SPARSE_ENTRY_BYTES];
+        bytes[0] = SPARSE;
+        bytes[1] = (byte) precision;
+        int offset = HEADER_BYTES;
+        for (int i = 0; i < registers.length; i++) {
+            if (registers[i] != 0) {
+                bytes[offset] = (byte) (i >>> 8);
+                bytes[offset + 1] = (byte) i;
+                bytes[offset + 2] = registers[i];
+                offset += SPARSE_ENTRY_BYTES;
+            }
+        }
+        return bytes;
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length < HEADER_BYTES) {
+            throw new IllegalArgumentException("Invalid HyperLogLog sketch");
+        }
+        HyperLogLog sketch = new HyperLogLog(bytes[1]);
+        int m = sketch.registers.length;
+        if (bytes[0] == DENSE && bytes.length == HEADER_BYTES + m) {
+            System.arraycopy(bytes, HEADER_BYTES, sketch.registers, 0, m);
+            return sketch;
+        }
+        if (bytes[0] == SPARSE && (bytes.length - HEADER_BYTES) % SPARSE_ENTRY_BYTES == 0) {
+            for (int offset = HEADER_BYTES; offset < bytes.length; offset += SPARSE_ENTRY_BYTES) {
+                int index = ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+                if (index >= m) {
+                    throw new IllegalArgumentException("Invalid HyperLogLog sketch");
+                }
+                sketch.registers[index] = bytes[offset + 2];
+            }
+            return sketch;
+        }
+        throw new IllegalArgumentException("Invalid HyperLogLog sketch");
+    }
+
+    /**
+     * 64-bit FNV-1a of the UTF-8 bytes, finished with the MurmurHash3 mixer so that every
+     * output bit depends on every input bit.
+     */
+    static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof HyperLogLog sketch
+            && sketch.precision == precision
+            && Arrays.equals(sketch.registers, registers);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * precision + Arrays.hashCode(registers);
+    }
+}
@@ -0,0 +1,71 @@
+package com.renteasy.util;
+
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+public final class ImageUrls {
+
+    public static final String IMAGE_PATH = "/api/images/";
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}\\.(jpg|png|gif|webp)");
+    private static final Pattern IMAGE_URL_PATTERN =
+        Pattern.compile("^(?:https?://[^/]+)?(?:/[^?#]*)?" + Pattern.quote(IMAGE_PATH) + "(" + KEY_PATTERN.pattern() + ")(?:[?#].*)?$");
+
+    private ImageUrls() {
+    }
+
+    public static boolean isImageKey(String value) {
+        return value != null && KEY_PATTERN.matcher(value).matches();
+    }
+
+    /**
+     * Whether the stored value is an inline base64 {@code data:} URI rather than a key or URL.
+     */
+    public static boolean isDataUri(String value) {
+        return value != null && value.trim().startsWith("data:");
+    }
+
+    /**
+     * Returns the image key referenced by either a bare key or a URL pointing at the image endpoint,
+     * or {@code null} when the value is neither.
+     */
+    public static String extractKey(String value) {
+        if (value == null) {
+            return null;
+        }
+        if (isImageKey(value)) {
+            return value;
+        }
+        Matcher matcher = IMAGE_URL_PATTERN.matcher(value);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    /**
+     * Turns a stored image reference into something a client can load. Keys become URLs on the
+     * image endpoint; legacy data URIs and external URLs are passed through untouched.
+     */
+    public static String toPublicUrl(String storedValue) {
+        if (!isImageKey(storedValue)) {
+            return storedValue;
+        }
+        if (RequestContextHolder.getRequestAttributes() == null) {
+            return IMAGE_PATH + storedValue;
+        }
+        return ServletUriComponentsBuilder.fromCurrentContextPath()
+            .path(IMAGE_PATH)
+            .path(storedValue)
+            .toUriString();
+    }
+
+    public static List<String> toPublicUrls(List<String> storedValues) {
+        if (storedValues == null) {
+            return null;
+        }
+        return storedValues.stream().map(ImageUrls::toPublicUrl).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,67 @@
+package com.renteasy.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a feed ordered by a sort column and then id, both descending (nearby search:
+ * both ascending). Clients get it as an opaque URL-safe string and send it back unchanged to
+ * fetch the rows that follow.
+ */
+public record KeysetCursor(String value, String id) {
+
+    private static final char SEPARATOR = '|';
+
+    public static String encode(Object value, String id) {
+        String raw = value + String.valueOf(SEPARATOR) + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor from {@link #encode}, or returns {@code null} for a blank one, which means
+     * the first page.
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+        int separator = raw.lastIndexOf(SEPARATOR);
+        if (separator <= 0 || separator == raw.length() - 1) {
+            throw new RuntimeException("Invalid cursor");
+        }
+        return new KeysetCursor(raw.substring(0, separator), raw.substring(separator + 1));
+    }
+
+    public LocalDateTime dateTimeValue() {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    public double doubleValue() {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    public int intValue() {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+}
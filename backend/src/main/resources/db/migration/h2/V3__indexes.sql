@@ -0,0 +1,41 @@
+-- Indexes for the item feeds, /api/items/query and the per-user booking and notification
+-- feeds. H2 has neither partial nor expression indexes, so where PostgreSQL indexes only the
+-- available items these lead with the available column instead, and the category listing
+-- index is on the plain columns.
+
+-- A database created by ddl-auto=update while the entities still declared @Index may already
+-- have indexes with these names but other columns. Drop them so the definitions below apply.
+DROP INDEX IF EXISTS idx_items_available_created;
+DROP INDEX IF EXISTS idx_items_category_listing;
+DROP INDEX IF EXISTS idx_items_category_price;
+DROP INDEX IF EXISTS idx_items_available_price;
+DROP INDEX IF EXISTS idx_items_available_views;
+DROP INDEX IF EXISTS idx_items_available_coordinates;
+DROP INDEX IF EXISTS idx_items_owner_created;
+DROP INDEX IF EXISTS idx_items_boosted_until;
+DROP INDEX IF EXISTS idx_bookings_item_dates;
+DROP INDEX IF EXISTS idx_bookings_user_created;
+DROP INDEX IF EXISTS idx_notifications_user_created;
+
+CREATE INDEX idx_items_available_created ON items (available, created_at DESC, id DESC);
+CREATE INDEX idx_items_category_listing ON items (available, category, subcategory, created_at DESC);
+CREATE INDEX idx_items_category_price ON items (available, category, price);
+CREATE INDEX idx_items_available_price ON items (available, price, id);
+CREATE INDEX idx_items_available_views ON items (available, views DESC, id DESC);
+CREATE INDEX idx_items_available_coordinates ON items (available, latitude, longitude);
+CREATE INDEX idx_items_owner_created ON items (owner_id, created_at DESC, id DESC);
+CREATE INDEX idx_items_boosted_until ON items (boosted, boosted_until DESC, id DESC);
+
+CREATE INDEX idx_item_images_item ON item_images (item_id);
+CREATE INDEX idx_item_available_dates_item ON item_available_dates (item_id);
+CREATE INDEX idx_user_saved_items_user ON user_saved_items (user_id);
+
+CREATE INDEX idx_bookings_item_dates ON bookings (item_id, start_date, end_date);
+CREATE INDEX idx_bookings_user_created ON bookings (user_id, created_at DESC, id DESC);
+CREATE INDEX idx_feedbacks_user ON feedbacks (user_id);
+
+CREATE INDEX idx_comments_item_created ON comments (item_id, created_at DESC);
+CREATE INDEX idx_comments_parent ON comments (parent_id);
+
+CREATE INDEX idx_notifications_user_created ON notifications (user_id, created_at DESC, id DESC);
+CREATE INDEX idx_notifications_user_unread ON notifications (user_id, read, created_at DESC);
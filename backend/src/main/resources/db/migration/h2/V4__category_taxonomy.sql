@@ -0,0 +1,99 @@
+-- Category and subcategory taxonomy with integer keys. Items reference it by id, so category
+-- listings and the /api/categories counts are integer equality lookups instead of
+-- LOWER(TRIM(...)) comparisons on free text.
+
+CREATE TABLE categories (
+    id INTEGER NOT NULL,
+    slug VARCHAR(255) NOT NULL UNIQUE,
+    name VARCHAR(255) NOT NULL,
+    sort_order INTEGER NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE subcategories (
+    id INTEGER NOT NULL,
+    category_id INTEGER NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    sort_order INTEGER NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_subcategories_category_name UNIQUE (category_id, name),
+    CONSTRAINT fk_subcategories_category FOREIGN KEY (category_id) REFERENCES categories (id)
+);
+
+INSERT INTO categories (id, slug, name, sort_order) VALUES
+(1, 'vehicles', 'Vehicles', 1),
+(2, 'properties', 'Properties', 2),
+(3, 'electronics', 'Electronics', 3),
+(4, 'clothing', 'Clothing', 4),
+(5, 'tools', 'Tools', 5),
+(6, 'sports', 'Sports', 6),
+(7, 'camping', 'Camping', 7),
+(8, 'events', 'Events', 8);
+
+INSERT INTO subcategories (id, category_id, name, sort_order) VALUES
+(1, 1, 'Cars', 1),
+(2, 1, 'Motorbikes', 2),
+(3, 1, 'Bicycles', 3),
+(4, 1, 'Trucks/Lorries', 4),
+(5, 2, 'Apartments/Houses', 1),
+(6, 2, 'Office space/co-works', 2),
+(7, 2, 'Event Halls/Conference rooms', 3),
+(8, 2, 'Storage units', 4),
+(9, 3, 'Cameras', 1),
+(10, 3, 'Laptops/monitors/projectors', 2),
+(11, 3, 'Gaming consoles', 3),
+(12, 3, 'Party items', 4),
+(13, 4, 'Wedding dresses/suits', 1),
+(14, 4, 'Party costumes', 2),
+(15, 4, 'Theater Costumes', 3),
+(16, 5, 'Power tools', 1),
+(17, 5, 'Construction equipment', 2),
+(18, 6, 'Indoor courts', 1),
+(19, 6, 'Outdoor courts', 2),
+(20, 6, 'Swimming pools', 3),
+(21, 6, 'Badminton courts', 4),
+(22, 6, 'Grounds', 5),
+(23, 7, 'Camping items', 1),
+(24, 7, 'Tour Guiders', 2),
+(25, 8, 'Electric items', 1),
+(26, 8, 'Event items', 2);
+
+-- Categories and subcategories that existing items use but the taxonomy does not have are
+-- kept as entries of their own, after the standard ones.
+INSERT INTO categories (id, slug, name, sort_order)
+SELECT (SELECT MAX(id) FROM categories) + ROW_NUMBER() OVER (ORDER BY legacy.slug),
+       legacy.slug, legacy.slug, 100 + ROW_NUMBER() OVER (ORDER BY legacy.slug)
+FROM (SELECT DISTINCT LOWER(TRIM(category)) AS slug FROM items) legacy
+WHERE NOT EXISTS (SELECT 1 FROM categories c WHERE c.slug = legacy.slug);
+
+INSERT INTO subcategories (id, category_id, name, sort_order)
+SELECT (SELECT MAX(id) FROM subcategories) + ROW_NUMBER() OVER (ORDER BY legacy.category_id, legacy.name),
+       legacy.category_id, legacy.name, 100 + ROW_NUMBER() OVER (ORDER BY legacy.category_id, legacy.name)
+FROM (SELECT c.id AS category_id, MIN(TRIM(i.subcategory)) AS name
+      FROM items i JOIN categories c ON c.slug = LOWER(TRIM(i.category))
+      WHERE TRIM(i.subcategory) <> ''
+      GROUP BY c.id, LOWER(TRIM(i.subcategory))) legacy
+WHERE NOT EXISTS (SELECT 1 FROM subcategories s
+                  WHERE s.category_id = legacy.category_id AND LOWER(s.name) = LOWER(legacy.name));
+
+ALTER TABLE items ADD COLUMN category_id INTEGER;
+ALTER TABLE items ADD COLUMN subcategory_id INTEGER;
+
+UPDATE items SET category_id = (SELECT c.id FROM categories c WHERE c.slug = LOWER(TRIM(items.category)));
+UPDATE items SET subcategory_id = (SELECT s.id FROM subcategories s
+                                   WHERE s.category_id = items.category_id
+                                     AND LOWER(s.name) = LOWER(TRIM(items.subcategory)));
+
+-- The name columns stay as the display values and now always hold the taxonomy's spelling.
+UPDATE items SET category = (SELECT c.slug FROM categories c WHERE c.id = items.category_id),
+                 subcategory = (SELECT s.name FROM subcategories s WHERE s.id = items.subcategory_id);
+
+ALTER TABLE items ALTER COLUMN category_id SET NOT NULL;
+ALTER TABLE items ADD CONSTRAINT fk_items_category FOREIGN KEY (category_id) REFERENCES categories (id);
+ALTER TABLE items ADD CONSTRAINT fk_items_subcategory FOREIGN KEY (subcategory_id) REFERENCES subcategories (id);
+
+DROP INDEX idx_items_category_listing;
+DROP INDEX idx_items_category_price;
+
+CREATE INDEX idx_items_category_listing ON items (available, category_id, subcategory_id, created_at DESC, id DESC);
+CREATE INDEX idx_items_category_price ON items (available, category_id, price);
@@ -0,0 +1,12 @@
+-- Decayed trending scores per item, persisted periodically by ItemTrendingIndex so the
+-- /api/items/popular ranking survives restarts. Scores are valid as of scored_at and keep
+-- decaying from there.
+
+CREATE TABLE item_trending_scores (
+    item_id VARCHAR(255) NOT NULL,
+    day_score DOUBLE PRECISION NOT NULL,
+    week_score DOUBLE PRECISION NOT NULL,
+    scored_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (item_id),
+    CONSTRAINT fk_item_trending_scores_item FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE
+);
@@ -0,0 +1,172 @@
+-- Schema as previously created by Hibernate's ddl-auto=update. Every statement is guarded so
+-- that databases created that way can be baselined onto it; columns added to items after the
+-- first release are added when missing.
+
+CREATE TABLE IF NOT EXISTS users (
+    id VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255) NOT NULL,
+    last_name VARCHAR(255) NOT NULL,
+    phone_number VARCHAR(255),
+    address VARCHAR(255),
+    city VARCHAR(255),
+    country VARCHAR(255),
+    profile_image_url VARCHAR(255),
+    role VARCHAR(255) NOT NULL CHECK (role IN ('USER', 'ADMIN', 'OWNER')),
+    active BOOLEAN NOT NULL,
+    email_verified BOOLEAN NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS items (
+    id VARCHAR(255) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    category VARCHAR(255) NOT NULL,
+    subcategory VARCHAR(255),
+    price NUMERIC(38, 2) NOT NULL,
+    image_url TEXT,
+    card_image_key VARCHAR(255),
+    detail_image_key VARCHAR(255),
+    image_placeholder VARCHAR(255),
+    available BOOLEAN NOT NULL,
+    owner_id VARCHAR(255) NOT NULL,
+    owner_phone_number VARCHAR(255),
+    location VARCHAR(255),
+    latitude DOUBLE PRECISION,
+    longitude DOUBLE PRECISION,
+    minimum_rental_period INTEGER,
+    maximum_rental_period INTEGER,
+    views INTEGER NOT NULL,
+    boosted BOOLEAN NOT NULL,
+    boosted_until TIMESTAMP(6),
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_items_owner FOREIGN KEY (owner_id) REFERENCES users (id)
+);
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS card_image_key VARCHAR(255);
+ALTER TABLE items ADD COLUMN IF NOT EXISTS detail_image_key VARCHAR(255);
+ALTER TABLE items ADD COLUMN IF NOT EXISTS image_placeholder VARCHAR(255);
+
+CREATE TABLE IF NOT EXISTS item_content (
+    item_id VARCHAR(255) NOT NULL,
+    description TEXT,
+    PRIMARY KEY (item_id),
+    CONSTRAINT fk_item_content_item FOREIGN KEY (item_id) REFERENCES items (id)
+);
+
+CREATE TABLE IF NOT EXISTS item_images (
+    item_id VARCHAR(255) NOT NULL,
+    image_url TEXT,
+    CONSTRAINT fk_item_images_item FOREIGN KEY (item_id) REFERENCES items (id)
+);
+
+CREATE TABLE IF NOT EXISTS item_available_dates (
+    item_id VARCHAR(255) NOT NULL,
+    available_date DATE,
+    CONSTRAINT fk_item_available_dates_item FOREIGN KEY (item_id) REFERENCES items (id)
+);
+
+CREATE TABLE IF NOT EXISTS user_saved_items (
+    user_id VARCHAR(255) NOT NULL,
+    item_id VARCHAR(255) NOT NULL,
+    PRIMARY KEY (item_id, user_id),
+    CONSTRAINT fk_user_saved_items_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_user_saved_items_item FOREIGN KEY (item_id) REFERENCES items (id)
+);
+
+CREATE TABLE IF NOT EXISTS bookings (
+    id VARCHAR(255) NOT NULL,
+    item_id VARCHAR(255) NOT NULL,
+    user_id VARCHAR(255) NOT NULL,
+    start_date DATE NOT NULL,
+    end_date DATE NOT NULL,
+    rental_days INTEGER NOT NULL,
+    total_price NUMERIC(38, 2) NOT NULL,
+    status VARCHAR(255) NOT NULL
+        CHECK (status IN ('PENDING', 'CONFIRMED', 'IN_PROGRESS', 'COMPLETED', 'CANCELLED', 'REFUNDED')),
+    delivery_address VARCHAR(255),
+    special_instructions VARCHAR(255),
+    payment_status VARCHAR(255) NOT NULL,
+    payment_transaction_id VARCHAR(255),
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_bookings_item FOREIGN KEY (item_id) REFERENCES items (id),
+    CONSTRAINT fk_bookings_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS feedbacks (
+    id VARCHAR(255) NOT NULL,
+    booking_id VARCHAR(255) NOT NULL UNIQUE,
+    user_id VARCHAR(255) NOT NULL,
+    rating INTEGER NOT NULL,
+    comment VARCHAR(1000),
+    created_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_feedbacks_booking FOREIGN KEY (booking_id) REFERENCES bookings (id),
+    CONSTRAINT fk_feedbacks_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS comments (
+    id VARCHAR(255) NOT NULL,
+    item_id VARCHAR(255) NOT NULL,
+    user_id VARCHAR(255) NOT NULL,
+    parent_id VARCHAR(255),
+    content VARCHAR(1000) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_comments_item FOREIGN KEY (item_id) REFERENCES items (id),
+    CONSTRAINT fk_comments_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_comments_parent FOREIGN KEY (parent_id) REFERENCES comments (id)
+);
+
+CREATE TABLE IF NOT EXISTS notifications (
+    id VARCHAR(255) NOT NULL,
+    user_id VARCHAR(255) NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    message VARCHAR(1000),
+    type VARCHAR(255) NOT NULL
+        CHECK (type IN ('BOOKING_CONFIRMED', 'BOOKING_CANCELLED', 'PAYMENT_SUCCESS', 'PAYMENT_FAILED',
+                        'NEW_MESSAGE', 'ITEM_AVAILABLE', 'FEEDBACK_RECEIVED', 'SYSTEM_NOTIFICATION')),
+    read BOOLEAN NOT NULL,
+    related_entity_id VARCHAR(255),
+    related_entity_type VARCHAR(255),
+    created_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_notifications_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS advertisements (
+    id VARCHAR(255) NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    description VARCHAR(1000),
+    image_url VARCHAR(255) NOT NULL,
+    link_url VARCHAR(255),
+    ad_position VARCHAR(255) CHECK (ad_position IN ('BANNER_TOP', 'BANNER_BOTTOM', 'SIDEBAR', 'CAROUSEL', 'POPUP')),
+    active BOOLEAN NOT NULL,
+    start_date TIMESTAMP(6) NOT NULL,
+    end_date TIMESTAMP(6) NOT NULL,
+    impressions INTEGER NOT NULL,
+    clicks INTEGER NOT NULL,
+    cost NUMERIC(38, 2),
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS migration_checkpoints (
+    name VARCHAR(255) NOT NULL,
+    last_processed_id VARCHAR(255),
+    processed_count BIGINT NOT NULL,
+    migrated_count BIGINT NOT NULL,
+    failed_count BIGINT NOT NULL,
+    completed BOOLEAN NOT NULL,
+    updated_at TIMESTAMP(6),
+    PRIMARY KEY (name)
+);
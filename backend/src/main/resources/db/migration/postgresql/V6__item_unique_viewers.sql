@@ -0,0 +1,10 @@
+-- One HyperLogLog sketch of distinct viewers per item and day, written in batches by
+-- ItemUniqueViewers. Sketches of several days merge into a count of viewers over the range.
+
+CREATE TABLE item_unique_viewers (
+    item_id VARCHAR(255) NOT NULL,
+    view_date DATE NOT NULL,
+    sketch BYTEA NOT NULL,
+    PRIMARY KEY (item_id, view_date),
+    CONSTRAINT fk_item_unique_viewers_item FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE
+);
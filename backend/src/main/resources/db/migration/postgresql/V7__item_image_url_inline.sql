@@ -0,0 +1,6 @@
+-- Marks items whose image_url still holds an inline data: URI, so list queries can skip the
+-- column for them without reading it. The Item entity keeps the flag in step from now on.
+
+ALTER TABLE items ADD COLUMN image_url_inline BOOLEAN NOT NULL DEFAULT FALSE;
+
+UPDATE items SET image_url_inline = TRUE WHERE LTRIM(image_url) LIKE 'data:%';
@@ -0,0 +1,71 @@
+-- Initial data for testing. Only on the development H2 database; re-applied whenever this
+-- file changes, so rows are merged on their keys instead of inserted.
+MERGE INTO users (id, email, password, first_name, last_name, role, active, email_verified, created_at, updated_at) KEY (id)
+VALUES 
+('admin-001', 'admin@renteasy.com', '$2a$12$YourBcryptHashPlaceholderUseStrongValueInRealEnv0000000', 'Admin', 'User', 'ADMIN', true, true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+('user-001', 'john@example.com', '$2a$12$YourBcryptHashPlaceholderUseStrongValueInRealEnv0000000', 'John', 'Doe', 'USER', true, true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+('anon-user', 'anonymous@renteasy.local', '$2a$12$YourBcryptHashPlaceholderUseStrongValueInRealEnv0000000', 'Anonymous', 'User', 'USER', true, false, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
+
+-- Sample Items with Categories and Subcategories
+
+-- VEHICLES - Cars
+MERGE INTO items (id, name, category, category_id, subcategory, subcategory_id, price, location, owner_id, available, views, boosted, created_at) KEY (id)
+VALUES 
+('item-car-001', 'Toyota Camry 2020', 'vehicles', 1, 'Cars', 1, 5000.00, 'Colombo', 'anon-user', true, 5, false, CURRENT_TIMESTAMP),
+('item-car-002', 'Honda Civic Hybrid', 'vehicles', 1, 'Cars', 1, 4500.00, 'Colombo', 'anon-user', true, 3, false, CURRENT_TIMESTAMP),
+('item-car-003', 'BMW 3 Series', 'vehicles', 1, 'Cars', 1, 8000.00, 'Colombo', 'anon-user', true, 10, false, CURRENT_TIMESTAMP);
+
+-- VEHICLES - Motorbikes
+MERGE INTO items (id, name, category, category_id, subcategory, subcategory_id, price, location, owner_id, available, views, boosted, created_at) KEY (id)
+VALUES 
+('item-bike-001', 'Harley Davidson', 'vehicles', 1, 'Motorbikes', 2, 6000.00, 'Colombo', 'anon-user', true, 8, false, CURRENT_TIMESTAMP),
+('item-bike-002', 'Royal Enfield', 'vehicles', 1, 'Motorbikes', 2, 3500.00, 'Colombo', 'anon-user', true, 12, false, CURRENT_TIMESTAMP);
+
+-- VEHICLES - Bicycles
+MERGE INTO items (id, name, category, category_id, subcategory, subcategory_id, price, location, owner_id, available, views, boosted, created_at) KEY (id)
+VALUES 
+('item-bicycle-001', 'Mountain Bike', 'vehicles', 1, 'Bicycles', 3, 500.00, 'Colombo', 'anon-user', true, 4, false, CURRENT_TIMESTAMP);
+
+-- CLOTHING - Party Costumes
+MERGE INTO items (id, name, category, category_id, subcategory, subcategory_id, price, location, owner_id, available, views, boosted, created_at) KEY (id)
+VALUES 
+('item-costume-001', 'Princess Costume', 'clothing', 4, 'Party costumes', 14, 300.00, 'Colombo', 'anon-user', true, 7, false, CURRENT_TIMESTAMP),
+('item-costume-002', 'Superhero Outfit', 'clothing', 4, 'Party costumes', 14, 250.00, 'Colombo', 'anon-user', true, 6, false, CURRENT_TIMESTAMP);
+
+-- ELECTRONICS - Cameras
+MERGE INTO items (id, name, category, category_id, subcategory, subcategory_id, price, location, owner_id, available, views, boosted, created_at) KEY (id)
+VALUES 
+('item-camera-001', 'Canon EOS R5', 'electronics', 3, 'Cameras', 9, 4000.00, 'Colombo', 'anon-user', true, 15, false, CURRENT_TIMESTAMP),
+('item-camera-002', 'Sony A7III', 'electronics', 3, 'Cameras', 9, 3500.00, 'Colombo', 'anon-user', true, 10, false, CURRENT_TIMESTAMP);
+
+-- ELECTRONICS - Laptops
+MERGE INTO items (id, name, category, category_id, subcategory, subcategory_id, price, location, owner_id, available, views, boosted, created_at) KEY (id)
+VALUES 
+('item-laptop-001', 'MacBook Pro 16', 'electronics', 3, 'Laptops/monitors/projectors', 10, 2000.00, 'Colombo', 'anon-user', true, 20, false, CURRENT_TIMESTAMP);
+
+-- SPORTS - Outdoor Courts
+MERGE INTO items (id, name, category, category_id, subcategory, subcategory_id, price, location, owner_id, available, views, boosted, created_at) KEY (id)
+VALUES 
+('item-sports-001', 'Tennis Court', 'sports', 6, 'Outdoor courts', 19, 200.00, 'Colombo', 'anon-user', true, 8, false, CURRENT_TIMESTAMP);
+
+-- PROPERTIES - Apartments
+MERGE INTO items (id, name, category, category_id, subcategory, subcategory_id, price, location, owner_id, available, views, boosted, created_at) KEY (id)
+VALUES 
+('item-prop-001', 'Luxury Apartment', 'properties', 2, 'Apartments/Houses', 5, 2500.00, 'Colombo', 'anon-user', true, 12, false, CURRENT_TIMESTAMP);
+
+-- Item descriptions live in item_content, one row per item
+MERGE INTO item_content (item_id, description) KEY (item_id)
+VALUES 
+('item-car-001', 'Well-maintained sedan, perfect for city travel'),
+('item-car-002', 'Fuel-efficient family car'),
+('item-car-003', 'Luxury sedan with premium features'),
+('item-bike-001', 'Classic motorcycle'),
+('item-bike-002', 'Reliable cruiser bike'),
+('item-bicycle-001', 'Professional grade mountain bike'),
+('item-costume-001', 'Beautiful princess dress for parties'),
+('item-costume-002', 'Complete superhero costume'),
+('item-camera-001', 'Professional digital camera'),
+('item-camera-002', 'High-resolution mirrorless camera'),
+('item-laptop-001', 'High-performance laptop'),
+('item-sports-001', 'Professional outdoor court'),
+('item-prop-001', '2-bedroom apartment in city center');
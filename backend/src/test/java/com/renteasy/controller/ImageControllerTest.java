@@ -0,0 +1,77 @@
+package com.renteasy.controller;
+
+import com.renteasy.service.ImageStorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ImageControllerTest {
+
+    private static final byte[] IMAGE = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, '0', '1', '2', '3', '4', '5'};
+
+    @TempDir
+    Path uploadDir;
+
+    private MockMvc mockMvc;
+    private String key;
+
+    @BeforeEach
+    void setUp() {
+        ImageStorageService imageStorageService = new ImageStorageService(uploadDir.toString(), DataSize.ofMegabytes(1));
+        key = imageStorageService.store(IMAGE, "image/png");
+        mockMvc = MockMvcBuilders.standaloneSetup(new ImageController(imageStorageService)).build();
+    }
+
+    @Test
+    void getImage_shouldStreamWholeFileWithImmutableCaching() throws Exception {
+        mockMvc.perform(get("/api/images/{key}", key))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("image/png"))
+            .andExpect(content().bytes(IMAGE))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + key.substring(0, 64) + "\""))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"))
+            .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"));
+    }
+
+    @Test
+    void getImage_shouldServeRequestedByteRange() throws Exception {
+        mockMvc.perform(get("/api/images/{key}", key).header(HttpHeaders.RANGE, "bytes=10-13"))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 10-13/14"))
+            .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 4))
+            .andExpect(content().bytes("2345".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void getImage_shouldRejectUnsatisfiableRange() throws Exception {
+        mockMvc.perform(get("/api/images/{key}", key).header(HttpHeaders.RANGE, "bytes=20-30"))
+            .andExpect(status().isRequestedRangeNotSatisfiable())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */14"));
+    }
+
+    @Test
+    void getImage_shouldReturnNotModifiedForMatchingEtag() throws Exception {
+        mockMvc.perform(get("/api/images/{key}", key)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"" + key.substring(0, 64) + "\""))
+            .andExpect(status().isNotModified())
+            .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void getImage_shouldReturnNotFoundForUnknownKey() throws Exception {
+        mockMvc.perform(get("/api/images/{key}", "f".repeat(64) + ".png"))
+            .andExpect(status().isNotFound());
+    }
+}
@@ -1,7 +1,12 @@
 package com.renteasy.controller;
 
+import com.renteasy.dto.ItemDTO;
+import com.renteasy.dto.SearchPage;
 import com.renteasy.model.Item;
 import com.renteasy.model.User;
+import com.renteasy.repository.projection.ItemSummary;
+import com.renteasy.search.ItemAutocompleteIndex;
+import com.renteasy.service.HotItemCache;
 import com.renteasy.service.ItemRealtimePublisher;
 import com.renteasy.service.ItemService;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,6 +15,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -17,7 +24,14 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -32,6 +46,9 @@ class ItemControllerTest {
     @Mock
     private ItemRealtimePublisher itemRealtimePublisher;
 
+    @Mock
+    private HotItemCache hotItemCache;
+
     @InjectMocks
     private ItemController itemController;
 
@@ -68,4 +85,71 @@ class ItemControllerTest {
             .andExpect(jsonPath("$.name").value("Camera"))
             .andExpect(jsonPath("$.ownerId").value("user-1"));
     }
+
+    @Test
+    void getItemById_shouldServeCachedHotItemWithoutLoadingIt() throws Exception {
+        String imageKey = "a".repeat(64) + ".jpg";
+        ItemDTO cached = new ItemDTO();
+        cached.setId("123e4567-e89b-12d3-a456-426614174000");
+        cached.setName("Camera");
+        cached.setAvailable(true);
+        cached.setImageUrl(imageKey);
+        cached.setAdditionalImages(List.of(imageKey));
+        when(hotItemCache.get(cached.getId())).thenReturn(Optional.of(cached));
+
+        mockMvc.perform(get("/api/items/{id}", cached.getId())
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value("Camera"))
+            .andExpect(jsonPath("$.imageUrl").value("http://localhost/api/images/" + imageKey))
+            .andExpect(jsonPath("$.additionalImages[0]").value("http://localhost/api/images/" + imageKey));
+
+        assertEquals(imageKey, cached.getImageUrl());
+        verify(itemService, never()).getItemById(any());
+        verify(itemService).incrementViews(eq(cached.getId()), eq(true), any());
+    }
+
+    @Test
+    void getAllItems_shouldReturnSummaries() throws Exception {
+        ItemSummary summary = new ItemSummary("item-1", "Camera", "electronics", null, BigDecimal.valueOf(3000),
+            null, null, "LEHV6nWB2yk8pyo0adR*.7kCMdnj", true, "Colombo", null, null, 4, false, null, null,
+            "user-1", "John", "Doe");
+        when(itemService.getAllItems(0, 12)).thenReturn(new PageImpl<>(List.of(summary), PageRequest.of(0, 12), 1));
+
+        mockMvc.perform(get("/api/items").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].id").value("item-1"))
+            .andExpect(jsonPath("$.content[0].ownerName").value("John Doe"))
+            .andExpect(jsonPath("$.content[0].imagePlaceholder").value("LEHV6nWB2yk8pyo0adR*.7kCMdnj"))
+            .andExpect(jsonPath("$.content[0].description").doesNotExist())
+            .andExpect(jsonPath("$.content[0].additionalImages").doesNotExist());
+    }
+
+    @Test
+    void searchItems_shouldIncludeSpellingSuggestion() throws Exception {
+        ItemSummary summary = new ItemSummary("item-1", "Canon EOS R5", "electronics", "Cameras", BigDecimal.valueOf(4000),
+            null, null, null, true, null, null, null, 0, false, null, null, "user-1", "John", "Doe");
+        when(itemService.searchItems("cannon", 0, 12, false)).thenReturn(
+            new SearchPage<>(new PageImpl<>(List.of(summary), PageRequest.of(0, 12), 1), "canon"));
+
+        mockMvc.perform(get("/api/items/search").param("query", "cannon").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].name").value("Canon EOS R5"))
+            .andExpect(jsonPath("$.totalElements").value(1))
+            .andExpect(jsonPath("$.suggestion").value("canon"));
+    }
+
+    @Test
+    void suggest_shouldReturnTypedCompletions() throws Exception {
+        when(itemService.suggest("can", 8)).thenReturn(List.of(
+            new ItemAutocompleteIndex.Suggestion("Canon EOS R5", ItemAutocompleteIndex.SuggestionType.NAME, 2),
+            new ItemAutocompleteIndex.Suggestion("Candy", ItemAutocompleteIndex.SuggestionType.LOCATION, 1)));
+
+        mockMvc.perform(get("/api/items/suggest").param("prefix", "can").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].text").value("Canon EOS R5"))
+            .andExpect(jsonPath("$[0].type").value("NAME"))
+            .andExpect(jsonPath("$[0].itemCount").value(2))
+            .andExpect(jsonPath("$[1].type").value("LOCATION"));
+    }
 }
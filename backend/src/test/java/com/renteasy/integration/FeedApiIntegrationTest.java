@@ -0,0 +1,170 @@
+package com.renteasy.integration;
+
+import com.jayway.jsonpath.JsonPath;
+import com.renteasy.model.Booking;
+import com.renteasy.model.Item;
+import com.renteasy.model.Notification;
+import com.renteasy.model.User;
+import com.renteasy.repository.BookingRepository;
+import com.renteasy.repository.ItemRepository;
+import com.renteasy.repository.NotificationRepository;
+import com.renteasy.repository.UserRepository;
+import com.renteasy.security.UserPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("test")
+class FeedApiIntegrationTest {
+
+    private static final LocalDateTime TIED = LocalDateTime.of(2026, 3, 1, 9, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private User owner;
+    private Item item;
+
+    @BeforeEach
+    void setup() {
+        user = userRepository.save(newUser("feed-api-user@test.com"));
+        owner = userRepository.save(newUser("feed-api-owner@test.com"));
+        item = new Item();
+        item.setName("Feed Camera");
+        item.setCategory("electronics");
+        item.setCategoryId(3);
+        item.setPrice(BigDecimal.valueOf(5000));
+        item.setAvailable(true);
+        item.setOwner(owner);
+        item.setAdditionalImages(new ArrayList<>());
+        item.setAvailableDates(new HashSet<>());
+        item = itemRepository.save(item);
+    }
+
+    @AfterEach
+    void cleanup() {
+        notificationRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.delete(item);
+        userRepository.delete(user);
+        userRepository.delete(owner);
+    }
+
+    @Test
+    void scrollMyBookings_shouldPageThroughTiesWithTheCursor() throws Exception {
+        List<String> expected = createTied("bookings", () -> {
+            Booking booking = new Booking();
+            booking.setItem(item);
+            booking.setUser(user);
+            booking.setStartDate(LocalDate.of(2026, 3, 1));
+            booking.setEndDate(LocalDate.of(2026, 3, 5));
+            booking.setRentalDays(5);
+            booking.setTotalPrice(BigDecimal.valueOf(25000));
+            return bookingRepository.save(booking).getId();
+        });
+
+        assertEquals(expected, scrollAll("/api/bookings/my-bookings/scroll"));
+    }
+
+    @Test
+    void scrollMyNotifications_shouldPageThroughTiesWithTheCursor() throws Exception {
+        List<String> expected = createTied("notifications", () -> {
+            Notification notification = new Notification();
+            notification.setUser(user);
+            notification.setTitle("Booking confirmed");
+            notification.setType(Notification.NotificationType.BOOKING_CONFIRMED);
+            return notificationRepository.save(notification).getId();
+        });
+
+        assertEquals(expected, scrollAll("/api/notifications/scroll"));
+    }
+
+    /**
+     * Creates five rows, the middle three created at the same time, and returns their ids newest
+     * first with ties in descending id order.
+     */
+    private List<String> createTied(String table, Supplier<String> create) {
+        List<LocalDateTime> createdAts = List.of(TIED.plusHours(1), TIED, TIED, TIED, TIED.minusHours(1));
+        List<String> ids = new ArrayList<>();
+        for (LocalDateTime createdAt : createdAts) {
+            String id = create.get();
+            jdbcTemplate.update("UPDATE " + table + " SET created_at = ? WHERE id = ?", createdAt, id);
+            ids.add(id);
+        }
+        List<String> expected = new ArrayList<>(List.of(ids.get(0)));
+        ids.subList(1, 4).stream().sorted(Comparator.reverseOrder()).forEach(expected::add);
+        expected.add(ids.get(4));
+        return expected;
+    }
+
+    private List<String> scrollAll(String path) throws Exception {
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+            UserPrincipal.create(user), null, UserPrincipal.create(user).getAuthorities());
+        List<String> scrolled = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get(path).param("size", "2").principal(authentication);
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+            scrolled.addAll(JsonPath.read(body, "$.content[*].id"));
+            cursor = JsonPath.read(body, "$.nextCursor");
+        } while (cursor != null);
+        return scrolled;
+    }
+
+    private User newUser(String email) {
+        User newUser = new User();
+        newUser.setEmail(email);
+        newUser.setPassword("hashed");
+        newUser.setFirstName("Feed");
+        newUser.setLastName("User");
+        newUser.setRole(User.Role.USER);
+        newUser.setActive(true);
+        newUser.setEmailVerified(true);
+        return newUser;
+    }
+}
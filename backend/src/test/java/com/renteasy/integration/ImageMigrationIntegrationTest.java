@@ -0,0 +1,91 @@
+package com.renteasy.integration;
+
+import com.renteasy.model.Item;
+import com.renteasy.model.User;
+import com.renteasy.repository.ItemRepository;
+import com.renteasy.repository.UserRepository;
+import com.renteasy.search.ItemSearchIndex;
+import com.renteasy.service.ImageMigrationService;
+import com.renteasy.util.ImageUrls;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ImageMigrationIntegrationTest {
+
+    @Autowired
+    private ImageMigrationService imageMigrationService;
+
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void migration_shouldPublishItemsTheListenersCanRead() throws Exception {
+        awaitTrue(itemSearchIndex::isReady, "search index did not build");
+
+        User owner = new User();
+        owner.setEmail("migration-owner@test.com");
+        owner.setPassword("hashed");
+        owner.setFirstName("Migration");
+        owner.setLastName("Owner");
+        owner.setRole(User.Role.USER);
+        owner.setActive(true);
+        owner.setEmailVerified(true);
+        owner = userRepository.save(owner);
+
+        // Saved through the repository, so only the migration's event can put it in the index.
+        Item item = new Item();
+        item.setName("Inline Kayak");
+        item.setDescription("Sit-on-top zanzibar kayak");
+        item.setCategory("sports");
+        item.setCategoryId(5);
+        item.setPrice(BigDecimal.valueOf(2500));
+        item.setAvailable(true);
+        item.setOwner(owner);
+        item.setImageUrl("data:image/png;base64," + Base64.getEncoder().encodeToString(png()));
+        item.setAdditionalImages(new ArrayList<>());
+        item.setAvailableDates(new HashSet<>());
+        item = itemRepository.save(item);
+
+        assertTrue(imageMigrationService.start());
+        awaitTrue(() -> !imageMigrationService.isRunning(), "migration did not finish");
+
+        assertTrue(ImageUrls.isImageKey(itemRepository.findById(item.getId()).orElseThrow().getImageUrl()));
+        assertEquals(List.of(item.getId()), itemSearchIndex.search("zanzibar", 0, 10).orElseThrow().itemIds());
+    }
+
+    private static byte[] png() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition, String message) throws InterruptedException {
+        for (long deadline = System.currentTimeMillis() + 10_000; !condition.getAsBoolean(); ) {
+            assertTrue(System.currentTimeMillis() < deadline, message);
+            Thread.sleep(20);
+        }
+    }
+}
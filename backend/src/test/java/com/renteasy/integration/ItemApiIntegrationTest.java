@@ -1,22 +1,30 @@
 package com.renteasy.integration;
 
+import com.renteasy.dto.UniqueViewerStats;
 import com.renteasy.model.Item;
 import com.renteasy.model.User;
 import com.renteasy.repository.ItemRepository;
 import com.renteasy.repository.UserRepository;
+import com.renteasy.search.ItemTrendingIndex;
+import com.renteasy.service.ItemUniqueViewers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -35,6 +43,17 @@ class ItemApiIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ItemUniqueViewers itemUniqueViewers;
+
+    @Autowired
+    private ItemTrendingIndex itemTrendingIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Item item;
+
     @BeforeEach
     void setup() {
         itemRepository.deleteAll();
@@ -50,15 +69,16 @@ class ItemApiIntegrationTest {
         owner.setEmailVerified(true);
         User persistedOwner = userRepository.save(owner);
 
-        Item item = new Item();
+        item = new Item();
         item.setName("Integration Camera");
         item.setCategory("electronics");
+        item.setCategoryId(3);
         item.setPrice(BigDecimal.valueOf(6000));
         item.setAvailable(true);
         item.setOwner(persistedOwner);
         item.setAdditionalImages(new ArrayList<>());
         item.setAvailableDates(new HashSet<>());
-        itemRepository.save(item);
+        item = itemRepository.save(item);
     }
 
     @Test
@@ -68,4 +88,60 @@ class ItemApiIntegrationTest {
             .andExpect(jsonPath("$.content[0].name").value("Integration Camera"))
             .andExpect(jsonPath("$.content[0].category").value("electronics"));
     }
+
+    @Test
+    void getItemById_shouldCountUniqueViewersAcrossFlushes() throws Exception {
+        String path = "/api/items/" + item.getId();
+        mockMvc.perform(get(path).header("User-Agent", "browser-a")).andExpect(status().isOk());
+        mockMvc.perform(get(path).header("User-Agent", "browser-a")).andExpect(status().isOk());
+        mockMvc.perform(get(path).header("User-Agent", "browser-b")).andExpect(status().isOk());
+        itemUniqueViewers.flush();
+        mockMvc.perform(get(path).header("User-Agent", "browser-b")).andExpect(status().isOk());
+        mockMvc.perform(get(path).header("User-Agent", "browser-c")).andExpect(status().isOk());
+        itemUniqueViewers.flush();
+
+        LocalDate today = LocalDate.now();
+        UniqueViewerStats stats = itemUniqueViewers.stats(item.getId(), today.minusDays(1), today);
+
+        assertEquals(3, stats.uniqueViewers());
+        assertEquals(List.of(new UniqueViewerStats.Day(today.minusDays(1), 0), new UniqueViewerStats.Day(today, 3)), stats.days());
+    }
+
+    @Test
+    void trending_shouldIgnoreUnavailableItemsAndSkipDeletedOnesWhenPersisting() throws Exception {
+        for (long deadline = System.currentTimeMillis() + 10_000; !itemTrendingIndex.isReady(); ) {
+            assertTrue(System.currentTimeMillis() < deadline, "trending index did not load");
+            Thread.sleep(20);
+        }
+        Item hidden = copyOf(item, "Hidden Tripod");
+        hidden.setAvailable(false);
+        hidden = itemRepository.save(hidden);
+        Item deleted = itemRepository.save(copyOf(item, "Deleted Lens"));
+
+        mockMvc.perform(get("/api/items/" + item.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/api/items/" + hidden.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/api/items/" + deleted.getId())).andExpect(status().isOk());
+        itemRepository.delete(deleted);
+        itemTrendingIndex.persist();
+
+        List<String> trending = itemTrendingIndex.top(ItemTrendingIndex.Window.DAY, 0, 100).orElseThrow().itemIds();
+        assertTrue(trending.contains(item.getId()));
+        assertTrue(!trending.contains(hidden.getId()) && !trending.contains(deleted.getId()), trending.toString());
+        assertEquals(List.of(item.getId()), jdbcTemplate.queryForList(
+            "SELECT item_id FROM item_trending_scores WHERE item_id IN (?, ?, ?)", String.class,
+            item.getId(), hidden.getId(), deleted.getId()));
+    }
+
+    private Item copyOf(Item source, String name) {
+        Item copy = new Item();
+        copy.setName(name);
+        copy.setCategory(source.getCategory());
+        copy.setCategoryId(source.getCategoryId());
+        copy.setPrice(source.getPrice());
+        copy.setAvailable(true);
+        copy.setOwner(source.getOwner());
+        copy.setAdditionalImages(new ArrayList<>());
+        copy.setAvailableDates(new HashSet<>());
+        return copy;
+    }
 }
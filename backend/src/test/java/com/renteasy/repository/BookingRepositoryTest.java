@@ -0,0 +1,113 @@
+package com.renteasy.repository;
+
+import com.renteasy.model.Booking;
+import com.renteasy.model.Item;
+import com.renteasy.model.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class BookingRepositoryTest {
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void findFeedByUserIdAfter_shouldSeekPastKeysetPositionIncludingTies() {
+        User renter = userRepository.save(newUser("feed-renter@test.com"));
+        User owner = userRepository.save(newUser("feed-owner@test.com"));
+        Item item = itemRepository.save(newItem(owner));
+        LocalDateTime tied = LocalDateTime.of(2026, 3, 1, 9, 0);
+        List<LocalDateTime> createdAts = List.of(tied.plusHours(1), tied, tied, tied, tied.minusHours(1));
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < createdAts.size(); i++) {
+            bookings.add(bookingRepository.save(newBooking(item, renter)));
+        }
+        bookingRepository.save(newBooking(item, owner));
+        entityManager.flush();
+        for (int i = 0; i < createdAts.size(); i++) {
+            entityManager.createNativeQuery("UPDATE bookings SET created_at = :createdAt WHERE id = :id")
+                .setParameter("createdAt", createdAts.get(i))
+                .setParameter("id", bookings.get(i).getId())
+                .executeUpdate();
+        }
+        entityManager.clear();
+
+        List<String> expected = bookingRepository.findFeedByUserId(renter.getId(), Limit.of(10))
+            .stream().map(Booking::getId).toList();
+        List<String> scrolled = new ArrayList<>();
+        List<Booking> slice = bookingRepository.findFeedByUserId(renter.getId(), Limit.of(2));
+        while (!slice.isEmpty()) {
+            slice.forEach(booking -> scrolled.add(booking.getId()));
+            Booking last = slice.get(slice.size() - 1);
+            slice = bookingRepository.findFeedByUserIdAfter(renter.getId(), last.getCreatedAt(), last.getId(), Limit.of(2));
+        }
+
+        assertEquals(5, expected.size());
+        assertEquals(bookings.get(0).getId(), expected.get(0));
+        assertEquals(bookings.subList(1, 4).stream().map(Booking::getId).sorted(Comparator.reverseOrder()).toList(),
+            expected.subList(1, 4));
+        assertEquals(bookings.get(4).getId(), expected.get(4));
+        assertEquals(expected, scrolled);
+    }
+
+    private User newUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("hashed");
+        user.setFirstName("Feed");
+        user.setLastName("User");
+        user.setRole(User.Role.USER);
+        user.setActive(true);
+        user.setEmailVerified(true);
+        return user;
+    }
+
+    private Item newItem(User owner) {
+        Item item = new Item();
+        item.setName("Camera");
+        item.setCategory("electronics");
+        item.setCategoryId(3);
+        item.setPrice(BigDecimal.valueOf(5000));
+        item.setAvailable(true);
+        item.setOwner(owner);
+        item.setAdditionalImages(new ArrayList<>());
+        item.setAvailableDates(new HashSet<>());
+        return item;
+    }
+
+    private Booking newBooking(Item item, User user) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setUser(user);
+        booking.setStartDate(LocalDate.of(2026, 3, 1));
+        booking.setEndDate(LocalDate.of(2026, 3, 5));
+        booking.setRentalDays(5);
+        booking.setTotalPrice(BigDecimal.valueOf(25000));
+        return booking;
+    }
+}
@@ -1,32 +1,50 @@
 package com.renteasy.repository;
 
+import com.renteasy.model.Booking;
 import com.renteasy.model.Item;
 import com.renteasy.model.User;
+import com.renteasy.repository.projection.CategoryItemCount;
+import com.renteasy.repository.projection.ItemSummary;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 @DataJpaTest
 @ActiveProfiles("test")
 class ItemRepositoryTest {
 
+    // Id of the electronics category seeded by the V4__category_taxonomy migration
+    private static final int ELECTRONICS = 3;
+
     @Autowired
     private ItemRepository itemRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     @Test
-    void findByCategoryAndAvailableTrue_shouldReturnMatchingItems() {
+    void findAvailableByCategoryId_shouldReturnMatchingItems() {
         User owner = new User();
         owner.setEmail("repo-owner@test.com");
         owner.setPassword("hashed");
@@ -40,6 +58,7 @@ class ItemRepositoryTest {
         Item item = new Item();
         item.setName("DSLR Camera");
         item.setCategory("electronics");
+        item.setCategoryId(ELECTRONICS);
         item.setPrice(BigDecimal.valueOf(5000));
         item.setAvailable(true);
         item.setOwner(persistedOwner);
@@ -47,9 +66,164 @@ class ItemRepositoryTest {
         item.setAvailableDates(new HashSet<>());
         itemRepository.save(item);
 
-        Page<Item> result = itemRepository.findByCategoryAndAvailableTrue("electronics", PageRequest.of(0, 10));
+        Page<ItemSummary> result = itemRepository.findAvailableByCategoryId(ELECTRONICS, PageRequest.of(0, 10));
 
         assertEquals(1, result.getTotalElements());
-        assertEquals("DSLR Camera", result.getContent().get(0).getName());
+        assertEquals("DSLR Camera", result.getContent().get(0).name());
+        assertEquals("Repo Owner", result.getContent().get(0).ownerFirstName() + " " + result.getContent().get(0).ownerLastName());
+        assertEquals(List.of(new CategoryItemCount(ELECTRONICS, null, 1)), itemRepository.countAvailableByCategory());
+    }
+
+    @Test
+    void findIdsWithInlineImagesAfter_shouldOnlyReturnItemsWithDataUris() {
+        User persistedOwner = userRepository.save(newOwner("inline-owner@test.com"));
+        Item mainInline = itemRepository.save(newItem(persistedOwner, "data:image/png;base64,AAAA", List.of()));
+        Item additionalInline = itemRepository.save(newItem(persistedOwner, "https://cdn.test/a.png",
+            List.of("https://cdn.test/b.png", "data:image/jpeg;base64,BBBB")));
+        itemRepository.save(newItem(persistedOwner, "https://cdn.test/c.png", List.of("https://cdn.test/d.png")));
+
+        List<String> ids = itemRepository.findIdsWithInlineImagesAfter("", PageRequest.of(0, 10));
+        List<String> expected = Stream.of(mainInline.getId(), additionalInline.getId()).sorted().toList();
+
+        assertEquals(expected, ids);
+        assertEquals(expected.subList(1, 2), itemRepository.findIdsWithInlineImagesAfter(expected.get(0), PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void updateMainImage_shouldRewriteImagesWithoutTouchingUpdatedAt() {
+        User persistedOwner = userRepository.save(newOwner("migrated-owner@test.com"));
+        Item item = itemRepository.saveAndFlush(newItem(persistedOwner, "data:image/png;base64,AAAA",
+            List.of("data:image/png;base64,BBBB")));
+        entityManager.clear();
+        LocalDateTime updatedAt = itemRepository.findById(item.getId()).orElseThrow().getUpdatedAt();
+        assertNull(itemRepository.findSummariesByIdIn(List.of(item.getId())).get(0).imageUrl());
+
+        itemRepository.deleteAdditionalImages(item.getId());
+        itemRepository.insertAdditionalImage(item.getId(), "b.png");
+        itemRepository.updateMainImage(item.getId(), "a.png", false, null, null, "placeholder");
+
+        Item migrated = itemRepository.findById(item.getId()).orElseThrow();
+        assertEquals("a.png", migrated.getImageUrl());
+        assertEquals("placeholder", migrated.getImagePlaceholder());
+        assertEquals(List.of("b.png"), migrated.getAdditionalImages());
+        assertEquals(updatedAt, migrated.getUpdatedAt());
+        assertFalse(migrated.getImageUrlInline());
+        assertEquals("a.png", itemRepository.findSummariesByIdIn(List.of(item.getId())).get(0).imageUrl());
+    }
+
+    @Test
+    void save_shouldKeepDescriptionInLazilyLoadedContentRow() {
+        User persistedOwner = userRepository.save(newOwner("content-owner@test.com"));
+        Item described = newItem(persistedOwner, null, List.of());
+        described.setDescription("Full-frame body with two lenses");
+        String describedId = itemRepository.save(described).getId();
+        String plainId = itemRepository.save(newItem(persistedOwner, null, List.of())).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        Item loaded = itemRepository.findById(describedId).orElseThrow();
+        assertFalse(entityManager.getEntityManagerFactory().getPersistenceUnitUtil().isLoaded(loaded, "content"));
+        assertEquals("Full-frame body with two lenses", loaded.getDescription());
+        assertNull(itemRepository.findById(plainId).orElseThrow().getDescription());
+    }
+
+    @Test
+    void findSummaries_shouldCombineFiltersInOneQuery() {
+        User persistedOwner = userRepository.save(newOwner("query-owner@test.com"));
+        Item booked = newItem(persistedOwner, null, List.of());
+        booked.setLatitude(6.93);
+        booked.setLongitude(79.85);
+        itemRepository.save(booked);
+        Item cheap = newItem(persistedOwner, null, List.of());
+        cheap.setPrice(BigDecimal.valueOf(3000));
+        cheap.setLatitude(6.90);
+        cheap.setLongitude(79.86);
+        cheap.setDescription("Mirrorless camera body");
+        itemRepository.save(cheap);
+        Item farAway = newItem(persistedOwner, null, List.of());
+        farAway.setLatitude(7.29);
+        farAway.setLongitude(80.63);
+        itemRepository.save(farAway);
+
+        Booking booking = new Booking();
+        booking.setItem(booked);
+        booking.setUser(persistedOwner);
+        booking.setStartDate(LocalDate.of(2026, 3, 1));
+        booking.setEndDate(LocalDate.of(2026, 3, 5));
+        booking.setRentalDays(5);
+        booking.setTotalPrice(BigDecimal.valueOf(25000));
+        entityManager.persist(booking);
+        entityManager.flush();
+
+        Specification<Item> nearColombo = ItemSpecifications.isAvailable()
+            .and(ItemSpecifications.inCategory(ELECTRONICS))
+            .and(ItemSpecifications.withinBounds(6.8, 7.0, 79.8, 79.9));
+        Page<ItemSummary> cheapestFirst = itemRepository.findSummaries(nearColombo,
+            PageRequest.of(0, 10, Sort.by("price", "id")));
+        assertEquals(List.of(cheap.getId(), booked.getId()), cheapestFirst.getContent().stream().map(ItemSummary::id).toList());
+
+        Page<ItemSummary> free = itemRepository.findSummaries(
+            nearColombo.and(ItemSpecifications.notBookedBetween(LocalDate.of(2026, 3, 4), LocalDate.of(2026, 3, 8))),
+            PageRequest.of(0, 10));
+        assertEquals(List.of(cheap.getId()), free.getContent().stream().map(ItemSummary::id).toList());
+
+        Page<ItemSummary> byText = itemRepository.findSummaries(
+            ItemSpecifications.isAvailable().and(ItemSpecifications.containsText("MIRRORLESS"))
+                .and(ItemSpecifications.priceAtMost(BigDecimal.valueOf(4000))),
+            PageRequest.of(0, 1));
+        assertEquals(1, byText.getTotalElements());
+        assertEquals(cheap.getId(), byText.getContent().get(0).id());
+    }
+
+    @Test
+    void findSummaries_shouldSeekPastKeysetPositionIncludingTies() {
+        User persistedOwner = userRepository.save(newOwner("keyset-owner@test.com"));
+        List<Item> items = new ArrayList<>();
+        for (int views : new int[] {7, 5, 5, 5, 1}) {
+            Item item = newItem(persistedOwner, null, List.of());
+            item.setViews(views);
+            items.add(itemRepository.save(item));
+        }
+        Sort byViews = Sort.by(Sort.Order.desc("views"), Sort.Order.desc("id"));
+        List<String> expected = itemRepository.findSummaries(ItemSpecifications.ownedBy(persistedOwner.getId()), byViews, 10)
+            .stream().map(ItemSummary::id).toList();
+
+        List<String> scrolled = new ArrayList<>();
+        Specification<Item> owned = ItemSpecifications.ownedBy(persistedOwner.getId());
+        List<ItemSummary> slice = itemRepository.findSummaries(owned, byViews, 2);
+        while (!slice.isEmpty()) {
+            slice.forEach(summary -> scrolled.add(summary.id()));
+            ItemSummary last = slice.get(slice.size() - 1);
+            slice = itemRepository.findSummaries(owned.and(ItemSpecifications.after("views", last.views(), last.id())), byViews, 2);
+        }
+
+        assertEquals(5, expected.size());
+        assertEquals(expected, scrolled);
+    }
+
+    private User newOwner(String email) {
+        User owner = new User();
+        owner.setEmail(email);
+        owner.setPassword("hashed");
+        owner.setFirstName("Repo");
+        owner.setLastName("Owner");
+        owner.setRole(User.Role.USER);
+        owner.setActive(true);
+        owner.setEmailVerified(true);
+        return owner;
+    }
+
+    private Item newItem(User owner, String imageUrl, List<String> additionalImages) {
+        Item item = new Item();
+        item.setName("Camera");
+        item.setCategory("electronics");
+        item.setCategoryId(ELECTRONICS);
+        item.setPrice(BigDecimal.valueOf(5000));
+        item.setAvailable(true);
+        item.setOwner(owner);
+        item.setImageUrl(imageUrl);
+        item.setAdditionalImages(new ArrayList<>(additionalImages));
+        item.setAvailableDates(new HashSet<>());
+        return item;
     }
 }
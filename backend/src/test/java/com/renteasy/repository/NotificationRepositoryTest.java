@@ -0,0 +1,89 @@
+package com.renteasy.repository;
+
+import com.renteasy.model.Notification;
+import com.renteasy.model.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class NotificationRepositoryTest {
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void findFeedByUserIdAfter_shouldSeekPastKeysetPositionIncludingTies() {
+        User user = userRepository.save(newUser("feed-user@test.com"));
+        User other = userRepository.save(newUser("feed-other@test.com"));
+        LocalDateTime tied = LocalDateTime.of(2026, 3, 1, 9, 0);
+        List<LocalDateTime> createdAts = List.of(tied.plusHours(1), tied, tied, tied, tied.minusHours(1));
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < createdAts.size(); i++) {
+            notifications.add(notificationRepository.save(newNotification(user)));
+        }
+        notificationRepository.save(newNotification(other));
+        entityManager.flush();
+        for (int i = 0; i < createdAts.size(); i++) {
+            entityManager.createNativeQuery("UPDATE notifications SET created_at = :createdAt WHERE id = :id")
+                .setParameter("createdAt", createdAts.get(i))
+                .setParameter("id", notifications.get(i).getId())
+                .executeUpdate();
+        }
+        entityManager.clear();
+
+        List<String> expected = notificationRepository.findFeedByUserId(user.getId(), Limit.of(10))
+            .stream().map(Notification::getId).toList();
+        List<String> scrolled = new ArrayList<>();
+        List<Notification> slice = notificationRepository.findFeedByUserId(user.getId(), Limit.of(2));
+        while (!slice.isEmpty()) {
+            slice.forEach(notification -> scrolled.add(notification.getId()));
+            Notification last = slice.get(slice.size() - 1);
+            slice = notificationRepository.findFeedByUserIdAfter(user.getId(), last.getCreatedAt(), last.getId(), Limit.of(2));
+        }
+
+        assertEquals(5, expected.size());
+        assertEquals(notifications.get(0).getId(), expected.get(0));
+        assertEquals(notifications.subList(1, 4).stream().map(Notification::getId).sorted(Comparator.reverseOrder()).toList(),
+            expected.subList(1, 4));
+        assertEquals(notifications.get(4).getId(), expected.get(4));
+        assertEquals(expected, scrolled);
+    }
+
+    private User newUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("hashed");
+        user.setFirstName("Feed");
+        user.setLastName("User");
+        user.setRole(User.Role.USER);
+        user.setActive(true);
+        user.setEmailVerified(true);
+        return user;
+    }
+
+    private Notification newNotification(User user) {
+        Notification notification = new Notification();
+        notification.setUser(user);
+        notification.setTitle("Booking confirmed");
+        notification.setType(Notification.NotificationType.BOOKING_CONFIRMED);
+        return notification;
+    }
+}
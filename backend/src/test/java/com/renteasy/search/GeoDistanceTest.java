@@ -0,0 +1,55 @@
+package com.renteasy.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoDistanceTest {
+
+    @Test
+    void toKm_shouldMatchKnownDistances() {
+        GeoDistance colombo = GeoDistance.from(6.9271, 79.8612);
+
+        assertEquals(0.0, colombo.toKm(6.9271, 79.8612), 1e-9);
+        assertEquals(94.0, colombo.toKm(7.2906, 80.6337), 1.0);
+        assertEquals(Math.PI * GeoDistance.EARTH_RADIUS_KM, GeoDistance.from(0, 0).toKm(0, 180), 1e-6);
+    }
+
+    @Test
+    void batch_shouldScoreEachPointOnceAndSkipThoseOutOfRangeByLatitude() {
+        GeoDistance origin = GeoDistance.from(6.93, 79.85);
+        double[] latitudes = {6.95, 9.66, 6.90, 6.93};
+        double[] longitudes = {79.90, 80.02, 79.86, 79.85};
+
+        double[] distances = origin.toKm(latitudes, longitudes, 50);
+
+        assertEquals(origin.toKm(6.95, 79.90), distances[0]);
+        assertEquals(Double.POSITIVE_INFINITY, distances[1]);
+        assertArrayEquals(new int[] {3, 2, 0, 1}, GeoDistance.nearestFirst(distances));
+    }
+
+    @Test
+    void nearestFirst_shouldOrderDistancesCloserThanFloatPrecisionAndKeepTies() {
+        Random random = new Random(3);
+        double[] distances = new double[5_000];
+        for (int i = 0; i < distances.length; i++) {
+            distances[i] = switch (i % 4) {
+                case 0 -> random.nextDouble() * 50;
+                case 1 -> 12.5 + random.nextInt(1_000) * 1e-12;
+                case 2 -> 7.0;
+                default -> Double.POSITIVE_INFINITY;
+            };
+        }
+
+        int[] expected = IntStream.range(0, distances.length)
+            .boxed()
+            .sorted(Comparator.comparingDouble(i -> distances[i]))
+            .mapToInt(Integer::intValue)
+            .toArray();
+        assertArrayEquals(expected, GeoDistance.nearestFirst(distances));
+    }
+}
@@ -0,0 +1,140 @@
+package com.renteasy.search;
+
+import com.renteasy.model.Item;
+import com.renteasy.repository.ItemRepository;
+import com.renteasy.repository.projection.ItemSuggestionSource;
+import com.renteasy.search.ItemAutocompleteIndex.Suggestion;
+import com.renteasy.search.ItemAutocompleteIndex.SuggestionType;
+import com.renteasy.service.ItemChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemAutocompleteIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private ItemAutocompleteIndex autocompleteIndex;
+
+    @BeforeEach
+    void setUp() {
+        autocompleteIndex = new ItemAutocompleteIndex(itemRepository, 2);
+    }
+
+    @Test
+    void suggest_shouldReturnEmptyUntilBuilt() {
+        assertTrue(autocompleteIndex.suggest("can", 5).isEmpty());
+    }
+
+    @Test
+    void suggest_shouldCompleteAnyWordAndOrderByPopularity() {
+        when(itemRepository.findSuggestionSourcesAfter(eq(""), any(Pageable.class))).thenReturn(List.of(
+            new ItemSuggestionSource("a", "Canon EOS R5", "electronics", "Cameras", "Kandy", 40),
+            new ItemSuggestionSource("b", "Camping tent", "sports", "Camping", "Colombo", 2)));
+        when(itemRepository.findSuggestionSourcesAfter(eq("b"), any(Pageable.class))).thenReturn(List.of(
+            new ItemSuggestionSource("c", "Canon EOS R5", "electronics", "Cameras", "Colombo", 0)));
+
+        autocompleteIndex.build();
+
+        assertTrue(autocompleteIndex.isReady());
+        assertEquals(List.of(
+                new Suggestion("Cameras", SuggestionType.SUBCATEGORY, 2),
+                new Suggestion("Canon EOS R5", SuggestionType.NAME, 2),
+                new Suggestion("Camping", SuggestionType.SUBCATEGORY, 1)),
+            autocompleteIndex.suggest("Ca", 3));
+        assertEquals(List.of(new Suggestion("Canon EOS R5", SuggestionType.NAME, 2)), autocompleteIndex.suggest("eos", 5));
+        assertEquals(List.of(new Suggestion("Colombo", SuggestionType.LOCATION, 2)), autocompleteIndex.suggest("COL", 5));
+        assertTrue(autocompleteIndex.suggest("  ", 5).isEmpty());
+    }
+
+    @Test
+    void onItemChanged_shouldReplaceAndRemovePhrases() {
+        when(itemRepository.findSuggestionSourcesAfter(eq(""), any(Pageable.class))).thenReturn(List.of(
+            new ItemSuggestionSource("a", "Drill", "tools", "Power tools", "Galle", 0)));
+        autocompleteIndex.build();
+
+        Item item = new Item();
+        item.setId("a");
+        item.setName("Hammer drill");
+        item.setCategory("tools");
+        item.setLocation("Matara");
+        item.setAvailable(true);
+        autocompleteIndex.onItemChanged(new ItemChangedEvent(ItemChangedEvent.ChangeType.UPDATED, item));
+
+        assertTrue(autocompleteIndex.suggest("galle", 5).isEmpty());
+        assertTrue(autocompleteIndex.suggest("power", 5).isEmpty());
+        assertEquals(List.of(new Suggestion("Hammer drill", SuggestionType.NAME, 1)), autocompleteIndex.suggest("dri", 5));
+
+        autocompleteIndex.onItemChanged(new ItemChangedEvent(ItemChangedEvent.ChangeType.DELETED, item));
+
+        assertTrue(autocompleteIndex.suggest("dri", 5).isEmpty());
+        assertEquals(0, autocompleteIndex.phraseCount());
+    }
+
+    @Test
+    void addViews_shouldReorderSuggestionsOfCachedAndLongerPrefixes() {
+        when(itemRepository.findSuggestionSourcesAfter(eq(""), any(Pageable.class))).thenReturn(List.of(
+            new ItemSuggestionSource("a", "Canon EOS R5", null, null, null, 10),
+            new ItemSuggestionSource("b", "Canoe", null, null, null, 5)));
+        autocompleteIndex.build();
+        assertEquals("Canon EOS R5", autocompleteIndex.suggest("can", 5).get(0).text());
+        assertEquals("Canon EOS R5", autocompleteIndex.suggest("cano", 5).get(0).text());
+
+        autocompleteIndex.addViews(Map.of("b", 20L, "missing", 100L));
+
+        assertEquals(List.of("Canoe", "Canon EOS R5"), texts(autocompleteIndex.suggest("can", 5)));
+        assertEquals(List.of("Canoe", "Canon EOS R5"), texts(autocompleteIndex.suggest("cano", 5)));
+        assertEquals(1, autocompleteIndex.cachedPrefixCount());
+    }
+
+    @Test
+    void suggest_shouldKeepCachedPrefixesInStepWithChanges() {
+        List<ItemSuggestionSource> sources = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            sources.add(new ItemSuggestionSource("item-" + i, "Tool " + i, null, null, null, i));
+        }
+        when(itemRepository.findSuggestionSourcesAfter(eq(""), any(Pageable.class))).thenReturn(sources);
+        autocompleteIndex = new ItemAutocompleteIndex(itemRepository, 100);
+        autocompleteIndex.build();
+        autocompleteIndex.suggest("to", 20);
+
+        // The top phrase leaves a full list, a low one rises into it and a new one joins.
+        autocompleteIndex.onItemChanged(new ItemChangedEvent(ItemChangedEvent.ChangeType.DELETED, item("item-29", "Tool 29", 0)));
+        autocompleteIndex.addViews(Map.of("item-0", 100L));
+        autocompleteIndex.onItemChanged(new ItemChangedEvent(ItemChangedEvent.ChangeType.CREATED, item("item-30", "Tool 30", 50)));
+
+        List<String> expected = new ArrayList<>(List.of("Tool 0", "Tool 30"));
+        for (int i = 28; expected.size() < 20; i--) {
+            expected.add("Tool " + i);
+        }
+        assertEquals(expected, texts(autocompleteIndex.suggest("to", 20)));
+        assertEquals(expected.subList(0, 5), texts(autocompleteIndex.suggest("tool", 5)));
+    }
+
+    private Item item(String id, String name, int views) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setViews(views);
+        item.setAvailable(true);
+        return item;
+    }
+
+    private List<String> texts(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::text).toList();
+    }
+}
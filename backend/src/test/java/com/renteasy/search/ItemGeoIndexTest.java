@@ -0,0 +1,158 @@
+package com.renteasy.search;
+
+import com.renteasy.model.Item;
+import com.renteasy.repository.ItemRepository;
+import com.renteasy.repository.projection.ItemGeoPoint;
+import com.renteasy.search.ItemGeoIndex.Neighbor;
+import com.renteasy.service.ItemChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemGeoIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Test
+    void queries_shouldBeEmptyUntilBuilt() {
+        ItemGeoIndex geoIndex = new ItemGeoIndex(itemRepository, 100, 0.05);
+
+        assertTrue(geoIndex.nearest(6.93, 79.85, 10, 5).isEmpty());
+        assertTrue(geoIndex.countWithin(6.93, 79.85, 10).isEmpty());
+    }
+
+    @Test
+    void nearest_shouldMatchBruteForceAcrossCellsAndTheAntimeridian() {
+        Random random = new Random(42);
+        List<ItemGeoPoint> points = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            points.add(new ItemGeoPoint(String.format("item-%03d", i),
+                6.5 + random.nextDouble() * 1.5, 79.5 + random.nextDouble() * 1.5));
+        }
+        for (int i = 0; i < 40; i++) {
+            double longitude = random.nextBoolean() ? 179.8 + random.nextDouble() * 0.2 : -180 + random.nextDouble() * 0.2;
+            points.add(new ItemGeoPoint(String.format("date-line-%02d", i), -16.5 + random.nextDouble() * 0.4, longitude));
+        }
+        when(itemRepository.findGeoPointsAfter(eq(""), any(Pageable.class))).thenReturn(points);
+        ItemGeoIndex geoIndex = new ItemGeoIndex(itemRepository, 1000, 0.05);
+        geoIndex.build();
+
+        assertNearestMatchesBruteForce(geoIndex, points, 6.93, 79.85, 25, 10);
+        assertNearestMatchesBruteForce(geoIndex, points, 7.5, 80.9, 200, 50);
+        assertNearestMatchesBruteForce(geoIndex, points, -16.3, 179.99, 30, 15);
+        assertNearestMatchesBruteForce(geoIndex, points, 6.93, 79.85, 20_000, 5);
+        assertEquals(List.of(), geoIndex.nearest(40.0, -74.0, 50, 5).orElseThrow());
+    }
+
+    @Test
+    void nearestAfter_shouldSweepOutwardSliceBySliceWithoutGapsOrRepeats() {
+        Random random = new Random(7);
+        List<ItemGeoPoint> points = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            points.add(new ItemGeoPoint(String.format("item-%04d", i),
+                6.8 + random.nextDouble() * 0.3, 79.8 + random.nextDouble() * 0.3));
+        }
+        points.add(new ItemGeoPoint("tie-a", 6.95, 79.95));
+        points.add(new ItemGeoPoint("tie-b", 6.95, 79.95));
+        when(itemRepository.findGeoPointsAfter(eq(""), any(Pageable.class))).thenReturn(points);
+        ItemGeoIndex geoIndex = new ItemGeoIndex(itemRepository, 1000, 0.01);
+        geoIndex.build();
+
+        List<Neighbor> expected = points.stream()
+            .map(point -> new Neighbor(point.id(), ItemGeoIndex.distanceKm(6.95, 79.95, point.latitude(), point.longitude())))
+            .filter(neighbor -> neighbor.distanceKm() <= 8)
+            .sorted(Comparator.comparingDouble(Neighbor::distanceKm).thenComparing(Neighbor::itemId))
+            .toList();
+
+        List<Neighbor> swept = new ArrayList<>();
+        Neighbor after = null;
+        List<Neighbor> slice;
+        do {
+            slice = geoIndex.nearestAfter(6.95, 79.95, 8, after, 7).orElseThrow();
+            swept.addAll(slice);
+            if (!slice.isEmpty()) {
+                after = slice.get(slice.size() - 1);
+            }
+        } while (slice.size() == 7);
+
+        assertEquals(expected, swept);
+    }
+
+    @Test
+    void nearestAfter_shouldSkipRingsCloserThanThePreviousSlice() {
+        List<ItemGeoPoint> points = new ArrayList<>();
+        for (int r = -30; r <= 30; r++) {
+            for (int c = -30; c <= 30; c++) {
+                points.add(new ItemGeoPoint(String.format("cell%+03d%+03d", r, c), 7.005 + r * 0.01, 80.005 + c * 0.01));
+            }
+        }
+        when(itemRepository.findGeoPointsAfter(eq(""), any(Pageable.class))).thenReturn(points);
+        ItemGeoIndex geoIndex = new ItemGeoIndex(itemRepository, 5000, 0.01);
+        geoIndex.build();
+        Neighbor after = new Neighbor("cell+00+00", 10.0);
+
+        long before = geoIndex.cellsVisited();
+        List<Neighbor> next = geoIndex.nearestAfter(7.005, 80.005, 15, after, 1).orElseThrow();
+        long visited = geoIndex.cellsVisited() - before;
+
+        Neighbor expected = points.stream()
+            .map(point -> new Neighbor(point.id(), ItemGeoIndex.distanceKm(7.005, 80.005, point.latitude(), point.longitude())))
+            .filter(neighbor -> ItemGeoIndex.NEAREST_FIRST.compare(neighbor, after) > 0)
+            .min(ItemGeoIndex.NEAREST_FIRST)
+            .orElseThrow();
+        assertEquals(List.of(expected), next);
+        // Rings 0-5 (an 11x11 block) lie within 10 km; the scan should stop by ring 9 (19x19).
+        assertEquals(19 * 19 - 11 * 11, visited);
+    }
+
+    @Test
+    void onItemChanged_shouldMoveAndRemovePoints() {
+        when(itemRepository.findGeoPointsAfter(eq(""), any(Pageable.class))).thenReturn(List.of(
+            new ItemGeoPoint("a", 6.9271, 79.8612),
+            new ItemGeoPoint("b", 7.2906, 80.6337)));
+        ItemGeoIndex geoIndex = new ItemGeoIndex(itemRepository, 100, 0.05);
+        geoIndex.build();
+
+        Item item = new Item();
+        item.setId("b");
+        item.setAvailable(true);
+        item.setLatitude(6.93);
+        item.setLongitude(79.86);
+        geoIndex.onItemChanged(new ItemChangedEvent(ItemChangedEvent.ChangeType.UPDATED, item));
+
+        assertEquals(List.of("b", "a"), geoIndex.nearest(6.93, 79.86, 5, 5).orElseThrow().stream().map(Neighbor::itemId).toList());
+
+        item.setAvailable(false);
+        geoIndex.onItemChanged(new ItemChangedEvent(ItemChangedEvent.ChangeType.UPDATED, item));
+
+        assertEquals(1, geoIndex.countWithin(6.93, 79.86, 5).orElseThrow());
+        assertEquals(1, geoIndex.size());
+    }
+
+    private void assertNearestMatchesBruteForce(ItemGeoIndex geoIndex, List<ItemGeoPoint> points,
+                                                double latitude, double longitude, double radiusKm, int limit) {
+        List<Neighbor> expected = points.stream()
+            .map(point -> new Neighbor(point.id(), ItemGeoIndex.distanceKm(latitude, longitude, point.latitude(), point.longitude())))
+            .filter(neighbor -> neighbor.distanceKm() <= radiusKm)
+            .sorted(Comparator.comparingDouble(Neighbor::distanceKm).thenComparing(Neighbor::itemId))
+            .toList();
+
+        assertEquals(expected.subList(0, Math.min(limit, expected.size())),
+            geoIndex.nearest(latitude, longitude, radiusKm, limit).orElseThrow());
+        assertEquals(expected.size(), geoIndex.countWithin(latitude, longitude, radiusKm).orElseThrow());
+    }
+}
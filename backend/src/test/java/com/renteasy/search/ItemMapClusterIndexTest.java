@@ -0,0 +1,131 @@
+package com.renteasy.search;
+
+import com.renteasy.model.Item;
+import com.renteasy.repository.ItemRepository;
+import com.renteasy.repository.projection.ItemMapPoint;
+import com.renteasy.search.ItemMapClusterIndex.Cluster;
+import com.renteasy.service.ItemChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemMapClusterIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Test
+    void clusters_shouldBeEmptyUntilBuilt() {
+        ItemMapClusterIndex clusterIndex = new ItemMapClusterIndex(itemRepository, 100, 16);
+
+        assertTrue(clusterIndex.clusters(6, 8, 79, 81, 10).isEmpty());
+    }
+
+    @Test
+    void clusters_shouldMatchDirectAggregationAtEveryLevel() {
+        Random random = new Random(11);
+        List<ItemMapPoint> points = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            points.add(new ItemMapPoint(String.format("item-%03d", i), 6.5 + random.nextDouble() * 1.5,
+                79.5 + random.nextDouble() * 1.5, BigDecimal.valueOf(100 + random.nextInt(9900))));
+        }
+        when(itemRepository.findMapPointsAfter(eq(""), any(Pageable.class))).thenReturn(points);
+        ItemMapClusterIndex clusterIndex = new ItemMapClusterIndex(itemRepository, 1000, 12);
+        clusterIndex.build();
+
+        for (int level = 0; level <= 12; level++) {
+            List<Cluster> clusters = clusterIndex.clusters(-90, 90, -180, 180, level).orElseThrow();
+            List<Cluster> expected = clusterIndex.aggregate(points, level);
+
+            assertEquals(expected.size(), clusters.size(), "level " + level);
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).cellId(), clusters.get(i).cellId());
+                assertEquals(expected.get(i).count(), clusters.get(i).count());
+                assertEquals(expected.get(i).latitude(), clusters.get(i).latitude(), 1e-9);
+                assertEquals(expected.get(i).longitude(), clusters.get(i).longitude(), 1e-9);
+                assertEquals(expected.get(i).minPrice(), clusters.get(i).minPrice());
+                assertEquals(expected.get(i).maxPrice(), clusters.get(i).maxPrice());
+                assertEquals(expected.get(i).itemIds(), clusters.get(i).itemIds());
+            }
+            assertEquals(500, clusters.stream().mapToInt(Cluster::count).sum());
+            assertEquals(level == 12, clusters.get(0).itemIds() != null);
+        }
+    }
+
+    @Test
+    void clusters_shouldCoverBoxesAcrossTheAntimeridian() {
+        when(itemRepository.findMapPointsAfter(eq(""), any(Pageable.class))).thenReturn(List.of(
+            new ItemMapPoint("fiji", -17.7, 178.9, BigDecimal.TEN),
+            new ItemMapPoint("samoa", -13.8, -172.1, BigDecimal.ONE),
+            new ItemMapPoint("colombo", 6.9, 79.9, BigDecimal.ONE)));
+        ItemMapClusterIndex clusterIndex = new ItemMapClusterIndex(itemRepository, 100, 16);
+        clusterIndex.build();
+
+        List<Cluster> clusters = clusterIndex.clusters(-25, -5, 170, -165, 5).orElseThrow();
+
+        assertEquals(2, clusters.stream().mapToInt(Cluster::count).sum());
+        assertEquals(3, clusterIndex.clusters(-90, 90, -180, 180, 0).orElseThrow().get(0).count());
+    }
+
+    @Test
+    void clusters_shouldListItemsOnlyForLeafCellsWithinTheCap() {
+        List<ItemMapPoint> points = new ArrayList<>();
+        for (int i = 0; i <= ItemMapClusterIndex.MAX_ITEMS_PER_CLUSTER; i++) {
+            points.add(new ItemMapPoint("crowded-" + i, 6.92710, 79.86120, BigDecimal.TEN));
+        }
+        points.add(new ItemMapPoint("alone", 7.2906, 80.6337, BigDecimal.ONE));
+        when(itemRepository.findMapPointsAfter(eq(""), any(Pageable.class))).thenReturn(points);
+        ItemMapClusterIndex clusterIndex = new ItemMapClusterIndex(itemRepository, 100, 16);
+        clusterIndex.build();
+
+        List<Cluster> clusters = clusterIndex.clusters(6.8, 7.4, 79.8, 80.7, 16).orElseThrow();
+
+        assertEquals(2, clusters.size());
+        assertEquals(ItemMapClusterIndex.MAX_ITEMS_PER_CLUSTER + 1, clusters.get(0).count());
+        assertNull(clusters.get(0).itemIds());
+        assertEquals(List.of("alone"), clusters.get(1).itemIds());
+    }
+
+    @Test
+    void onItemChanged_shouldRefreshAncestorsWhenItemsMoveOrLeave() {
+        when(itemRepository.findMapPointsAfter(eq(""), any(Pageable.class))).thenReturn(List.of(
+            new ItemMapPoint("a", 6.9271, 79.8612, BigDecimal.valueOf(500)),
+            new ItemMapPoint("b", 6.9300, 79.8700, BigDecimal.valueOf(9000))));
+        ItemMapClusterIndex clusterIndex = new ItemMapClusterIndex(itemRepository, 100, 16);
+        clusterIndex.build();
+
+        Item item = new Item();
+        item.setId("b");
+        item.setAvailable(true);
+        item.setLatitude(7.2906);
+        item.setLongitude(80.6337);
+        item.setPrice(BigDecimal.valueOf(9000));
+        clusterIndex.onItemChanged(new ItemChangedEvent(ItemChangedEvent.ChangeType.UPDATED, item));
+
+        List<Cluster> colombo = clusterIndex.clusters(6.8, 7.0, 79.8, 79.9, 8).orElseThrow();
+        assertEquals(1, colombo.size());
+        assertEquals(1, colombo.get(0).count());
+        assertEquals(BigDecimal.valueOf(500), colombo.get(0).maxPrice());
+
+        clusterIndex.onItemChanged(new ItemChangedEvent(ItemChangedEvent.ChangeType.DELETED, item));
+
+        Cluster world = clusterIndex.clusters(-90, 90, -180, 180, 0).orElseThrow().get(0);
+        assertEquals(1, world.count());
+        assertEquals(BigDecimal.valueOf(500), world.minPrice());
+        assertEquals(BigDecimal.valueOf(500), world.maxPrice());
+        assertEquals(1, clusterIndex.cellCount(16));
+    }
+}
@@ -0,0 +1,225 @@
+package com.renteasy.search;
+
+import com.renteasy.model.Item;
+import com.renteasy.repository.ItemRepository;
+import com.renteasy.repository.projection.ItemSearchDocument;
+import com.renteasy.service.ItemChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 10, 12, 0);
+    private static final BigDecimal[] PRICE_BANDS = {BigDecimal.valueOf(1000), BigDecimal.valueOf(5000)};
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private ItemSearchIndex itemSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        itemSearchIndex = new ItemSearchIndex(itemRepository, 2, 2.0f, 1.5f, 0.3, PRICE_BANDS);
+    }
+
+    @Test
+    void search_shouldReturnEmptyUntilBuilt() {
+        assertTrue(itemSearchIndex.search("camera", 0, 10).isEmpty());
+    }
+
+    @Test
+    void build_shouldIndexAllBatchesAndRankByRelevance() {
+        when(itemRepository.findSearchDocumentsAfter(eq(""), any(Pageable.class))).thenReturn(List.of(
+            document("a", "Canon EOS camera", "Full-frame body", NOW.minusDays(3)),
+            document("b", "Tripod", "Sturdy tripod that fits any camera", NOW)));
+        when(itemRepository.findSearchDocumentsAfter(eq("b"), any(Pageable.class))).thenReturn(List.of(
+            document("c", "Camping tent", "Sleeps four", NOW.minusDays(1))));
+
+        itemSearchIndex.build();
+
+        assertTrue(itemSearchIndex.isReady());
+        assertEquals(3, itemSearchIndex.size());
+        assertEquals(List.of("a", "b"), itemSearchIndex.search("camera", 0, 10).orElseThrow().itemIds());
+        assertEquals(List.of("a"), itemSearchIndex.search("FULL frame cam", 0, 10).orElseThrow().itemIds());
+        assertEquals(3, itemSearchIndex.search("ca", 0, 10).orElseThrow().total());
+        assertTrue(itemSearchIndex.search("?!", 0, 10).isEmpty());
+    }
+
+    @Test
+    void search_shouldApplyBoostMultiplierAndPageThroughTopK() {
+        when(itemRepository.findSearchDocumentsAfter(eq(""), any(Pageable.class))).thenReturn(List.of(
+            document("a", "Drill", null, NOW),
+            new ItemSearchDocument("b", "Drill", null, null, null, null, null, true, true, LocalDateTime.now().plusDays(2), NOW.minusDays(5))));
+        when(itemRepository.findSearchDocumentsAfter(eq("b"), any(Pageable.class))).thenReturn(List.of(
+            new ItemSearchDocument("c", "Drill", null, null, null, null, null, true, true, LocalDateTime.now().minusDays(1), NOW.minusDays(1))));
+
+        itemSearchIndex.build();
+
+        assertEquals(List.of("b", "a", "c"), itemSearchIndex.search("drill", 0, 10).orElseThrow().itemIds());
+        ItemSearchIndex.Hits secondPage = itemSearchIndex.search("drill", 2, 2).orElseThrow();
+        assertEquals(List.of("c"), secondPage.itemIds());
+        assertEquals(3, secondPage.total());
+    }
+
+    @Test
+    void search_shouldCorrectMisspelledTermsAndSuggestQuery() {
+        when(itemRepository.findSearchDocumentsAfter(eq(""), any(Pageable.class))).thenReturn(List.of(
+            new ItemSearchDocument("a", "Canon EOS R5", null, "Cameras", "Mirrorless body", null, null, true, false, null, NOW),
+            new ItemSearchDocument("b", "Honda Civic", null, "Cars", null, null, null, true, false, null, NOW)));
+
+        itemSearchIndex.build();
+
+        ItemSearchIndex.Hits canon = itemSearchIndex.search("Cannon EOS", 0, 10).orElseThrow();
+        assertEquals(List.of("a"), canon.itemIds());
+        assertEquals("canon eos", canon.suggestion());
+
+        ItemSearchIndex.Hits honda = itemSearchIndex.search("hona civic", 0, 10).orElseThrow();
+        assertEquals(List.of("b"), honda.itemIds());
+        assertEquals("honda civic", honda.suggestion());
+
+        assertNull(itemSearchIndex.search("canon", 0, 10).orElseThrow().suggestion());
+        assertEquals(0, itemSearchIndex.search("xylophone", 0, 10).orElseThrow().total());
+    }
+
+    @Test
+    void onItemChanged_shouldKeepIndexCurrent() {
+        when(itemRepository.findSearchDocumentsAfter(eq(""), any(Pageable.class))).thenReturn(List.of(
+            document("a", "Canon camera", null, NOW)));
+        itemSearchIndex.build();
+
+        Item updated = item("a", "Canon lens", true);
+        itemSearchIndex.onItemChanged(new ItemChangedEvent(ItemChangedEvent.ChangeType.UPDATED, updated));
+        Item created = item("b", "Drone camera", true);
+        itemSearchIndex.onItemChanged(new ItemChangedEvent(ItemChangedEvent.ChangeType.CREATED, created));
+
+        assertEquals(List.of("b"), itemSearchIndex.search("camera", 0, 10).orElseThrow().itemIds());
+        assertEquals(List.of("a"), itemSearchIndex.search("lens", 0, 10).orElseThrow().itemIds());
+
+        itemSearchIndex.onItemChanged(new ItemChangedEvent(ItemChangedEvent.ChangeType.UPDATED, item("b", "Drone camera", false)));
+        itemSearchIndex.onItemChanged(new ItemChangedEvent(ItemChangedEvent.ChangeType.DELETED, updated));
+
+        assertEquals(0, itemSearchIndex.search("canon", 0, 10).orElseThrow().total());
+        assertEquals(0, itemSearchIndex.search("drone", 0, 10).orElseThrow().total());
+        assertEquals(0, itemSearchIndex.size());
+    }
+
+    @Test
+    void search_shouldIntersectRareTermWithCommonPrefix() {
+        List<ItemSearchDocument> drills = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            drills.add(document("d" + i, "Drill " + i, null, NOW));
+        }
+        drills.add(document("x", "Cordless drill", "Drill driver with two batteries", NOW.minusDays(1)));
+        drills.add(document("y", "Cordless vacuum", null, NOW));
+        when(itemRepository.findSearchDocumentsAfter(eq(""), any(Pageable.class))).thenReturn(drills);
+        itemSearchIndex = new ItemSearchIndex(itemRepository, 100, 2.0f, 1.5f, 0.3, PRICE_BANDS);
+
+        itemSearchIndex.build();
+
+        assertEquals(List.of("x"), itemSearchIndex.search("dri cordless", 0, 10).orElseThrow().itemIds());
+        assertEquals(2, itemSearchIndex.search("cordless", 0, 10).orElseThrow().total());
+        assertEquals(41, itemSearchIndex.search("drill", 0, 5).orElseThrow().total());
+        assertEquals(0, itemSearchIndex.search("cordless tent", 0, 10).orElseThrow().total());
+    }
+
+    @Test
+    void onItemChanged_shouldReuseOrdinalsOfRemovedItems() {
+        when(itemRepository.findSearchDocumentsAfter(eq(""), any(Pageable.class))).thenReturn(List.of(
+            document("a", "Canon camera", null, NOW)));
+        itemSearchIndex.build();
+
+        for (int i = 0; i < 100; i++) {
+            Item item = item("churn-" + i, "Drone camera " + i, true);
+            itemSearchIndex.onItemChanged(new ItemChangedEvent(ItemChangedEvent.ChangeType.CREATED, item));
+            itemSearchIndex.onItemChanged(new ItemChangedEvent(ItemChangedEvent.ChangeType.DELETED, item));
+        }
+        itemSearchIndex.onItemChanged(new ItemChangedEvent(ItemChangedEvent.ChangeType.CREATED, item("b", "Drone camera", true)));
+
+        assertEquals(2, itemSearchIndex.ordinalCount());
+        assertEquals(List.of("b", "a"), itemSearchIndex.search("camera", 0, 10).orElseThrow().itemIds());
+        assertEquals(List.of("b"), itemSearchIndex.search("drone", 0, 10).orElseThrow().itemIds());
+    }
+
+    @Test
+    void build_shouldNotOverwriteItemsChangedWhileBuilding() {
+        itemSearchIndex.onItemChanged(new ItemChangedEvent(ItemChangedEvent.ChangeType.UPDATED, item("a", "Canon lens", true)));
+        when(itemRepository.findSearchDocumentsAfter(eq(""), any(Pageable.class))).thenReturn(List.of(
+            document("a", "Canon camera", null, NOW)));
+
+        itemSearchIndex.build();
+
+        assertEquals(0, itemSearchIndex.search("camera", 0, 10).orElseThrow().total());
+        assertEquals(List.of("a"), itemSearchIndex.search("lens", 0, 10).orElseThrow().itemIds());
+    }
+
+    @Test
+    void facets_shouldCountMatchesAndCategoryItemsByBitmap() {
+        when(itemRepository.findSearchDocumentsAfter(eq(""), any(Pageable.class))).thenReturn(List.of(
+            facetDocument("a", "Canon camera", "Cameras", "Colombo", 4500, true),
+            facetDocument("b", "Sony camera", "Cameras", "Kandy", 800, true)));
+        when(itemRepository.findSearchDocumentsAfter(eq("b"), any(Pageable.class))).thenReturn(List.of(
+            facetDocument("c", "Camera bag", "Accessories", "Colombo", 6000, false)));
+
+        itemSearchIndex.build();
+
+        assertEquals(2, itemSearchIndex.size());
+        assertEquals(2, itemSearchIndex.search("camera", 0, 10).orElseThrow().total());
+
+        Map<String, Map<String, Integer>> searchFacets = itemSearchIndex.search("camera", 0, 1, true).orElseThrow().facets();
+        assertEquals(Map.of("Cameras", 2), searchFacets.get(ItemSearchIndex.FACET_SUBCATEGORY));
+        assertEquals(List.of("0-1000", "1000-5000"), List.copyOf(searchFacets.get(ItemSearchIndex.FACET_PRICE).keySet()));
+        assertEquals(Map.of("available", 2, "unavailable", 0), searchFacets.get(ItemSearchIndex.FACET_AVAILABILITY));
+
+        Map<String, Map<String, Integer>> categoryFacets = itemSearchIndex.categoryFacets("electronics", null).orElseThrow();
+        assertEquals(Map.of("Colombo", 1, "Kandy", 1), categoryFacets.get(ItemSearchIndex.FACET_LOCATION));
+        assertEquals(Map.of("Cameras", 2), categoryFacets.get(ItemSearchIndex.FACET_SUBCATEGORY));
+        assertEquals(Map.of("available", 2, "unavailable", 1), categoryFacets.get(ItemSearchIndex.FACET_AVAILABILITY));
+        assertEquals(Map.of("available", 0, "unavailable", 1),
+            itemSearchIndex.categoryFacets("electronics", "Accessories").orElseThrow().get(ItemSearchIndex.FACET_AVAILABILITY));
+
+        Item madeAvailable = item("c", "Camera bag", true);
+        madeAvailable.setCategory("electronics");
+        madeAvailable.setSubcategory("Accessories");
+        madeAvailable.setPrice(BigDecimal.valueOf(6000));
+        itemSearchIndex.onItemChanged(new ItemChangedEvent(ItemChangedEvent.ChangeType.UPDATED, madeAvailable));
+
+        assertEquals(Map.of("0-1000", 1, "1000-5000", 1, "5000+", 1),
+            itemSearchIndex.categoryFacets("electronics", null).orElseThrow().get(ItemSearchIndex.FACET_PRICE));
+        assertEquals(3, itemSearchIndex.search("camera", 0, 10).orElseThrow().total());
+    }
+
+    private ItemSearchDocument document(String id, String name, String description, LocalDateTime createdAt) {
+        return new ItemSearchDocument(id, name, null, null, description, null, null, true, false, null, createdAt);
+    }
+
+    private ItemSearchDocument facetDocument(String id, String name, String subcategory, String location,
+                                             int price, boolean available) {
+        return new ItemSearchDocument(id, name, "electronics", subcategory, null, location, BigDecimal.valueOf(price),
+            available, false, null, NOW);
+    }
+
+    private Item item(String id, String name, boolean available) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setAvailable(available);
+        item.setCreatedAt(NOW);
+        return item;
+    }
+}
@@ -0,0 +1,143 @@
+package com.renteasy.search;
+
+import com.renteasy.repository.ItemTrendingScoreRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemTrendingIndexTest {
+
+    private static final long DAY = Duration.ofDays(1).toMillis();
+
+    @Mock
+    private ItemTrendingScoreRepository scoreRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void top_shouldRankRecentActivityAboveOlderActivityInTheShortWindow() {
+        ItemTrendingIndex index = loadedIndex(10);
+        long start = System.currentTimeMillis();
+        for (int view = 0; view < 10; view++) {
+            index.record("item-old", 1.0, start);
+        }
+        for (int view = 0; view < 3; view++) {
+            index.record("item-new", 1.0, start + 2 * DAY);
+        }
+
+        // 10 views two days ago: 10/e^2 = 1.35 in the 24h window, 10/e^(2/7) = 7.5 in the 7d window.
+        assertEquals(List.of("item-new", "item-old"), index.top(ItemTrendingIndex.Window.DAY, 0, 10).orElseThrow().itemIds());
+        assertEquals(List.of("item-old", "item-new"), index.top(ItemTrendingIndex.Window.WEEK, 0, 10).orElseThrow().itemIds());
+        assertEquals(10 / Math.E, index.score(ItemTrendingIndex.Window.DAY, "item-old", start + DAY), 1e-9);
+        assertEquals(List.of("item-old"), index.top(ItemTrendingIndex.Window.WEEK, 0, 1).orElseThrow().itemIds());
+        assertEquals(List.of("item-new"), index.top(ItemTrendingIndex.Window.WEEK, 1, 1).orElseThrow().itemIds());
+
+        // Far enough ahead that the index moves its landmark; scores and order must survive it.
+        index.record("item-later", 1.0, start + 60 * DAY);
+        assertEquals(1.0, index.score(ItemTrendingIndex.Window.DAY, "item-later", start + 60 * DAY), 1e-9);
+        assertEquals(3 * Math.exp(-58), index.score(ItemTrendingIndex.Window.DAY, "item-new", start + 60 * DAY), 1e-30);
+        assertEquals(List.of("item-later", "item-new", "item-old"),
+            index.top(ItemTrendingIndex.Window.DAY, 0, 10).orElseThrow().itemIds());
+    }
+
+    @Test
+    void top_shouldKeepOnlyTheBestItemsAndRefillWhenOneIsRemoved() {
+        ItemTrendingIndex index = loadedIndex(2);
+        long now = System.currentTimeMillis();
+        index.record("item-a", 1.0, now);
+        index.record("item-b", 2.0, now);
+        index.record("item-c", 3.0, now);
+
+        ItemTrendingIndex.Ranked ranked = index.top(ItemTrendingIndex.Window.DAY, 0, 10).orElseThrow();
+        assertEquals(List.of("item-c", "item-b"), ranked.itemIds());
+        assertEquals(2, ranked.total());
+
+        index.remove("item-c");
+        assertEquals(List.of("item-b", "item-a"), index.top(ItemTrendingIndex.Window.DAY, 0, 10).orElseThrow().itemIds());
+
+        index.record("item-c", 1.0, now);
+        index.record("item-a", 5.0, now);
+        assertEquals(List.of("item-a", "item-b"), index.top(ItemTrendingIndex.Window.DAY, 0, 10).orElseThrow().itemIds());
+    }
+
+    @Test
+    void top_shouldBeEmptyUntilLoaded() {
+        ItemTrendingIndex index = new ItemTrendingIndex(scoreRepository, jdbcTemplate, transactionManager, 500, 10, 5, 60000);
+        index.record("item-a", 1.0, System.currentTimeMillis());
+
+        assertTrue(index.top(ItemTrendingIndex.Window.DAY, 0, 10).isEmpty());
+        index.persist();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void persist_shouldWriteActiveScoresAndDeleteDecayedOnes() {
+        ItemTrendingIndex index = loadedIndex(10);
+        long now = System.currentTimeMillis();
+        index.record("item-fresh", 1.0, now);
+        index.record("item-stale", 1.0, now - 40 * DAY);
+        when(jdbcTemplate.batchUpdate(startsWith("DELETE"), anyList())).thenReturn(new int[] {1});
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList())).thenReturn(new int[] {0});
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyList())).thenReturn(new int[] {1});
+
+        index.persist();
+
+        ArgumentCaptor<List<Object[]>> deleted = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<Object[]>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("DELETE"), deleted.capture());
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT"), inserted.capture());
+        assertArrayEquals(new Object[] {"item-stale"}, deleted.getValue().get(0));
+        Object[] row = inserted.getValue().get(0);
+        assertEquals(1, inserted.getValue().size());
+        assertEquals(1.0, (double) row[0], 0.01);
+        assertEquals(1.0, (double) row[1], 0.01);
+        assertEquals("item-fresh", row[3]);
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void persist_shouldDropItemsDeletedSinceTheirLastActivity() {
+        ItemTrendingIndex index = loadedIndex(10);
+        long now = System.currentTimeMillis();
+        index.record("item-kept", 2.0, now);
+        index.record("item-deleted", 1.0, now);
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList())).thenReturn(new int[] {1, 0});
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyList())).thenReturn(new int[] {0});
+
+        index.persist();
+
+        assertEquals(List.of("item-kept"), index.top(ItemTrendingIndex.Window.DAY, 0, 10).orElseThrow().itemIds());
+        index.persist();
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("DELETE"), anyList());
+    }
+
+    private ItemTrendingIndex loadedIndex(int topSize) {
+        when(scoreRepository.findAvailableAfter(anyString(), any())).thenReturn(List.of());
+        ItemTrendingIndex index = new ItemTrendingIndex(scoreRepository, jdbcTemplate, transactionManager, 500, topSize, 5, 60000);
+        index.load();
+        return index;
+    }
+}
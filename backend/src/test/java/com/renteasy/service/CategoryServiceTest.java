@@ -0,0 +1,85 @@
+package com.renteasy.service;
+
+import com.renteasy.dto.CategoryDTO;
+import com.renteasy.model.Category;
+import com.renteasy.model.Subcategory;
+import com.renteasy.repository.CategoryRepository;
+import com.renteasy.repository.ItemRepository;
+import com.renteasy.repository.SubcategoryRepository;
+import com.renteasy.repository.projection.CategoryItemCount;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryServiceTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private SubcategoryRepository subcategoryRepository;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @InjectMocks
+    private CategoryService categoryService;
+
+    @BeforeEach
+    void setUp() {
+        when(categoryRepository.findAllByOrderBySortOrderAsc()).thenReturn(List.of(
+            new Category(1, "vehicles", "Vehicles", 1),
+            new Category(3, "electronics", "Electronics", 3)));
+        when(subcategoryRepository.findAllByOrderBySortOrderAsc()).thenReturn(List.of(
+            new Subcategory(1, 1, "Cars", 1),
+            new Subcategory(9, 3, "Cameras", 1),
+            new Subcategory(10, 3, "Laptops/monitors/projectors", 2)));
+    }
+
+    @Test
+    void resolve_shouldMatchSlugsAndNamesIgnoringCaseAndLoadOnce() {
+        CategoryService.Resolved bySlug = categoryService.resolve("electronics", "cameras");
+        CategoryService.Resolved byName = categoryService.resolve(" Electronics ", null);
+
+        assertEquals(3, bySlug.category().id());
+        assertEquals("Cameras", bySlug.subcategory().name());
+        assertEquals("electronics", byName.category().slug());
+        assertNull(byName.subcategory());
+        assertEquals(List.of(1), categoryService.findSubcategoryIds(null, "CARS"));
+        verify(categoryRepository, times(1)).findAllByOrderBySortOrderAsc();
+    }
+
+    @Test
+    void resolve_shouldRejectValuesOutsideTheTaxonomy() {
+        assertEquals("Unknown category: boats",
+            assertThrows(RuntimeException.class, () -> categoryService.resolve("boats", null)).getMessage());
+        assertEquals("Unknown subcategory Cars for category electronics",
+            assertThrows(RuntimeException.class, () -> categoryService.resolve("electronics", "Cars")).getMessage());
+    }
+
+    @Test
+    void getCategoryTree_shouldAddUpLiveCountsPerLevel() {
+        when(itemRepository.countAvailableByCategory()).thenReturn(List.of(
+            new CategoryItemCount(3, 9, 4),
+            new CategoryItemCount(3, 10, 2),
+            new CategoryItemCount(3, null, 1)));
+
+        List<CategoryDTO> tree = categoryService.getCategoryTree();
+
+        assertEquals(List.of("vehicles", "electronics"), tree.stream().map(CategoryDTO::getSlug).toList());
+        assertEquals(0L, tree.get(0).getItemCount());
+        assertEquals(7L, tree.get(1).getItemCount());
+        assertEquals(List.of(4L, 2L), tree.get(1).getSubcategories().stream().map(sub -> sub.getItemCount()).toList());
+    }
+}
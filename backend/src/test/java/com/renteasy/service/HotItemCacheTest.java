@@ -0,0 +1,133 @@
+package com.renteasy.service;
+
+import com.renteasy.model.Item;
+import com.renteasy.repository.ItemRepository;
+import com.renteasy.repository.projection.ItemSummary;
+import com.renteasy.search.ItemTrendingIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HotItemCacheTest {
+
+    @Mock
+    private ItemTrendingIndex itemTrendingIndex;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private ImageStorageService imageStorageService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private HotItemTracker hotItemTracker;
+    private HotItemCache hotItemCache;
+
+    @BeforeEach
+    void setUp() {
+        hotItemTracker = new HotItemTracker(100, 0.25);
+        hotItemCache = new HotItemCache(hotItemTracker, itemTrendingIndex, itemRepository, imageStorageService,
+            transactionManager, 10, 10000, 300000);
+    }
+
+    @Test
+    void refresh_shouldCacheOnlyAvailableItemsOfTheHottest() {
+        hotItemTracker.recordRead("item-a");
+        hotItemTracker.recordRead("item-b");
+        when(itemRepository.findAllById(any())).thenReturn(List.of(item("item-a", true), item("item-b", false)));
+
+        assertEquals(1, hotItemCache.refresh());
+
+        assertEquals("item-a", hotItemCache.get("item-a").orElseThrow().getId());
+        assertTrue(hotItemCache.get("item-b").isEmpty());
+        assertEquals(1, hotItemCache.getHits());
+        assertEquals(1, hotItemCache.getMisses());
+        verify(itemTrendingIndex, never()).top(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void refresh_shouldStartFromTrendingThenAllTimeViewsUntilReadsAreTracked() {
+        when(itemTrendingIndex.top(ItemTrendingIndex.Window.DAY, 0, 10))
+            .thenReturn(Optional.of(new ItemTrendingIndex.Ranked(List.of("item-trending"), 1)))
+            .thenReturn(Optional.empty());
+        when(itemRepository.findAllById(List.of("item-trending"))).thenReturn(List.of(item("item-trending", true)));
+        when(itemRepository.findPopularItems(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(summary("item-viewed"))));
+        when(itemRepository.findAllById(List.of("item-viewed"))).thenReturn(List.of(item("item-viewed", true)));
+
+        hotItemCache.refresh();
+        assertTrue(hotItemCache.contains("item-trending"));
+
+        hotItemCache.refresh();
+        assertTrue(hotItemCache.contains("item-viewed"));
+        assertFalse(hotItemCache.contains("item-trending"));
+    }
+
+    @Test
+    void refresh_shouldNotCacheAnItemChangedWhileItWasLoading() {
+        hotItemTracker.recordRead("item-a");
+        hotItemTracker.recordRead("item-b");
+        Item changing = item("item-a", true);
+        when(itemRepository.findAllById(any())).thenAnswer(invocation -> {
+            // The update commits after the stale row was read but before the refresh stores it.
+            hotItemCache.onItemChanged(new ItemChangedEvent(ItemChangedEvent.ChangeType.UPDATED, changing));
+            return List.of(changing, item("item-b", true));
+        });
+
+        hotItemCache.refresh();
+
+        assertFalse(hotItemCache.contains("item-a"));
+        assertTrue(hotItemCache.contains("item-b"));
+    }
+
+    @Test
+    void refresh_shouldDropItemsNoLongerHotAndDeletesShouldForgetThem() {
+        hotItemTracker.recordRead("item-a");
+        hotItemTracker.recordRead("item-b");
+        hotItemTracker.recordRead("item-b");
+        when(itemRepository.findAllById(eq(List.of("item-b", "item-a")))).thenReturn(List.of(item("item-a", true), item("item-b", true)));
+        hotItemCache.refresh();
+        assertEquals(2, hotItemCache.getCacheSize());
+
+        hotItemCache.onItemChanged(new ItemChangedEvent(ItemChangedEvent.ChangeType.DELETED, item("item-a", true)));
+        assertFalse(hotItemCache.contains("item-a"));
+        when(itemRepository.findAllById(eq(List.of("item-b")))).thenReturn(List.of(item("item-b", true)));
+
+        hotItemCache.refresh();
+
+        assertEquals(1, hotItemCache.getCacheSize());
+        assertTrue(hotItemCache.contains("item-b"));
+        assertEquals(List.of("item-b"), hotItemTracker.top(10).stream().map(HotItemTracker.HotItem::itemId).toList());
+    }
+
+    private Item item(String id, boolean available) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName("Item " + id);
+        item.setAvailable(available);
+        return item;
+    }
+
+    private ItemSummary summary(String id) {
+        return new ItemSummary(id, "Item " + id, null, null, null, null, null, null, true, null, null, null,
+            10, false, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,60 @@
+package com.renteasy.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotItemTrackerTest {
+
+    @Test
+    void top_shouldFindHeavyHittersAmongManyRarelyReadItems() {
+        HotItemTracker tracker = new HotItemTracker(50, 0.25);
+        Map<String, Integer> reads = new TreeMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            String itemId = random.nextInt(10) == 0
+                ? "viral-" + random.nextInt(3)
+                : "item-" + random.nextInt(5_000);
+            reads.merge(itemId, 1, Integer::sum);
+            tracker.recordRead(itemId);
+        }
+
+        List<HotItemTracker.HotItem> top = tracker.top(3);
+
+        assertEquals(List.of("viral-0", "viral-1", "viral-2"), top.stream().map(HotItemTracker.HotItem::itemId).sorted().toList());
+        for (HotItemTracker.HotItem hotItem : tracker.top(50)) {
+            int actual = reads.get(hotItem.itemId());
+            assertTrue(hotItem.count() >= actual, hotItem + " undercounts " + actual);
+            assertTrue(hotItem.count() - hotItem.error() <= actual, hotItem + " overcounts " + actual);
+        }
+        assertEquals(50, tracker.size());
+    }
+
+    @Test
+    void decay_shouldLetCurrentReadsOvertakeOldOnes() {
+        HotItemTracker tracker = new HotItemTracker(10, 0.25);
+        for (int i = 0; i < 100; i++) {
+            tracker.recordRead("yesterday");
+        }
+        tracker.decay(0.5);
+        tracker.decay(0.5);
+        for (int i = 0; i < 30; i++) {
+            tracker.recordRead("today");
+        }
+        tracker.recordImpressions(List.of("today", "search-only"));
+
+        List<HotItemTracker.HotItem> top = tracker.top(10);
+
+        assertEquals(List.of("today", "yesterday", "search-only"), top.stream().map(HotItemTracker.HotItem::itemId).toList());
+        assertEquals(30.25, top.get(0).count(), 1e-9);
+        assertEquals(25, top.get(1).count(), 1e-9);
+
+        tracker.remove("today");
+        assertEquals("yesterday", tracker.top(1).get(0).itemId());
+    }
+}
@@ -0,0 +1,96 @@
+package com.renteasy.service;
+
+import com.renteasy.repository.ItemRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ImageDerivativeServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private ImageStorageService imageStorageService;
+    private ImageDerivativeService imageDerivativeService;
+
+    @BeforeEach
+    void setUp() {
+        imageStorageService = new ImageStorageService(uploadDir.toString(), DataSize.ofMegabytes(10));
+        imageDerivativeService = new ImageDerivativeService(imageStorageService, itemRepository, 1, 10);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        imageDerivativeService.shutdown();
+    }
+
+    @Test
+    void generate_shouldRecordDownscaledRenditions() throws Exception {
+        String sourceKey = imageStorageService.store(encode(new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_RGB), "jpg"), "image/jpeg");
+
+        imageDerivativeService.generate("item-1", sourceKey);
+
+        ArgumentCaptor<String> cardKey = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> detailKey = ArgumentCaptor.forClass(String.class);
+        verify(itemRepository).updateImageDerivatives(eq("item-1"), eq(sourceKey), cardKey.capture(), detailKey.capture());
+
+        BufferedImage card = ImageIO.read(imageStorageService.resolve(cardKey.getValue()).orElseThrow().toFile());
+        BufferedImage detail = ImageIO.read(imageStorageService.resolve(detailKey.getValue()).orElseThrow().toFile());
+        assertEquals(ImageDerivativeService.CARD_MAX_DIMENSION, card.getWidth());
+        assertEquals(240, card.getHeight());
+        assertEquals(ImageDerivativeService.DETAIL_MAX_DIMENSION, detail.getWidth());
+        assertEquals(640, detail.getHeight());
+        assertTrue(cardKey.getValue().endsWith(".jpg"));
+    }
+
+    @Test
+    void generate_shouldReuseSourceWhenAlreadySmallEnough() throws Exception {
+        String sourceKey = imageStorageService.store(encode(new BufferedImage(300, 200, BufferedImage.TYPE_INT_ARGB), "png"), "image/png");
+
+        imageDerivativeService.generate("item-2", sourceKey);
+
+        verify(itemRepository).updateImageDerivatives("item-2", sourceKey, sourceKey, sourceKey);
+    }
+
+    @Test
+    void placeholderFor_shouldEncodeBlurHash() throws Exception {
+        BufferedImage image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 300; y++) {
+            for (int x = 0; x < 400; x++) {
+                image.setRGB(x, y, x < 200 ? 0x3366CC : 0xCC6633);
+            }
+        }
+        String key = imageStorageService.store(encode(image, "png"), "image/png");
+
+        String placeholder = imageDerivativeService.placeholderFor(imageStorageService.resolve(key).orElseThrow());
+
+        assertNotNull(placeholder);
+        assertEquals(28, placeholder.length());
+        assertTrue(placeholder.startsWith("L"));
+    }
+
+    private byte[] encode(BufferedImage image, String format) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, format, output);
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,118 @@
+package com.renteasy.service;
+
+import com.renteasy.model.Item;
+import com.renteasy.model.MigrationCheckpoint;
+import com.renteasy.repository.ItemRepository;
+import com.renteasy.repository.MigrationCheckpointRepository;
+import com.renteasy.service.ImageStorageService.StagedImage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageMigrationServiceTest {
+
+    private static final String KEY = "a".repeat(64) + ".png";
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private MigrationCheckpointRepository checkpointRepository;
+
+    @Mock
+    private ImageStorageService imageStorageService;
+
+    @Mock
+    private ImageDerivativeService imageDerivativeService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ImageMigrationService imageMigrationService;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        imageMigrationService = new ImageMigrationService(itemRepository, checkpointRepository, imageStorageService,
+            imageDerivativeService, eventPublisher, transactionManager, 2, 0, false);
+    }
+
+    @Test
+    void migrateNextBatch_shouldRewriteDataUrisAndAdvanceCheckpoint() {
+        MigrationCheckpoint checkpoint = new MigrationCheckpoint(ImageMigrationService.CHECKPOINT_NAME);
+        checkpoint.setLastProcessedId("item-0");
+        when(checkpointRepository.findById(ImageMigrationService.CHECKPOINT_NAME)).thenReturn(Optional.of(checkpoint));
+        when(itemRepository.findIdsWithInlineImagesAfter(eq("item-0"), any(Pageable.class))).thenReturn(List.of("item-1", "item-2"));
+
+        Item item = new Item();
+        item.setId("item-1");
+        item.setImageUrl("data:image/png;base64,AAAA");
+        item.setAdditionalImages(new ArrayList<>(List.of("https://cdn.test/b.png")));
+        StagedImage staged = new StagedImage(KEY, Path.of("staged.png"));
+        when(itemRepository.findById("item-1")).thenReturn(Optional.of(item));
+        when(itemRepository.findById("item-2")).thenReturn(Optional.empty());
+        when(imageStorageService.stageDataUri("data:image/png;base64,AAAA")).thenReturn(staged);
+        when(imageDerivativeService.placeholderFor(staged.file())).thenReturn("LEHV6nWB2yk8pyo0adR*.7kCMdnj");
+
+        boolean hasMore = imageMigrationService.migrateNextBatch();
+
+        assertTrue(hasMore);
+        assertEquals(KEY, item.getImageUrl());
+        assertEquals(List.of("https://cdn.test/b.png"), item.getAdditionalImages());
+        assertEquals("LEHV6nWB2yk8pyo0adR*.7kCMdnj", item.getImagePlaceholder());
+        verify(itemRepository).updateMainImage("item-1", KEY, false, null, null, "LEHV6nWB2yk8pyo0adR*.7kCMdnj");
+        verify(itemRepository, never()).deleteAdditionalImages(any());
+        verify(itemRepository, never()).save(any());
+        verify(imageStorageService).commitOnTransactionSuccess(List.of(staged));
+        verify(eventPublisher).publishEvent(any(ItemChangedEvent.class));
+        assertEquals("item-2", checkpoint.getLastProcessedId());
+        assertEquals(2L, checkpoint.getProcessedCount());
+        assertEquals(1L, checkpoint.getMigratedCount());
+        assertFalse(checkpoint.getCompleted());
+        verify(checkpointRepository).save(checkpoint);
+    }
+
+    @Test
+    void migrateNextBatch_shouldSkipUndecodableImagesAndFinish() {
+        MigrationCheckpoint checkpoint = new MigrationCheckpoint(ImageMigrationService.CHECKPOINT_NAME);
+        when(checkpointRepository.findById(ImageMigrationService.CHECKPOINT_NAME)).thenReturn(Optional.of(checkpoint));
+        when(itemRepository.findIdsWithInlineImagesAfter(eq(""), any(Pageable.class))).thenReturn(List.of("item-3"));
+
+        Item item = new Item();
+        item.setId("item-3");
+        item.setImageUrl("data:image/png;base64,!!!");
+        when(itemRepository.findById("item-3")).thenReturn(Optional.of(item));
+        when(imageStorageService.stageDataUri("data:image/png;base64,!!!")).thenThrow(new RuntimeException("Invalid image data"));
+
+        boolean hasMore = imageMigrationService.migrateNextBatch();
+
+        assertFalse(hasMore);
+        assertEquals("data:image/png;base64,!!!", item.getImageUrl());
+        verify(itemRepository, never()).save(any());
+        verify(itemRepository, never()).updateMainImage(any(), any(), anyBoolean(), any(), any(), any());
+        assertEquals(1L, checkpoint.getFailedCount());
+        assertEquals("item-3", checkpoint.getLastProcessedId());
+        assertTrue(checkpoint.getCompleted());
+    }
+}
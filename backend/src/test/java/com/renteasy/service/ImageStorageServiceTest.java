@@ -0,0 +1,130 @@
+package com.renteasy.service;
+
+import com.renteasy.service.ImageStorageService.StagedImage;
+import com.renteasy.util.ImageUrls;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageStorageServiceTest {
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 13, 'I', 'H', 'D', 'R'};
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 16, 'J', 'F', 'I', 'F'};
+
+    @TempDir
+    Path uploadDir;
+
+    private ImageStorageService imageStorageService;
+
+    @BeforeEach
+    void setUp() {
+        imageStorageService = new ImageStorageService(uploadDir.toString(), DataSize.ofKilobytes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void store_shouldDeduplicateIdenticalContent() throws Exception {
+        String first = imageStorageService.store(PNG, "image/png");
+        String second = imageStorageService.store(PNG, "image/png");
+
+        assertEquals(first, second);
+        assertTrue(ImageUrls.isImageKey(first));
+        assertTrue(first.endsWith(".png"));
+        Path stored = imageStorageService.resolve(first).orElseThrow();
+        assertArrayEquals(PNG, Files.readAllBytes(stored));
+        assertEquals("image/png", imageStorageService.contentType(first));
+    }
+
+    @Test
+    void storeDataUri_shouldDecodeBase64Payload() throws Exception {
+        String dataUri = "data:image/jpeg;base64," + Base64.getEncoder().encodeToString(JPEG);
+
+        String key = imageStorageService.storeDataUri(dataUri);
+
+        assertTrue(key.endsWith(".jpg"));
+        assertArrayEquals(JPEG, Files.readAllBytes(imageStorageService.resolve(key).orElseThrow()));
+    }
+
+    @Test
+    void stage_shouldTakeExtensionFromFileSignature() {
+        StagedImage staged = imageStorageService.stage(new ByteArrayInputStream(JPEG), "image/png");
+
+        assertTrue(staged.key().endsWith(".jpg"));
+        assertTrue(imageStorageService.resolve(staged.key()).isEmpty());
+        imageStorageService.discard(staged);
+        assertFalse(Files.exists(staged.file()));
+    }
+
+    @Test
+    void stage_shouldRejectNonImageContent() {
+        RuntimeException wrongType = assertThrows(RuntimeException.class,
+            () -> imageStorageService.store(PNG, "text/html"));
+        RuntimeException wrongSignature = assertThrows(RuntimeException.class,
+            () -> imageStorageService.store("<html></html>".getBytes(), "image/png"));
+
+        assertEquals("Unsupported image type: text/html", wrongType.getMessage());
+        assertEquals("Unsupported image format", wrongSignature.getMessage());
+    }
+
+    @Test
+    void stage_shouldRejectOversizedUploadsWithoutLeavingFiles() throws Exception {
+        byte[] oversized = new byte[2048];
+        System.arraycopy(PNG, 0, oversized, 0, PNG.length);
+
+        RuntimeException ex = assertThrows(RuntimeException.class,
+            () -> imageStorageService.stage(new ByteArrayInputStream(oversized), "image/png"));
+
+        assertEquals("Image exceeds the maximum allowed size", ex.getMessage());
+        try (var files = Files.walk(uploadDir)) {
+            assertTrue(files.noneMatch(Files::isRegularFile));
+        }
+    }
+
+    @Test
+    void commitOnTransactionSuccess_shouldOnlyPublishAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        StagedImage committed = imageStorageService.stage(new ByteArrayInputStream(PNG), "image/png");
+        StagedImage rolledBack = imageStorageService.stage(new ByteArrayInputStream(JPEG), "image/jpeg");
+
+        imageStorageService.commitOnTransactionSuccess(List.of(committed));
+        assertTrue(imageStorageService.resolve(committed.key()).isEmpty());
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> {
+            sync.afterCommit();
+            sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        });
+        TransactionSynchronizationManager.clearSynchronization();
+
+        TransactionSynchronizationManager.initSynchronization();
+        imageStorageService.commitOnTransactionSuccess(List.of(rolledBack));
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertTrue(imageStorageService.resolve(committed.key()).isPresent());
+        assertTrue(imageStorageService.resolve(rolledBack.key()).isEmpty());
+        assertFalse(Files.exists(rolledBack.file()));
+    }
+
+    @Test
+    void resolve_shouldIgnoreKeysOutsideTheStore() {
+        assertTrue(imageStorageService.resolve("../application.properties").isEmpty());
+        assertTrue(imageStorageService.resolve("a".repeat(64) + ".png").isEmpty());
+    }
+}
@@ -1,10 +1,23 @@
 package com.renteasy.service;
 
+import com.renteasy.dto.CursorSlice;
+import com.renteasy.dto.ItemQueryRequest;
 import com.renteasy.dto.ItemRequest;
+import com.renteasy.dto.MapCluster;
+import com.renteasy.dto.NearbyItem;
+import com.renteasy.dto.SearchPage;
 import com.renteasy.model.Item;
 import com.renteasy.model.User;
 import com.renteasy.repository.ItemRepository;
 import com.renteasy.repository.UserRepository;
+import com.renteasy.repository.projection.ItemSummary;
+import com.renteasy.search.ItemAutocompleteIndex;
+import com.renteasy.search.ItemGeoIndex;
+import com.renteasy.search.ItemMapClusterIndex;
+import com.renteasy.search.ItemSearchIndex;
+import com.renteasy.search.ItemTrendingIndex;
+import com.renteasy.service.ImageStorageService.StagedImage;
+import com.renteasy.util.KeysetCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,13 +25,27 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -31,6 +58,42 @@ class ItemServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ImageStorageService imageStorageService;
+
+    @Mock
+    private ImageDerivativeService imageDerivativeService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+
+    @Mock
+    private ItemAutocompleteIndex itemAutocompleteIndex;
+
+    @Mock
+    private CategoryService categoryService;
+
+    @Mock
+    private ItemGeoIndex itemGeoIndex;
+
+    @Mock
+    private ItemMapClusterIndex itemMapClusterIndex;
+
+    @Mock
+    private ItemViewCounter itemViewCounter;
+
+    @Mock
+    private ItemTrendingIndex itemTrendingIndex;
+
+    @Mock
+    private ItemUniqueViewers itemUniqueViewers;
+
+    @Mock
+    private HotItemTracker hotItemTracker;
+
     @InjectMocks
     private ItemService itemService;
 
@@ -60,6 +123,9 @@ class ItemServiceTest {
         request.setLocation("Colombo");
         request.setOwnerPhoneNumber("0771234567");
 
+        CategoryService.SubcategoryEntry cameras = new CategoryService.SubcategoryEntry(9, "Cameras");
+        CategoryService.CategoryEntry electronics = new CategoryService.CategoryEntry(3, "electronics", "Electronics", List.of(cameras));
+        when(categoryService.resolve("electronics", "Cameras")).thenReturn(new CategoryService.Resolved(electronics, cameras));
         when(userRepository.findById("user-1")).thenReturn(Optional.of(owner));
         when(itemRepository.save(any(Item.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -71,11 +137,40 @@ class ItemServiceTest {
 
         assertEquals("Camera", saved.getName());
         assertEquals("electronics", saved.getCategory());
+        assertEquals(3, saved.getCategoryId());
+        assertEquals(9, saved.getSubcategoryId());
         assertEquals(owner, saved.getOwner());
         assertEquals("0771234567", saved.getOwnerPhoneNumber());
         assertNotNull(result);
     }
 
+    @Test
+    void createItem_shouldStoreImagesAsKeys() {
+        String dataUriKey = "a".repeat(64) + ".png";
+        String existingKey = "b".repeat(64) + ".jpg";
+
+        ItemRequest request = new ItemRequest();
+        request.setName("Camera");
+        request.setCategory("electronics");
+        request.setPrice(BigDecimal.valueOf(4500));
+        request.setImageUrl("data:image/png;base64,iVBORw0KGgo=");
+        request.setAdditionalImages(List.of("http://localhost:8080/api/images/" + existingKey));
+
+        when(categoryService.resolve("electronics", null)).thenReturn(new CategoryService.Resolved(
+            new CategoryService.CategoryEntry(3, "electronics", "Electronics", List.of()), null));
+        when(userRepository.findById("user-1")).thenReturn(Optional.of(owner));
+        StagedImage stagedImage = new StagedImage(dataUriKey, Path.of("staged.png"));
+        when(imageStorageService.stageDataUri("data:image/png;base64,iVBORw0KGgo=")).thenReturn(stagedImage);
+        when(imageDerivativeService.placeholderFor(stagedImage.file())).thenReturn("LEHV6nWB2yk8pyo0adR*.7kCMdnj");
+        when(itemRepository.save(any(Item.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Item result = itemService.createItem(request, "user-1");
+
+        assertEquals(dataUriKey, result.getImageUrl());
+        assertEquals("LEHV6nWB2yk8pyo0adR*.7kCMdnj", result.getImagePlaceholder());
+        assertEquals(List.of(existingKey), result.getAdditionalImages());
+    }
+
     @Test
     void deleteItem_shouldThrowWhenRequesterIsNotOwner() {
         Item item = new Item();
@@ -89,4 +184,186 @@ class ItemServiceTest {
 
         assertEquals("You don't have permission to delete this item", ex.getMessage());
     }
+
+    @Test
+    void getUniqueViewers_shouldOnlyAnswerTheOwnerForTheRequestedDays() {
+        Item item = new Item();
+        item.setId("item-1");
+        item.setOwner(owner);
+        when(itemRepository.findById("item-1")).thenReturn(Optional.of(item));
+
+        RuntimeException ex = assertThrows(RuntimeException.class,
+            () -> itemService.getUniqueViewers("item-1", "other-user", 7));
+        assertEquals("You don't have permission to view this item's statistics", ex.getMessage());
+        assertEquals("Days must be between 1 and 90",
+            assertThrows(RuntimeException.class, () -> itemService.getUniqueViewers("item-1", "user-1", 91)).getMessage());
+
+        itemService.getUniqueViewers("item-1", "user-1", 7);
+
+        LocalDate today = LocalDate.now();
+        verify(itemUniqueViewers).stats("item-1", today.minusDays(6), today);
+    }
+
+    @Test
+    void searchItems_shouldServeHitsFromIndexInRankOrder() {
+        when(itemSearchIndex.search("camera", 12, 12, false))
+            .thenReturn(Optional.of(new ItemSearchIndex.Hits(List.of("item-2", "item-1"), 14, "camera", null)));
+        when(itemRepository.findSummariesByIdIn(List.of("item-2", "item-1")))
+            .thenReturn(List.of(summary("item-1"), summary("item-2")));
+
+        SearchPage<ItemSummary> result = itemService.searchItems("camera", 1, 12);
+
+        assertEquals(List.of("item-2", "item-1"), result.getContent().stream().map(ItemSummary::id).toList());
+        assertEquals(14, result.getTotalElements());
+        assertEquals("camera", result.getSuggestion());
+        verify(itemRepository, never()).searchItems(any(), any());
+        verify(hotItemTracker).recordImpressions(List.of("item-2", "item-1"));
+    }
+
+    @Test
+    void getPopularItems_shouldServeTrendingWindowInRankOrder() {
+        List<String> ranked = IntStream.range(0, 8).mapToObj(i -> "item-" + i).toList();
+        when(itemTrendingIndex.top(ItemTrendingIndex.Window.DAY, 0, Integer.MAX_VALUE))
+            .thenReturn(Optional.of(new ItemTrendingIndex.Ranked(ranked, 8)));
+        // item-1 and item-4 became unavailable without the index hearing about it.
+        when(itemRepository.findAvailableIdsByIdIn(ranked))
+            .thenReturn(List.of("item-0", "item-2", "item-3", "item-5", "item-6", "item-7"));
+        when(itemRepository.findSummariesByIdIn(List.of("item-5", "item-6", "item-7")))
+            .thenReturn(List.of(summary("item-7"), summary("item-5"), summary("item-6")));
+
+        Page<ItemSummary> result = itemService.getPopularItems("24h", 1, 3);
+
+        assertEquals(List.of("item-5", "item-6", "item-7"), result.getContent().stream().map(ItemSummary::id).toList());
+        assertEquals(6, result.getTotalElements());
+        verify(itemRepository, never()).findPopularItems(any());
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> itemService.getPopularItems("30d", 0, 12));
+        assertEquals("Unknown window: 30d (use 24h, 7d or all)", ex.getMessage());
+    }
+
+    @Test
+    void searchItems_shouldFallBackToSqlWhileIndexIsWarming() {
+        Page<ItemSummary> sqlResult = new PageImpl<>(List.of(summary("item-1")));
+        when(itemSearchIndex.search("camera", 0, 12, false)).thenReturn(Optional.empty());
+        when(itemRepository.searchItems(eq("camera"), any(Pageable.class))).thenReturn(sqlResult);
+
+        SearchPage<ItemSummary> result = itemService.searchItems("camera", 0, 12);
+
+        assertEquals(sqlResult.getContent(), result.getContent());
+        assertNull(result.getSuggestion());
+    }
+
+    @Test
+    void getNearbyItems_shouldPageThroughIndexNeighboursNearestFirst() {
+        when(itemGeoIndex.countWithin(6.93, 79.85, 10)).thenReturn(Optional.of(3));
+        when(itemGeoIndex.nearest(6.93, 79.85, 10, 3)).thenReturn(Optional.of(List.of(
+            new ItemGeoIndex.Neighbor("item-1", 0.4),
+            new ItemGeoIndex.Neighbor("item-2", 1.2),
+            new ItemGeoIndex.Neighbor("item-3", 7.9))));
+        when(itemRepository.findSummariesByIdIn(List.of("item-3"))).thenReturn(List.of(summary("item-3")));
+
+        Page<NearbyItem> secondPage = itemService.getNearbyItems(6.93, 79.85, 10, 1, 2);
+
+        assertEquals(List.of(new NearbyItem(summary("item-3"), 7.9)), secondPage.getContent());
+        assertEquals(3, secondPage.getTotalElements());
+        verify(itemRepository, never()).findNearbyCandidates(anyDouble(), anyDouble(), anyDouble(), anyDouble(), any());
+    }
+
+    @Test
+    void scrollNearbyItems_shouldResumeAfterCursorDistanceAndId() {
+        ItemGeoIndex.Neighbor last = new ItemGeoIndex.Neighbor("item-2", 1.2);
+        when(itemGeoIndex.nearestAfter(6.93, 79.85, 10, last, 3)).thenReturn(Optional.of(List.of(
+            new ItemGeoIndex.Neighbor("item-3", 1.2),
+            new ItemGeoIndex.Neighbor("item-4", 3.5),
+            new ItemGeoIndex.Neighbor("item-5", 7.9))));
+        when(itemRepository.findSummariesByIdIn(List.of("item-3", "item-4")))
+            .thenReturn(List.of(summary("item-4"), summary("item-3")));
+
+        CursorSlice<NearbyItem> slice = itemService.scrollNearbyItems(6.93, 79.85, 10,
+            KeysetCursor.encode(1.2, "item-2"), 2);
+
+        assertEquals(List.of("item-3", "item-4"), slice.getContent().stream().map(nearby -> nearby.item().id()).toList());
+        assertEquals(List.of(1.2, 3.5), slice.getContent().stream().map(NearbyItem::distanceKm).toList());
+        assertEquals(new KeysetCursor("3.5", "item-4"), KeysetCursor.decode(slice.getNextCursor()));
+        verify(itemRepository, never()).findGeoPointsWithin(anyDouble(), anyDouble(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void getMapClusters_shouldExpandLeafClustersIntoSummariesAndRejectOversizedBoxes() {
+        when(itemMapClusterIndex.levelForZoom(anyInt())).thenAnswer(invocation -> Math.min(invocation.<Integer>getArgument(0) + 3, 16));
+        when(itemMapClusterIndex.cellsCovering(6.9, 7.0, 79.8, 79.9, 16)).thenReturn(400L);
+        when(itemMapClusterIndex.cellsCovering(-60, 60, -170, 170, 16)).thenReturn(50_000_000L);
+        when(itemMapClusterIndex.clusters(6.9, 7.0, 79.8, 79.9, 16)).thenReturn(Optional.of(List.of(
+            new ItemMapClusterIndex.Cluster("16/100/200", 2, 6.95, 79.85, BigDecimal.TEN, BigDecimal.valueOf(40),
+                List.of("item-1", "item-2")))));
+        when(itemRepository.findSummariesByIdIn(List.of("item-1", "item-2")))
+            .thenReturn(List.of(summary("item-2"), summary("item-1")));
+
+        List<MapCluster<ItemSummary>> clusters = itemService.getMapClusters(6.9, 7.0, 79.8, 79.9, 15);
+
+        assertEquals(1, clusters.size());
+        assertEquals(List.of("item-1", "item-2"), clusters.get(0).items().stream().map(ItemSummary::id).toList());
+        assertEquals("Bounding box is too large for zoom level 14",
+            assertThrows(RuntimeException.class, () -> itemService.getMapClusters(-60, 60, -170, 170, 14)).getMessage());
+        assertThrows(RuntimeException.class, () -> itemService.getMapClusters(10, 5, 79.8, 79.9, 3));
+    }
+
+    @Test
+    void getMapClusters_shouldStopExpandingClustersAtTheResponseCap() {
+        List<String> large = IntStream.range(0, ItemMapClusterIndex.MAX_ITEMS_PER_QUERY - 1).mapToObj(i -> "item-" + i).toList();
+        when(itemMapClusterIndex.levelForZoom(16)).thenReturn(16);
+        when(itemMapClusterIndex.cellsCovering(6.9, 7.0, 79.8, 79.9, 16)).thenReturn(400L);
+        when(itemMapClusterIndex.clusters(6.9, 7.0, 79.8, 79.9, 16)).thenReturn(Optional.of(List.of(
+            new ItemMapClusterIndex.Cluster("16/1/1", large.size(), 6.95, 79.85, BigDecimal.ONE, BigDecimal.TEN, large),
+            new ItemMapClusterIndex.Cluster("16/1/2", 2, 6.95, 79.86, BigDecimal.ONE, BigDecimal.TEN, List.of("pair-1", "pair-2")),
+            new ItemMapClusterIndex.Cluster("16/1/3", 1, 6.95, 79.87, BigDecimal.ONE, BigDecimal.TEN, List.of("single")))));
+        when(itemRepository.findSummariesByIdIn(anyList()))
+            .thenAnswer(invocation -> invocation.<List<String>>getArgument(0).stream().map(this::summary).toList());
+
+        List<MapCluster<ItemSummary>> clusters = itemService.getMapClusters(6.9, 7.0, 79.8, 79.9, 16);
+
+        assertEquals(large.size(), clusters.get(0).items().size());
+        assertNull(clusters.get(1).items());
+        assertEquals(2, clusters.get(1).count());
+        assertEquals(List.of("single"), clusters.get(2).items().stream().map(ItemSummary::id).toList());
+    }
+
+    @Test
+    void queryItems_shouldRejectInvalidFilters() {
+        ItemQueryRequest invertedPrices = new ItemQueryRequest();
+        invertedPrices.setMinPrice(BigDecimal.valueOf(500));
+        invertedPrices.setMaxPrice(BigDecimal.TEN);
+        ItemQueryRequest partialBox = new ItemQueryRequest();
+        partialBox.setMinLat(6.8);
+        ItemQueryRequest unknownSort = new ItemQueryRequest();
+        unknownSort.setSort("random");
+
+        assertEquals("Minimum price cannot be greater than maximum price",
+            assertThrows(RuntimeException.class, () -> itemService.queryItems(invertedPrices)).getMessage());
+        assertEquals("Bounding box needs minLat, maxLat, minLng and maxLng",
+            assertThrows(RuntimeException.class, () -> itemService.queryItems(partialBox)).getMessage());
+        assertThrows(RuntimeException.class, () -> itemService.queryItems(unknownSort));
+        verify(itemRepository, never()).findSummaries(any(), any());
+    }
+
+    @Test
+    void scrollAllItems_shouldFetchOneExtraRowAndReturnCursorOfLastKept() {
+        when(itemRepository.findSummaries(any(), any(Sort.class), eq(3)))
+            .thenReturn(List.of(summary("item-3"), summary("item-2"), summary("item-1")));
+
+        CursorSlice<ItemSummary> slice = itemService.scrollAllItems(null, 2);
+
+        assertEquals(List.of("item-3", "item-2"), slice.getContent().stream().map(ItemSummary::id).toList());
+        assertTrue(slice.hasNext());
+        assertEquals("item-2", KeysetCursor.decode(slice.getNextCursor()).id());
+    }
+
+    @Test
+    void scrollAllItems_shouldRejectMalformedCursor() {
+        assertThrows(RuntimeException.class, () -> itemService.scrollAllItems("not a cursor", 12));
+    }
+
+    private ItemSummary summary(String id) {
+        return new ItemSummary(id, "Camera", "electronics", null, BigDecimal.TEN, null, null, null, true,
+            null, null, null, 0, false, null, null, "user-1", "Owner", "User");
+    }
 }
@@ -0,0 +1,128 @@
+package com.renteasy.service;
+
+import com.renteasy.search.ItemAutocompleteIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemViewCounterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ItemAutocompleteIndex itemAutocompleteIndex;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_shouldWriteConcurrentViewsInOneBatchWithoutLosingAny() throws InterruptedException {
+        ItemViewCounter counter = new ItemViewCounter(jdbcTemplate, transactionManager, itemAutocompleteIndex, 5000);
+        ExecutorService viewers = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            viewers.submit(() -> {
+                for (int view = 0; view < 1000; view++) {
+                    counter.record(view % 4 == 0 ? "item-b" : "item-a");
+                }
+            });
+        }
+        viewers.shutdown();
+        assertTrue(viewers.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(8000, counter.flush());
+
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq("UPDATE items SET views = views + ? WHERE id = ?"), batch.capture());
+        assertEquals(2, batch.getValue().size());
+        assertArrayEquals(new Object[] {6000L, "item-a"}, batch.getValue().get(0));
+        assertArrayEquals(new Object[] {2000L, "item-b"}, batch.getValue().get(1));
+        assertEquals(0, counter.getPendingViews());
+        assertEquals(8000, counter.getFlushedViews());
+        verify(itemAutocompleteIndex).addViews(Map.of("item-a", 6000L, "item-b", 2000L));
+        assertEquals(0, counter.flush());
+    }
+
+    @Test
+    void flush_shouldKeepCountsWhenTheUpdateFails() {
+        ItemViewCounter counter = new ItemViewCounter(jdbcTemplate, transactionManager, itemAutocompleteIndex, 5000);
+        counter.record("item-a");
+        counter.record("item-a");
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new QueryTimeoutException("timeout"));
+
+        assertThrows(QueryTimeoutException.class, counter::flush);
+
+        assertEquals(2, counter.pendingViews("item-a"));
+        assertEquals(1, counter.getFailedFlushCount());
+        assertEquals(0, counter.getFlushedViews());
+        verify(itemAutocompleteIndex, never()).addViews(anyMap());
+    }
+
+    @Test
+    void record_shouldNotTouchTheDatabaseUntilFlushed() {
+        ItemViewCounter counter = new ItemViewCounter(jdbcTemplate, transactionManager, itemAutocompleteIndex, 5000);
+
+        counter.record("item-a");
+
+        assertEquals(1, counter.pendingViews("item-a"));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void flush_shouldDropItemsWithoutViewsSinceTheLastFlush() {
+        ItemViewCounter counter = new ItemViewCounter(jdbcTemplate, transactionManager, itemAutocompleteIndex, 5000);
+        counter.record("item-a");
+        counter.record("item-b");
+        assertEquals(2, counter.flush());
+        counter.record("item-b");
+
+        assertEquals(1, counter.flush());
+        assertEquals(1, counter.getTrackedItems());
+
+        assertEquals(0, counter.flush());
+        assertEquals(0, counter.getTrackedItems());
+    }
+
+    @Test
+    void flush_shouldNotLoseViewsRecordedWhileEntriesAreDropped() throws InterruptedException {
+        ItemViewCounter counter = new ItemViewCounter(jdbcTemplate, transactionManager, itemAutocompleteIndex, 5000);
+        ExecutorService viewers = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            viewers.submit(() -> {
+                for (int view = 0; view < 20000; view++) {
+                    counter.record("item-" + view % 16);
+                }
+            });
+        }
+        viewers.shutdown();
+        while (!viewers.awaitTermination(1, TimeUnit.MILLISECONDS)) {
+            counter.flush();
+        }
+        counter.flush();
+
+        assertEquals(160000, counter.getFlushedViews());
+        assertEquals(0, counter.getPendingViews());
+    }
+}
@@ -0,0 +1,64 @@
+package com.renteasy.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimate_shouldStayWithinFewPercentOfTheDistinctCount() {
+        for (int distinct : new int[] {10, 1_000, 10_000, 200_000}) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (int i = 0; i < distinct; i++) {
+                sketch.add("viewer-" + i);
+                sketch.add("viewer-" + i);
+            }
+
+            double error = Math.abs(sketch.estimate() - distinct) / (double) distinct;
+            assertTrue(error < 0.05, distinct + " distinct values estimated as " + sketch.estimate());
+        }
+    }
+
+    @Test
+    void merge_shouldCountValuesSeenInBothSketchesOnce() {
+        HyperLogLog monday = new HyperLogLog();
+        HyperLogLog tuesday = new HyperLogLog();
+        HyperLogLog both = new HyperLogLog();
+        for (int i = 0; i < 6_000; i++) {
+            monday.add("viewer-" + i);
+            both.add("viewer-" + i);
+        }
+        for (int i = 4_000; i < 10_000; i++) {
+            tuesday.add("viewer-" + i);
+            both.add("viewer-" + i);
+        }
+
+        monday.merge(tuesday);
+
+        assertEquals(both, monday);
+        assertEquals(10_000, monday.estimate(), 500);
+        assertThrows(IllegalArgumentException.class, () -> monday.merge(new HyperLogLog(10)));
+    }
+
+    @Test
+    void toBytes_shouldRoundTripSparseAndDenseSketches() {
+        HyperLogLog sparse = new HyperLogLog();
+        for (int i = 0; i < 20; i++) {
+            sparse.add("viewer-" + i);
+        }
+        HyperLogLog dense = sparse.copy();
+        for (int i = 20; i < 50_000; i++) {
+            dense.add("viewer-" + i);
+        }
+
+        byte[] sparseBytes = sparse.toBytes();
+        byte[] denseBytes = dense.toBytes();
+
+        assertTrue(sparseBytes.length <= 2 + 20 * 3);
+        assertEquals(2 + 4096, denseBytes.length);
+        assertEquals(sparse, HyperLogLog.fromBytes(sparseBytes));
+        assertEquals(dense, HyperLogLog.fromBytes(denseBytes));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[] {2, 12, 0}));
+    }
+}